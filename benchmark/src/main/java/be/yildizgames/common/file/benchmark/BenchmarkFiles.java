@@ -0,0 +1,118 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file.benchmark;
+
+import be.yildizgames.common.file.ResourceUtil;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Generate the files used by the benchmarks, under a temporary directory.
+ *
+ * @author Grégory Van den Borre
+ */
+final class BenchmarkFiles {
+
+    private BenchmarkFiles() {
+        super();
+    }
+
+    /**
+     * Create a new temporary directory.
+     *
+     * @param prefix Directory name prefix.
+     * @return The created directory.
+     */
+    static Path createTempDirectory(String prefix) {
+        try {
+            return Files.createTempDirectory("yildiz-benchmark-" + prefix);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Write a file filled with random bytes, always the same for a given size.
+     *
+     * @param file File to write.
+     * @param size Number of bytes to write.
+     * @return The written file.
+     */
+    static Path writeRandomFile(Path file, long size) {
+        Random random = new Random(size);
+        byte[] buffer = new byte[64 * 1024];
+        try (OutputStream out = Files.newOutputStream(file)) {
+            long remaining = size;
+            while (remaining > 0) {
+                random.nextBytes(buffer);
+                int length = (int) Math.min(buffer.length, remaining);
+                out.write(buffer, 0, length);
+                remaining -= length;
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return file;
+    }
+
+    /**
+     * Create a tree of directories and files.
+     *
+     * @param root Tree root, must exist.
+     * @param depth Number of directory levels below the root.
+     * @param width Number of sub directories in each directory.
+     * @param files Number of files in each directory.
+     * @param fileSize Size of each file.
+     */
+    static void createTree(Path root, int depth, int width, int files, int fileSize) {
+        try {
+            for (int i = 0; i < files; i++) {
+                writeRandomFile(root.resolve("file-" + i + ".bin"), fileSize);
+            }
+            if (depth > 0) {
+                for (int i = 0; i < width; i++) {
+                    Path directory = Files.createDirectory(root.resolve("dir-" + i));
+                    createTree(directory, depth - 1, width, files, fileSize);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Delete a directory and its content, if it exists.
+     *
+     * @param directory Directory to delete.
+     */
+    static void delete(Path directory) {
+        if (directory != null && Files.exists(directory)) {
+            ResourceUtil.deleteDirectoryTree(directory);
+        }
+    }
+}
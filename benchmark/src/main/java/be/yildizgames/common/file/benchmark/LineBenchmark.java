@@ -0,0 +1,110 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file.benchmark;
+
+import be.yildizgames.common.file.ResourceUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark the line based read and write operations.
+ *
+ * @author Grégory Van den Borre
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LineBenchmark {
+
+    /**
+     * Number of lines in the file.
+     */
+    @Param({"10", "10000", "1000000"})
+    public int lineCount;
+
+    private Path directory;
+
+    private Path readFile;
+
+    private Path writeFile;
+
+    private Path appendFile;
+
+    private List<String> lines;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.directory = BenchmarkFiles.createTempDirectory("lines");
+        this.lines = new ArrayList<>(this.lineCount);
+        for (int i = 0; i < this.lineCount; i++) {
+            this.lines.add("line " + i + " of the benchmark file with some content");
+        }
+        this.readFile = this.directory.resolve("read.txt");
+        this.writeFile = this.directory.resolve("write.txt");
+        this.appendFile = this.directory.resolve("append.txt");
+        ResourceUtil.writeAllLines(this.readFile, this.lines);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkFiles.delete(this.directory);
+    }
+
+    @Benchmark
+    public List<String> readAllLines() {
+        return ResourceUtil.readAllLines(this.readFile);
+    }
+
+    @Benchmark
+    public void writeAllLines() {
+        ResourceUtil.writeAllLines(this.writeFile, this.lines);
+    }
+
+    /**
+     * Single line append, the line count parameter has no effect but the file grows during the run.
+     */
+    @Benchmark
+    public void addLine() {
+        ResourceUtil.addLine(this.appendFile, "appended line\n");
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file.benchmark;
+
+import be.yildizgames.common.file.FileProperties;
+import be.yildizgames.common.file.ResourceUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark the properties loading.
+ *
+ * @author Grégory Van den Borre
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PropertiesBenchmark {
+
+    /**
+     * Number of entries in the properties file.
+     */
+    @Param({"10", "1000", "100000"})
+    public int entries;
+
+    private Path directory;
+
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.directory = BenchmarkFiles.createTempDirectory("properties");
+        this.file = this.directory.resolve("test.properties");
+        Properties properties = new Properties();
+        for (int i = 0; i < this.entries; i++) {
+            properties.setProperty("key." + i, "value of the entry " + i);
+        }
+        try (Writer writer = ResourceUtil.getFileWriter(this.file)) {
+            properties.store(writer, "");
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkFiles.delete(this.directory);
+    }
+
+    @Benchmark
+    public Properties getPropertiesFromFile() {
+        return FileProperties.getPropertiesFromFile(this.file);
+    }
+
+    @Benchmark
+    public Properties getPropertiesFromFileWithOverride() {
+        return FileProperties.getPropertiesFromFile(this.file, "key.0=override", "key.1=override");
+    }
+}
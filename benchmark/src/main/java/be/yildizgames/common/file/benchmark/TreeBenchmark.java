@@ -0,0 +1,134 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file.benchmark;
+
+import be.yildizgames.common.file.FileResource;
+import be.yildizgames.common.file.ResourceUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmark the operations walking a directory tree.
+ * The tree shape is given as "depth x width x files": directory levels, sub directories per directory and files per
+ * directory.
+ *
+ * @author Grégory Van den Borre
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TreeBenchmark {
+
+    /**
+     * Tree shape, flat with many files, or deep with few files per directory.
+     */
+    @Param({"0x0x1000", "3x10x10", "6x2x5"})
+    public String shape;
+
+    private Path directory;
+
+    private FileResource resource;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.directory = BenchmarkFiles.createTempDirectory("tree");
+        createTree(this.directory, this.shape);
+        this.resource = FileResource.findResource(this.directory.toString());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkFiles.delete(this.directory);
+    }
+
+    @Benchmark
+    public List<FileResource> listFile() throws IOException {
+        return this.resource.listFile();
+    }
+
+    @Benchmark
+    public long getFilesInDirectory() {
+        try (Stream<Path> files = ResourceUtil.getFilesInDirectory(this.directory)) {
+            return files.count();
+        }
+    }
+
+    static void createTree(Path root, String shape) {
+        String[] values = shape.split("x");
+        BenchmarkFiles.createTree(root, Integer.parseInt(values[0]), Integer.parseInt(values[1]), Integer.parseInt(values[2]), 128);
+    }
+
+    /**
+     * The tree is deleted by the benchmark, so it is created again before each invocation.
+     */
+    @State(Scope.Thread)
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 5)
+    @Measurement(iterations = 20)
+    @Fork(1)
+    public static class Delete {
+
+        @Param({"0x0x1000", "3x10x10", "6x2x5"})
+        public String shape;
+
+        private Path directory;
+
+        @Setup(Level.Invocation)
+        public void setup() {
+            this.directory = BenchmarkFiles.createTempDirectory("delete");
+            createTree(this.directory, this.shape);
+        }
+
+        @TearDown(Level.Invocation)
+        public void tearDown() {
+            BenchmarkFiles.delete(this.directory);
+        }
+
+        @Benchmark
+        public void deleteDirectoryTree() {
+            ResourceUtil.deleteDirectoryTree(this.directory);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file;
+
+import be.yildizgames.common.file.metrics.FileMetrics;
+import be.yildizgames.common.file.metrics.FileOperation;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Create many files and directories, each directory being created only once whatever the number of files it contains.
+ *
+ * @author Grégory Van den Borre
+ */
+final class BatchCreator {
+
+    private BatchCreator() {
+        super();
+    }
+
+    /**
+     * Compute the directories to create, only the deepest directories are kept as creating them creates their parents.
+     *
+     * @param directories Directories to create.
+     * @return The deepest unique directories, as absolute paths.
+     */
+    static List<Path> plan(final Collection<Path> directories) {
+        TreeSet<Path> sorted = new TreeSet<>();
+        for (Path directory : directories) {
+            sorted.add(directory.toAbsolutePath().normalize());
+        }
+        List<Path> result = new ArrayList<>(sorted.size());
+        Set<Path> covered = new HashSet<>();
+        // Descendants are sorted after their ancestors, so they are planned first and cover them.
+        for (Path directory : sorted.descendingSet()) {
+            if (covered.add(directory)) {
+                result.add(directory);
+                for (Path parent = directory.getParent(); parent != null && covered.add(parent); parent = parent.getParent()) {
+                    // Ancestors are created with the directory.
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Create directories in parallel.
+     *
+     * @param directories Directories to create.
+     * @param parallelism Maximum number of directories created at the same time.
+     */
+    static void createDirectories(final Collection<Path> directories, final int parallelism) {
+        List<Path> plan = plan(directories);
+        run(plan, parallelism, directory -> {
+            if (Files.isDirectory(directory)) {
+                return;
+            }
+            long start = FileMetrics.start();
+            try {
+                Files.createDirectories(directory);
+                FileMetrics.success(FileOperation.CREATE, directory, 0, start);
+            } catch (IOException e) {
+                FileMetrics.error(FileOperation.CREATE, directory, start, e);
+                throw e;
+            }
+        });
+    }
+
+    /**
+     * Create empty files in parallel, existing files are kept unchanged, their parent directories must exist.
+     *
+     * @param files Files to create.
+     * @param parallelism Maximum number of files created at the same time.
+     */
+    static void createFiles(final List<Path> files, final int parallelism) {
+        run(files, parallelism, file -> {
+            long start = FileMetrics.start();
+            try {
+                Files.createFile(file);
+                FileMetrics.success(FileOperation.CREATE, file, 0, start);
+            } catch (FileAlreadyExistsException e) {
+                if (Files.isDirectory(file)) {
+                    throw e;
+                }
+            } catch (IOException e) {
+                FileMetrics.error(FileOperation.CREATE, file, start, e);
+                throw e;
+            }
+        });
+    }
+
+    private static void run(List<Path> paths, int parallelism, PathAction action) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        AtomicInteger next = new AtomicInteger();
+        int workers = Math.min(parallelism, paths.size());
+        if (workers <= 1) {
+            try {
+                runNext(paths, next, action);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot create " + e.getMessage(), e);
+            }
+            return;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(workers, r -> {
+            Thread t = new Thread(r, "file-batch-creator");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>(workers);
+            for (int i = 0; i < workers; i++) {
+                futures.add(executor.submit(() -> {
+                    runNext(paths, next, action);
+                    return null;
+                }));
+            }
+            IllegalStateException error = null;
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    if (error == null) {
+                        error = new IllegalStateException("Cannot create " + e.getCause().getMessage(), e.getCause());
+                        next.set(paths.size());
+                    } else {
+                        error.addSuppressed(e.getCause());
+                    }
+                }
+            }
+            if (error != null) {
+                throw error;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while creating files", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void runNext(List<Path> paths, AtomicInteger next, PathAction action) throws IOException {
+        int index;
+        while ((index = next.getAndIncrement()) < paths.size()) {
+            action.run(paths.get(index));
+        }
+    }
+
+    @FunctionalInterface
+    private interface PathAction {
+
+        void run(Path path) throws IOException;
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file;
+
+import be.yildizgames.common.file.metrics.FileMetrics;
+import be.yildizgames.common.file.metrics.FileOperation;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Read many files concurrently with a bounded number of threads.
+ * Files are claimed by the workers in small batches, so a large number of small files does not create one task per
+ * file, while a large file only keeps one worker busy.
+ *
+ * @author Grégory Van den Borre
+ */
+final class BulkReader {
+
+    /**
+     * Number of files claimed at once by a worker.
+     */
+    private static final int BATCH_SIZE = 8;
+
+    private BulkReader() {
+        super();
+    }
+
+    /**
+     * Read all the files.
+     *
+     * @param files Files to read, duplicates are read once.
+     * @param parallelism Maximum number of files read at the same time.
+     * @return The results, in the order of the provided files.
+     */
+    static Map<Path, FileContent> readAll(final Collection<Path> files, final int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        List<Path> paths = new ArrayList<>(new LinkedHashSet<>(files));
+        FileContent[] results = new FileContent[paths.size()];
+        int workers = Math.min(parallelism, (paths.size() + BATCH_SIZE - 1) / BATCH_SIZE);
+        if (workers <= 1) {
+            readBatches(paths, results, new AtomicInteger());
+        } else {
+            runWorkers(paths, results, workers);
+        }
+        Map<Path, FileContent> map = new LinkedHashMap<>(paths.size() * 2);
+        for (FileContent result : results) {
+            map.put(result.getPath(), result);
+        }
+        return map;
+    }
+
+    private static void runWorkers(List<Path> paths, FileContent[] results, int workers) {
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(workers, r -> {
+            Thread t = new Thread(r, "file-bulk-reader");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>(workers);
+            for (int i = 0; i < workers; i++) {
+                futures.add(executor.submit(() -> readBatches(paths, results, next)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reading files", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error while reading files", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void readBatches(List<Path> paths, FileContent[] results, AtomicInteger next) {
+        int from;
+        while ((from = next.getAndAdd(BATCH_SIZE)) < paths.size()) {
+            int to = Math.min(from + BATCH_SIZE, paths.size());
+            for (int i = from; i < to; i++) {
+                results[i] = read(paths.get(i));
+            }
+        }
+    }
+
+    private static FileContent read(Path file) {
+        long start = FileMetrics.start();
+        try {
+            byte[] content = ResourceUtil.readAllBytes(file);
+            FileMetrics.success(FileOperation.READ_BYTES, file, content.length, start);
+            return FileContent.success(file, content);
+        } catch (IOException e) {
+            FileMetrics.error(FileOperation.READ_BYTES, file, start, e);
+            return FileContent.failure(file, e);
+        }
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializer decorator keeping the last read or written object in memory, and writing it to the file in the
+ * background.
+ * Reads are served from memory once the object is known, writes only update the memory and mark it dirty, the file
+ * being written once per flush interval whatever the number of writes in that interval.
+ * Pending writes are flushed on {@link #flush()}, on {@link #close()}, and when the virtual machine shuts down.
+ * The cached object is shared with the callers, so it must not be modified once written.
+ * Background flushes of all the instances are done on a single daemon thread.
+ *
+ * @param <T> Object type to use.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class CachingSerializer<T> implements Serializer<T>, Closeable {
+
+    private static final System.Logger LOGGER = System.getLogger(CachingSerializer.class.getName());
+
+    /**
+     * Scheduler for the background flushes of all the instances.
+     */
+    private static final ScheduledExecutorService SCHEDULER = createScheduler();
+
+    /**
+     * Instances not closed yet, flushed when the virtual machine shuts down.
+     */
+    private static final Set<CachingSerializer<?>> OPEN = ConcurrentHashMap.newKeySet();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> OPEN.forEach(CachingSerializer::flushQuietly), "caching-serializer-shutdown"));
+    }
+
+    /**
+     * Wrapped serializer.
+     */
+    private final Serializer<T> delegate;
+
+    /**
+     * Delay between a write and the flush, in milliseconds.
+     */
+    private final long flushInterval;
+
+    /**
+     * Serialize the writes to the wrapped serializer.
+     */
+    private final Object flushLock = new Object();
+
+    /**
+     * Last read or written object.
+     */
+    private T value;
+
+    /**
+     * True once the value is known.
+     */
+    private boolean loaded;
+
+    /**
+     * True if the value was not written to the file yet.
+     */
+    private boolean dirty;
+
+    /**
+     * True if a background flush is scheduled.
+     */
+    private boolean scheduled;
+
+    private boolean closed;
+
+    private CachingSerializer(Serializer<T> delegate, Duration flushInterval) {
+        super();
+        this.delegate = Objects.requireNonNull(delegate);
+        if (flushInterval.isNegative()) {
+            throw new IllegalArgumentException("Flush interval cannot be negative: " + flushInterval);
+        }
+        this.flushInterval = flushInterval.toMillis();
+    }
+
+    /**
+     * Wrap a serializer.
+     *
+     * @param delegate Serializer to wrap.
+     * @param flushInterval Maximum delay between a write and the file update.
+     * @param <T> Object type to use.
+     * @return The caching serializer.
+     */
+    public static <T> CachingSerializer<T> of(final Serializer<T> delegate, final Duration flushInterval) {
+        CachingSerializer<T> serializer = new CachingSerializer<>(delegate, flushInterval);
+        OPEN.add(serializer);
+        return serializer;
+    }
+
+    @Override
+    public T readFromFile() {
+        synchronized (this) {
+            if (this.loaded) {
+                return this.value;
+            }
+        }
+        T read = this.delegate.readFromFile();
+        synchronized (this) {
+            // A write done during the read is more recent.
+            if (!this.loaded) {
+                this.value = read;
+                this.loaded = true;
+            }
+            return this.value;
+        }
+    }
+
+    @Override
+    public synchronized void writeToFile(final T o) {
+        if (this.closed) {
+            throw new IllegalStateException("Serializer is closed.");
+        }
+        this.value = o;
+        this.loaded = true;
+        this.dirty = true;
+        if (!this.scheduled) {
+            this.scheduled = true;
+            SCHEDULER.schedule(this::backgroundFlush, this.flushInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * @return True if the last written object is not in the file yet.
+     */
+    public synchronized boolean isDirty() {
+        return this.dirty;
+    }
+
+    /**
+     * Write the last written object to the file now, if not already done.
+     */
+    public void flush() {
+        synchronized (this.flushLock) {
+            T toWrite;
+            synchronized (this) {
+                if (!this.dirty) {
+                    return;
+                }
+                toWrite = this.value;
+                this.dirty = false;
+            }
+            try {
+                this.delegate.writeToFile(toWrite);
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    this.dirty = true;
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Flush the pending write and stop caching, further writes are rejected.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            this.closed = true;
+        }
+        OPEN.remove(this);
+        this.flush();
+    }
+
+    /**
+     * Forget the cached object, the next read will be done from the file, a pending write is flushed first.
+     */
+    public void invalidate() {
+        this.flush();
+        synchronized (this) {
+            if (!this.dirty) {
+                this.loaded = false;
+                this.value = null;
+            }
+        }
+    }
+
+    private void backgroundFlush() {
+        synchronized (this) {
+            this.scheduled = false;
+        }
+        try {
+            this.flush();
+        } catch (RuntimeException e) {
+            LOGGER.log(System.Logger.Level.ERROR, "Background flush failed, will retry.", e);
+            synchronized (this) {
+                if (!this.scheduled && !this.closed) {
+                    this.scheduled = true;
+                    SCHEDULER.schedule(this::backgroundFlush, Math.max(1, this.flushInterval), TimeUnit.MILLISECONDS);
+                }
+            }
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            this.flush();
+        } catch (RuntimeException e) {
+            LOGGER.log(System.Logger.Level.ERROR, "Flush on shutdown failed.", e);
+        }
+    }
+
+    private static ScheduledExecutorService createScheduler() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "caching-serializer-flush");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+}
@@ -0,0 +1,309 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystemAlreadyExistsException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Load resources from a class loader, whether they are in a directory or in a jar.
+ * The zip file system of a jar is opened once and shared by all the loaders, resolved resource paths are cached, and
+ * resource contents can be cached in memory up to a maximum number of bytes, the least recently used contents being
+ * evicted first.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class ClasspathResourceLoader {
+
+    /**
+     * Zip file systems opened for jars, by jar URI, kept open for the life of the application.
+     */
+    private static final Map<URI, FileSystem> FILE_SYSTEMS = new ConcurrentHashMap<>();
+
+    /**
+     * Loaders used by {@link ResourceUtil#getFileFromClassPath(Class, String)}, not preventing their class loader to
+     * be collected, as they only keep a weak reference to it.
+     */
+    private static final Map<ClassLoader, ClasspathResourceLoader> SHARED = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * Class loader to find the resources, null for a shared loader.
+     */
+    private final ClassLoader classLoader;
+
+    /**
+     * Class loader of a shared loader, weakly referenced as it is the key of this loader in the shared map.
+     */
+    private final WeakReference<ClassLoader> weakClassLoader;
+
+    /**
+     * Resolved resource paths, by name.
+     */
+    private final Map<String, Path> paths = new ConcurrentHashMap<>();
+
+    /**
+     * Cached contents, by name, in access order.
+     */
+    private final LinkedHashMap<String, byte[]> contents = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Maximum number of cached bytes, 0 to disable the content cache.
+     */
+    private final long maxCachedBytes;
+
+    /**
+     * Number of bytes currently cached.
+     */
+    private long cachedBytes;
+
+    private ClasspathResourceLoader(ClassLoader classLoader, long maxCachedBytes, boolean weak) {
+        super();
+        Objects.requireNonNull(classLoader);
+        if (maxCachedBytes < 0) {
+            throw new IllegalArgumentException("Maximum cached bytes cannot be negative: " + maxCachedBytes);
+        }
+        this.classLoader = weak ? null : classLoader;
+        this.weakClassLoader = weak ? new WeakReference<>(classLoader) : null;
+        this.maxCachedBytes = maxCachedBytes;
+    }
+
+    /**
+     * Create a loader caching the resource paths but not their content.
+     *
+     * @param classLoader Class loader to find the resources.
+     * @return The created loader.
+     */
+    public static ClasspathResourceLoader create(final ClassLoader classLoader) {
+        return new ClasspathResourceLoader(classLoader, 0, false);
+    }
+
+    /**
+     * Create a loader caching the resource paths and their content.
+     *
+     * @param classLoader Class loader to find the resources.
+     * @param maxCachedBytes Maximum number of content bytes kept in memory.
+     * @return The created loader.
+     */
+    public static ClasspathResourceLoader create(final ClassLoader classLoader, final long maxCachedBytes) {
+        return new ClasspathResourceLoader(classLoader, maxCachedBytes, false);
+    }
+
+    /**
+     * Provide a loader shared by all the callers using the same class loader, it does not cache content.
+     *
+     * @param classLoader Class loader to find the resources.
+     * @return The shared loader.
+     */
+    static ClasspathResourceLoader shared(final ClassLoader classLoader) {
+        return SHARED.computeIfAbsent(classLoader, cl -> new ClasspathResourceLoader(cl, 0, true));
+    }
+
+    /**
+     * @return The class loader to find the resources.
+     * @throws IllegalStateException If the class loader of a shared loader was collected.
+     */
+    private ClassLoader getClassLoader() {
+        if (this.classLoader != null) {
+            return this.classLoader;
+        }
+        ClassLoader cl = this.weakClassLoader.get();
+        if (cl == null) {
+            throw new IllegalStateException("Class loader was collected.");
+        }
+        return cl;
+    }
+
+    /**
+     * Find a resource.
+     *
+     * @param name Resource name, as for {@link ClassLoader#getResource(String)}.
+     * @return The resource path, in the default file system or in the jar file system, empty if not found.
+     */
+    public Optional<Path> find(final String name) {
+        Objects.requireNonNull(name);
+        Path path = this.paths.get(name);
+        if (path == null) {
+            URL url = this.getClassLoader().getResource(name);
+            if (url == null) {
+                return Optional.empty();
+            }
+            try {
+                path = toPath(url.toURI());
+            } catch (URISyntaxException | IOException e) {
+                throw new IllegalStateException("Cannot open resource " + name, e);
+            }
+            this.paths.put(name, path);
+        }
+        return Optional.of(path);
+    }
+
+    /**
+     * Provide the path of a resource.
+     *
+     * @param name Resource name, as for {@link ClassLoader#getResource(String)}.
+     * @return The resource path, in the default file system or in the jar file system.
+     * @throws IllegalStateException If the resource does not exist.
+     */
+    public Path getPath(final String name) {
+        return this.find(name).orElseThrow(() -> new IllegalStateException("Resource not found: " + name));
+    }
+
+    /**
+     * Open a channel to read a resource.
+     *
+     * @param name Resource name, as for {@link ClassLoader#getResource(String)}.
+     * @return The opened channel, to be closed by the caller.
+     * @throws IllegalStateException If the resource does not exist or cannot be opened.
+     */
+    public SeekableByteChannel newChannel(final String name) {
+        Path path = this.getPath(name);
+        try {
+            return Files.newByteChannel(path);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot open resource " + name, e);
+        }
+    }
+
+    /**
+     * Read a resource content, from the cache if present.
+     *
+     * @param name Resource name, as for {@link ClassLoader#getResource(String)}.
+     * @return A read only buffer on the resource content.
+     * @throws IllegalStateException If the resource does not exist or cannot be read.
+     */
+    public ByteBuffer getBuffer(final String name) {
+        return ByteBuffer.wrap(this.load(name)).asReadOnlyBuffer();
+    }
+
+    /**
+     * Read a resource content, from the cache if present.
+     *
+     * @param name Resource name, as for {@link ClassLoader#getResource(String)}.
+     * @return A copy of the resource content.
+     * @throws IllegalStateException If the resource does not exist or cannot be read.
+     */
+    public byte[] getBytes(final String name) {
+        return this.load(name).clone();
+    }
+
+    /**
+     * @return The number of content bytes currently cached.
+     */
+    public synchronized long getCachedBytes() {
+        return this.cachedBytes;
+    }
+
+    /**
+     * Remove all the cached paths and contents.
+     */
+    public synchronized void clear() {
+        this.paths.clear();
+        this.contents.clear();
+        this.cachedBytes = 0;
+    }
+
+    private byte[] load(String name) {
+        synchronized (this) {
+            byte[] cached = this.contents.get(name);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        Path path = this.getPath(name);
+        byte[] content;
+        try {
+            content = Files.readAllBytes(path);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read resource " + name, e);
+        }
+        if (content.length <= this.maxCachedBytes) {
+            this.cache(name, content);
+        }
+        return content;
+    }
+
+    private synchronized void cache(String name, byte[] content) {
+        byte[] previous = this.contents.put(name, content);
+        if (previous != null) {
+            this.cachedBytes -= previous.length;
+        }
+        this.cachedBytes += content.length;
+        Iterator<byte[]> iterator = this.contents.values().iterator();
+        while (this.cachedBytes > this.maxCachedBytes && iterator.hasNext()) {
+            this.cachedBytes -= iterator.next().length;
+            iterator.remove();
+        }
+    }
+
+    private static Path toPath(URI uri) throws IOException {
+        if (!"jar".equals(uri.getScheme())) {
+            return Paths.get(uri);
+        }
+        String value = uri.toString();
+        int separator = value.indexOf("!/");
+        if (separator < 0) {
+            throw new IOException("Invalid jar resource " + uri);
+        }
+        URI jar = URI.create(value.substring(0, separator));
+        String entry = value.substring(separator + 1);
+        FileSystem fileSystem = FILE_SYSTEMS.get(jar);
+        if (fileSystem == null) {
+            synchronized (FILE_SYSTEMS) {
+                fileSystem = FILE_SYSTEMS.get(jar);
+                if (fileSystem == null) {
+                    fileSystem = openFileSystem(jar);
+                    FILE_SYSTEMS.put(jar, fileSystem);
+                }
+            }
+        }
+        return fileSystem.getPath(ResourceUtil.decode(entry, DecodeMode.PERCENT));
+    }
+
+    private static FileSystem openFileSystem(URI jar) throws IOException {
+        try {
+            return FileSystems.newFileSystem(jar, Map.of());
+        } catch (FileSystemAlreadyExistsException e) {
+            return FileSystems.getFileSystem(jar);
+        }
+    }
+}
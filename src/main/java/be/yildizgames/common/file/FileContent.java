@@ -0,0 +1,121 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Result of a file read done in a bulk operation, containing either the file content or the error preventing to read it.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class FileContent {
+
+    /**
+     * Read file.
+     */
+    private final Path path;
+
+    /**
+     * File content, null if an error occurred.
+     */
+    private final byte[] content;
+
+    /**
+     * Error while reading, null if the read succeeded.
+     */
+    private final IOException error;
+
+    private FileContent(Path path, byte[] content, IOException error) {
+        super();
+        this.path = Objects.requireNonNull(path);
+        this.content = content;
+        this.error = error;
+    }
+
+    /**
+     * Build a successful result.
+     *
+     * @param path Read file.
+     * @param content File content.
+     * @return The created result.
+     */
+    static FileContent success(final Path path, final byte[] content) {
+        return new FileContent(path, Objects.requireNonNull(content), null);
+    }
+
+    /**
+     * Build a failed result.
+     *
+     * @param path File that could not be read.
+     * @param error Error while reading.
+     * @return The created result.
+     */
+    static FileContent failure(final Path path, final IOException error) {
+        return new FileContent(path, null, Objects.requireNonNull(error));
+    }
+
+    /**
+     * @return The read file.
+     */
+    public Path getPath() {
+        return this.path;
+    }
+
+    /**
+     * @return True if the file content could be read.
+     */
+    public boolean isSuccess() {
+        return this.error == null;
+    }
+
+    /**
+     * @return The error preventing to read the file, empty if it succeeded.
+     */
+    public Optional<IOException> getError() {
+        return Optional.ofNullable(this.error);
+    }
+
+    /**
+     * @return The file content.
+     * @throws IllegalStateException If the file could not be read.
+     */
+    public byte[] getContent() {
+        if (this.error != null) {
+            throw new IllegalStateException("Cannot read " + this.path, this.error);
+        }
+        return this.content;
+    }
+
+    /**
+     * @return The file content as an UTF-8 string.
+     * @throws IllegalStateException If the file could not be read.
+     */
+    public String getString() {
+        return ResourceUtil.getString(this.getContent());
+    }
+}
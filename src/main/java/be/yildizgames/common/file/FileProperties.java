@@ -23,6 +23,11 @@
 
 package be.yildizgames.common.file;
 
+import be.yildizgames.common.file.lock.FileLocks;
+import be.yildizgames.common.file.metrics.FileMetrics;
+import be.yildizgames.common.file.metrics.FileOperation;
+import be.yildizgames.common.file.properties.CompiledProperties;
+
 import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
@@ -66,9 +71,17 @@ public class FileProperties {
     //@Ensures ("result != null")
     public static Properties getPropertiesFromFile(final Path file, final String... args) {
         final Properties properties = new Properties();
-        try (Reader reader = ResourceUtil.getFileReader(file)) {
-            properties.load(reader);
+        long start = FileMetrics.start();
+        try {
+            FileLocks.getDefault().read(file, () -> {
+                try (Reader reader = ResourceUtil.getFileReader(file)) {
+                    properties.load(reader);
+                }
+                return null;
+            });
+            FileMetrics.success(FileOperation.READ_PROPERTIES, file, 0, start);
         } catch (IOException ioe) {
+            FileMetrics.error(FileOperation.READ_PROPERTIES, file, start, ioe);
             throw new IllegalStateException("Error while reading property file: " + file.toAbsolutePath().toString(), ioe);
         }
         if (args == null) {
@@ -85,6 +98,17 @@ public class FileProperties {
         return properties;
     }
 
+    /**
+     * Get the properties of a file from its compiled form, without parsing, the compiled file is created next to
+     * the file, and rebuilt when the file changes.
+     *
+     * @param file Physical file containing the properties.
+     * @return The properties from the file, read only.
+     */
+    public static CompiledProperties getCompiledPropertiesFromFile(final Path file) {
+        return CompiledProperties.load(file);
+    }
+
     /**
      * Save the content of a properties in a file.
      *
@@ -92,11 +116,21 @@ public class FileProperties {
      * @param file File to use.
      */
     public static void save(final Properties p, final Path file) {
-        try (Writer fileWriter = ResourceUtil.getFileWriter(file)) {
-            Files.createDirectories(file.getParent());
-            Files.createFile(file);
-            p.store(fileWriter, "");
+        long start = FileMetrics.start();
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            FileLocks.getDefault().write(file, () -> {
+                try (Writer fileWriter = ResourceUtil.getFileWriter(file)) {
+                    p.store(fileWriter, "");
+                }
+                return null;
+            });
+            FileMetrics.success(FileOperation.WRITE_PROPERTIES, file, 0, start);
         } catch (IOException e) {
+            FileMetrics.error(FileOperation.WRITE_PROPERTIES, file, start, e);
             throw new IllegalStateException("Configuration could not be saved in file " + file.toAbsolutePath().toString(), e);
         }
     }
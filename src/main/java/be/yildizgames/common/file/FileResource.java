@@ -23,16 +23,30 @@
 
 package be.yildizgames.common.file;
 
-import java.io.BufferedInputStream;
+import be.yildizgames.common.file.metrics.FileMetrics;
+import be.yildizgames.common.file.metrics.FileOperation;
+import be.yildizgames.common.file.search.ContentSearch;
+import be.yildizgames.common.file.search.SearchMatch;
+import be.yildizgames.common.file.transfer.FileCopier;
+import be.yildizgames.common.file.usage.DirectoryUsage;
+import be.yildizgames.common.file.usage.DiskUsage;
+
 import java.io.IOException;
 import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
-import java.util.zip.CRC32;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * A file resource represent a file and provide functions to manipulate it.
@@ -51,11 +65,31 @@ public final class FileResource {
      */
     private String name;
 
+    /**
+     * Name without OS dependent path char, used for equality.
+     */
+    private String unifiedName;
+
+    /**
+     * Hash code, computed once from the unified name.
+     */
+    private int hash;
+
     /**
      * CRC32 value.
      */
     private long crc32;
 
+    /**
+     * Captured attributes, null if the snapshot mode is not enabled.
+     */
+    private volatile FileSnapshot snapshot;
+
+    /**
+     * Time to live of the captured attributes, in nanoseconds, 0 if they never expire.
+     */
+    private long snapshotTtl;
+
     /**
      * Create a new empty object, private to prevent usage.
      */
@@ -79,40 +113,130 @@ public final class FileResource {
         return createFileResource(directory, FileType.DIRECTORY);
     }
 
+    /**
+     * Create a file or directory if it does not exist, the path is used as is without any decoding.
+     *
+     * @param path Path of the resource.
+     * @param type Type of resource to create.
+     * @return The resource.
+     */
     public static FileResource createFileResource(final Path path, final FileType type) {
-        return createFileResource(path.toAbsolutePath().toString(), type);
+        return createFileResource(path.toAbsolutePath().toString(), type, DecodeMode.NONE);
     }
 
     public static FileResource createFileResource(final String name, final FileType type) {
+        return createFileResource(name, type, DecodeMode.URL);
+    }
+
+    /**
+     * Create a file or directory if it does not exist.
+     *
+     * @param name Name of the file, decoded with the given mode.
+     * @param type Type of resource to create.
+     * @param mode Decoding to apply on the name.
+     * @return The resource.
+     */
+    public static FileResource createFileResource(final String name, final FileType type, final DecodeMode mode) {
         Objects.requireNonNull(name);
         Objects.requireNonNull(type);
         FileResource resource = new FileResource();
-        String sanitizedName = ResourceUtil.decode(name);
-        resource.name = sanitizedName;
+        String sanitizedName = ResourceUtil.decode(name, mode);
+        resource.setName(sanitizedName);
         resource.file = Paths.get(sanitizedName);
         if (resource.exists()) {
             return resource;
         }
+        long start = FileMetrics.start();
         try {
-            Files.createDirectories(resource.file.getParent());
             if (type == FileType.DIRECTORY) {
                 Files.createDirectories(resource.file);
-            } else if (type == FileType.FILE) {
-                Files.createDirectories(resource.file.getParent());
-                Files.createFile(resource.file);
+            } else {
+                Files.createDirectories(resource.file.toAbsolutePath().getParent());
+                if (type == FileType.FILE) {
+                    Files.createFile(resource.file);
+                }
             }
+            FileMetrics.success(FileOperation.CREATE, resource.file, 0, start);
         } catch (IOException | SecurityException e) {
+            FileMetrics.error(FileOperation.CREATE, resource.file, start, e);
             throw new IllegalStateException("The file " + resource.file.toAbsolutePath().toString() + " could not be created.", e);
         }
         return resource;
     }
 
+    /**
+     * Create many files or directories if they do not exist, the paths are used as is without any decoding.
+     * The parent directories are planned once for the whole batch, each one being created only once, then the
+     * directories and files are created in parallel.
+     *
+     * @param paths Paths of the resources.
+     * @param type Type of resources to create, {@link FileType#FILE} or {@link FileType#DIRECTORY}.
+     * @return The resources, in the order of the provided paths.
+     */
+    public static List<FileResource> createFileResources(final Collection<Path> paths, final FileType type) {
+        Objects.requireNonNull(paths);
+        Objects.requireNonNull(type);
+        int parallelism = Math.max(2, Runtime.getRuntime().availableProcessors());
+        List<Path> absolutes = new ArrayList<>(paths.size());
+        for (Path path : paths) {
+            absolutes.add(path.toAbsolutePath());
+        }
+        if (type == FileType.DIRECTORY) {
+            BatchCreator.createDirectories(absolutes, parallelism);
+        } else if (type == FileType.FILE) {
+            Set<Path> parents = new HashSet<>();
+            for (Path path : absolutes) {
+                parents.add(path.getParent());
+            }
+            BatchCreator.createDirectories(parents, parallelism);
+            BatchCreator.createFiles(absolutes, parallelism);
+        } else {
+            throw new IllegalArgumentException("Unsupported type: " + type);
+        }
+        List<FileResource> result = new ArrayList<>(absolutes.size());
+        for (Path path : absolutes) {
+            FileResource resource = new FileResource();
+            resource.file = path;
+            resource.setName(path.toString());
+            result.add(resource);
+        }
+        return result;
+    }
+
     public static FileResource findResource(final String name) {
+        return findResource(name, DecodeMode.URL);
+    }
+
+    /**
+     * Find an existing file.
+     *
+     * @param name Name of the file, decoded with the given mode.
+     * @param mode Decoding to apply on the name.
+     * @return The resource.
+     * @throws IllegalStateException If the file does not exist.
+     */
+    public static FileResource findResource(final String name, final DecodeMode mode) {
         Objects.requireNonNull(name);
+        String sanitizedName = ResourceUtil.decode(name, mode);
+        return findResource(Paths.get(sanitizedName), sanitizedName);
+    }
+
+    /**
+     * Find an existing file from its path, the path is used as is without any decoding.
+     *
+     * @param path Path of the file.
+     * @return The resource.
+     * @throws IllegalStateException If the file does not exist.
+     */
+    public static FileResource fromPath(final Path path) {
+        Objects.requireNonNull(path);
+        return findResource(path, path.toString());
+    }
+
+    private static FileResource findResource(Path path, String name) {
         FileResource resource = new FileResource();
-        String sanitizedName = ResourceUtil.decode(name);
-        resource.file = Paths.get(sanitizedName);
-        resource.name = sanitizedName;
+        resource.file = path;
+        resource.setName(name);
         if (!resource.exists()) {
             throw new IllegalStateException("The file " + resource.file.toAbsolutePath().toString() + " does not exist.");
         }
@@ -130,9 +254,14 @@ public final class FileResource {
         if (this.crc32 == 0) {
             this.crc32 = this.computeCrc();
         }
-        String[] values = expected.split("_");
-        long expectedCrc = Long.parseLong(values[1]);
-        long expectedSize = Long.parseLong(values[2]);
+        //Split on the last two '_' only, the name can contain '_' as well.
+        int sizeSeparator = expected.lastIndexOf('_');
+        int crcSeparator = expected.lastIndexOf('_', sizeSeparator - 1);
+        if (sizeSeparator <= 0 || crcSeparator < 0) {
+            throw new IllegalArgumentException("Invalid value: " + expected);
+        }
+        long expectedCrc = Long.parseLong(expected.substring(crcSeparator + 1, sizeSeparator));
+        long expectedSize = Long.parseLong(expected.substring(sizeSeparator + 1));
         if (!this.exists()) {
             throw new IllegalStateException("File does not exists");
         } else if (this.getSize() != expectedSize) {
@@ -150,18 +279,62 @@ public final class FileResource {
      */
     @Deprecated
     private long computeCrc() {
-        CRC32 c = new CRC32();
-        c.update(this.getBytesFromFile());
-        return c.getValue();
+        long start = FileMetrics.start();
+        try {
+            long crc = ResourceUtil.computeCrc32(this.file);
+            FileMetrics.success(FileOperation.CHECKSUM, this.file, this.getSize(), start);
+            return crc;
+        } catch (IOException e) {
+            FileMetrics.error(FileOperation.CHECKSUM, this.file, start, e);
+            throw new IllegalStateException(e);
+        }
     }
 
     /**
      * Delete the file on the hard disk and reset all attributes in this object.
      */
     public void deleteFile() throws IOException{
-        Files.delete(this.file);
-        this.name = "";
+        long start = FileMetrics.start();
+        try {
+            Files.delete(this.file);
+            FileMetrics.success(FileOperation.DELETE, this.file, 0, start);
+        } catch (IOException e) {
+            FileMetrics.error(FileOperation.DELETE, this.file, start, e);
+            throw e;
+        }
+        this.setName("");
         this.crc32 = 0;
+        this.refresh();
+    }
+
+    /**
+     * Enable the snapshot mode: the size, last modification time and type of the file are captured once and reused
+     * until the time to live expires or {@link #refresh()} is called, no file system access is made in between.
+     *
+     * @param ttl Time to live of the captured attributes, zero to keep them until refreshed.
+     * @return This object.
+     */
+    public FileResource snapshot(final Duration ttl) {
+        Objects.requireNonNull(ttl);
+        this.snapshotTtl = ttl.toNanos();
+        this.snapshot = FileSnapshot.capture(this.file, this.snapshotTtl);
+        return this;
+    }
+
+    /**
+     * Capture again the attributes of the file, does nothing if the snapshot mode is not enabled.
+     */
+    public void refresh() {
+        if (this.snapshot != null) {
+            this.snapshot = FileSnapshot.capture(this.file, this.snapshotTtl);
+        }
+    }
+
+    /**
+     * @return True if the snapshot mode is enabled.
+     */
+    public boolean isSnapshot() {
+        return this.snapshot != null;
     }
 
     /**
@@ -175,20 +348,80 @@ public final class FileResource {
      * @return The size of this file.
      */
     public long getSize() {
+        FileSnapshot s = this.getSnapshot();
+        if (s != null) {
+            return s.size;
+        }
+        long start = FileMetrics.start();
         try {
-            return Files.size(this.file);
+            long size = Files.size(this.file);
+            FileMetrics.success(FileOperation.STAT, this.file, 0, start);
+            return size;
         } catch (IOException e) {
+            FileMetrics.error(FileOperation.STAT, this.file, start, e);
             return 0L;
         }
     }
 
+    /**
+     * Compute the size of all the files in this directory tree, using the shared disk usage cache.
+     *
+     * @return The directory tree size, with its file and directory counts.
+     */
+    public DirectoryUsage getDiskUsage() {
+        return DiskUsage.getDefault().compute(this.file);
+    }
+
+    /**
+     * Search the content of this file, or of all the files in this directory tree.
+     *
+     * @param search Search to execute.
+     * @return The matches, the stream should be closed if it is not fully consumed.
+     */
+    public Stream<SearchMatch> search(final ContentSearch search) {
+        return search.search(this.file);
+    }
+
     /**
      * Check if the file is present on the hard disk.
      *
      * @return True if the file exists.
      */
     public boolean exists() {
-        return Files.exists(this.file);
+        FileSnapshot s = this.getSnapshot();
+        if (s != null) {
+            return s.exists;
+        }
+        long start = FileMetrics.start();
+        boolean result = Files.exists(this.file);
+        FileMetrics.success(FileOperation.STAT, this.file, 0, start);
+        return result;
+    }
+
+    /**
+     * @return True if the file is a directory.
+     */
+    public boolean isDirectory() {
+        FileSnapshot s = this.getSnapshot();
+        if (s != null) {
+            return s.directory;
+        }
+        return Files.isDirectory(this.file);
+    }
+
+    /**
+     * @return The last modification time of this file in milliseconds, 0 if it cannot be read.
+     */
+    public long getLastModified() {
+        FileSnapshot s = this.getSnapshot();
+        if (s != null) {
+            return s.lastModified;
+        }
+        try {
+            return Files.getLastModifiedTime(this.file).toMillis();
+        } catch (IOException e) {
+            return 0L;
+        }
     }
 
     /**
@@ -208,28 +441,13 @@ public final class FileResource {
      */
     @Deprecated
     public byte[] getBytesFromFile() {
-        try (BufferedInputStream is = ResourceUtil.getInputStream(this.file)) {
-            if (this.getSize() > Integer.MAX_VALUE) {
-                throw new IllegalStateException("File too large");
-            }
-
-            byte[] bytes = new byte[(int) this.getSize()];
-            int offset = 0;
-            int numRead;
-            while (true) {
-                numRead = is.read(bytes, offset, bytes.length - offset);
-                if (offset < bytes.length && numRead >= 0) {
-                    offset += numRead;
-                } else {
-                    break;
-                }
-            }
-
-            if (offset < bytes.length) {
-                throw new IOException("Could not completely read file " + this.file.toString());
-            }
+        long start = FileMetrics.start();
+        try {
+            byte[] bytes = ResourceUtil.readAllBytes(this.file);
+            FileMetrics.success(FileOperation.READ_BYTES, this.file, bytes.length, start);
             return bytes;
         } catch (IOException e) {
+            FileMetrics.error(FileOperation.READ_BYTES, this.file, start, e);
             throw new IllegalStateException(e);
         }
     }
@@ -253,40 +471,84 @@ public final class FileResource {
      */
     public List<FileResource> listFile(final String... toIgnore) throws IOException {
         List<FileResource> files = new ArrayList<>();
-        this.listFile(files, toIgnore);
+        long start = FileMetrics.start();
+        try {
+            this.listFile(files, toIgnore);
+        } catch (IOException e) {
+            FileMetrics.error(FileOperation.LIST, this.file, start, e);
+            throw e;
+        }
+        FileMetrics.success(FileOperation.LIST, this.file, 0, start);
         return files;
     }
 
     /**
-     * Rename the file or move it if the path is changed. This only work if the
-     * new name is in the same physical drive.
+     * List all files contained in this folder, the returned resources are in snapshot mode, their attributes are
+     * the ones read while walking the tree so no additional file system access is made for them.
+     *
+     * @param ttl Time to live of the captured attributes, zero to keep them until refreshed.
+     * @param toIgnore If the file name contains this value, it will be ignored.
+     * @throws IOException If an exception occurs during the search.
+     * @return The list of found files.
+     */
+    public List<FileResource> listFileSnapshot(final Duration ttl, final String... toIgnore) throws IOException {
+        Objects.requireNonNull(ttl);
+        long ttlNanos = ttl.toNanos();
+        Path folder = Paths.get(this.getName());
+        List<FileResource> files = new ArrayList<>();
+        long start = FileMetrics.start();
+        try {
+            this.walk(folder, files, ttlNanos, toIgnore);
+        } catch (IOException e) {
+            FileMetrics.error(FileOperation.LIST, folder, start, e);
+            throw e;
+        }
+        FileMetrics.success(FileOperation.LIST, folder, 0, start);
+        return files;
+    }
+
+    private void walk(Path folder, List<FileResource> files, long ttlNanos, String... toIgnore) throws IOException {
+        Files.walkFileTree(folder, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                return dir.equals(folder) || !isIgnored(dir, toIgnore) ? FileVisitResult.CONTINUE : FileVisitResult.SKIP_SUBTREE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path p, BasicFileAttributes attrs) {
+                if (!attrs.isDirectory() && !isIgnored(p, toIgnore)) {
+                    FileResource resource = new FileResource();
+                    resource.file = p;
+                    resource.setName(p.toString());
+                    resource.snapshotTtl = ttlNanos;
+                    resource.snapshot = FileSnapshot.of(attrs, ttlNanos);
+                    files.add(resource);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Rename the file or move it if the path is changed. If the new name is on another drive, the file is copied and
+     * then deleted.
      *
      * @param newName New name and path of the file.
      * @return True if completed successfully.
      */
     public boolean rename(final String newName) {
         try {
-            Path newFile = Paths.get(newName).toAbsolutePath();
-            Files.createDirectories(newFile.getParent());
-            Files.move(this.file, newFile);
+            FileCopier.create(1).move(this.file, Paths.get(newName).toAbsolutePath());
+            this.refresh();
             return true;
-        } catch (IOException e) {
+        } catch (IllegalStateException e) {
             return false;
         }
     }
 
     @Override
     public int hashCode() {
-        final int prime = 31;
-        int result = 1;
-        result = prime * result;
-        int value = 0;
-        if (this.name != null) {
-            value = this.unifyName(this.name).hashCode();
-        }
-        result = prime * result + value;
-        result = prime * result;
-        return result;
+        return this.hash;
     }
 
     /**
@@ -307,15 +569,11 @@ public final class FileResource {
             return false;
         }
         FileResource other = (FileResource) obj;
-        if (this.crc32 != other.crc32) {
+        if (this.crc32 != other.crc32 || this.hash != other.hash) {
             return false;
         }
-        if (!this.name.equals(other.name)) {
-            String s1 = this.unifyName(this.name);
-            String s2 = this.unifyName(other.name);
-            if (!s1.equals(s2)) {
-                return false;
-            }
+        if (!this.name.equals(other.name) && !this.unifiedName.equals(other.unifiedName)) {
+            return false;
         }
         return this.getSize() == other.getSize();
     }
@@ -325,14 +583,26 @@ public final class FileResource {
         return this.name + "_" + this.crc32 + "_" + this.getSize();
     }
 
+    /**
+     * Set the name, and compute once the unified name and hash code used for equality.
+     *
+     * @param newName File name.
+     */
+    private void setName(final String newName) {
+        this.name = newName;
+        this.unifiedName = unifyName(newName);
+        final int prime = 31;
+        this.hash = prime * (prime * prime + this.unifiedName.hashCode());
+    }
+
     /**
      * Remove OS dependent path char from the file name.
      *
      * @param toUnify File name.
-     * @return The name with all '\\' and '/' char removed.
+     * @return The name with all '\\' and '/' char removed, the same instance if there is none.
      */
-    private String unifyName(final String toUnify) {
-        return toUnify.contains("\\") ? toUnify.replace("\\", "") : toUnify.replace("/", "");
+    private static String unifyName(final String toUnify) {
+        return toUnify.indexOf('\\') >= 0 ? toUnify.replace("\\", "") : toUnify.replace("/", "");
     }
 
     /**
@@ -344,28 +614,52 @@ public final class FileResource {
      */
     private void listFile(final List<FileResource> files, final String... toIgnore) throws IOException {
         Path folder = Paths.get(this.getName());
-        DirectoryStream.Filter<Path> filter = entry -> {
-            if(toIgnore == null) {
-                return true;
-            }
-            for(String s : toIgnore) {
-                if (entry.toString().contains(s)) {
-                    return false;
-                }
-            }
-            return true;
-        };
+        DirectoryStream.Filter<Path> filter = entry -> !isIgnored(entry, toIgnore);
         try (DirectoryStream<Path> directory = Files.newDirectoryStream(folder, filter)) {
             for (Path p : directory) {
                 if (p.toFile().isDirectory()) {
-                    FileResource.findResource(p.toString()).listFile(files, toIgnore);
+                    FileResource.fromPath(p).listFile(files, toIgnore);
                 } else {
-                    files.add(FileResource.findResource(p.toString()));
+                    files.add(FileResource.fromPath(p));
                 }
             }
         }
     }
 
+    /**
+     * Check if a path must be ignored while listing files.
+     *
+     * @param entry Path to check.
+     * @param toIgnore If the path contains one of those values, it will be ignored.
+     * @return True if the path must be ignored.
+     */
+    private static boolean isIgnored(final Path entry, final String... toIgnore) {
+        if(toIgnore == null) {
+            return false;
+        }
+        String value = entry.toString();
+        for(String s : toIgnore) {
+            if (value.contains(s)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Provide the captured attributes, capturing them again if expired.
+     *
+     * @return The snapshot, null if the snapshot mode is not enabled.
+     */
+    private FileSnapshot getSnapshot() {
+        FileSnapshot s = this.snapshot;
+        if (s != null && s.isExpired()) {
+            s = FileSnapshot.capture(this.file, this.snapshotTtl);
+            this.snapshot = s;
+        }
+        return s;
+    }
+
     public enum FileType {
         FILE(0), DIRECTORY(3), VFS(2), ZIP(1);
 
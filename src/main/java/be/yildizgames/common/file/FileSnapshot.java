@@ -0,0 +1,121 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * Attributes of a file captured at a given time, to be reused without accessing the file system.
+ *
+ * @author Grégory Van den Borre
+ */
+final class FileSnapshot {
+
+    /**
+     * Snapshot for a file not existing.
+     */
+    private static final long NONE = -1L;
+
+    /**
+     * True if the file existed when captured.
+     */
+    final boolean exists;
+
+    /**
+     * True if the file was a directory when captured.
+     */
+    final boolean directory;
+
+    /**
+     * Size in bytes.
+     */
+    final long size;
+
+    /**
+     * Last modification time in milliseconds.
+     */
+    final long lastModified;
+
+    /**
+     * Time after which the snapshot must be captured again, in nanoTime, NONE if it never expires.
+     */
+    private final long expiration;
+
+    private FileSnapshot(boolean exists, boolean directory, long size, long lastModified, long expiration) {
+        super();
+        this.exists = exists;
+        this.directory = directory;
+        this.size = size;
+        this.lastModified = lastModified;
+        this.expiration = expiration;
+    }
+
+    /**
+     * Capture the attributes of a file.
+     *
+     * @param file File to read the attributes from.
+     * @param ttl Time to live in nanoseconds, 0 or less for a snapshot never expiring.
+     * @return The captured snapshot.
+     */
+    static FileSnapshot capture(final Path file, final long ttl) {
+        try {
+            return of(Files.readAttributes(file, BasicFileAttributes.class), ttl);
+        } catch (NoSuchFileException e) {
+            return new FileSnapshot(false, false, 0L, 0L, expiration(ttl));
+        } catch (IOException e) {
+            return new FileSnapshot(Files.exists(file), false, 0L, 0L, expiration(ttl));
+        }
+    }
+
+    /**
+     * Build a snapshot from already read attributes.
+     *
+     * @param attributes File attributes.
+     * @param ttl Time to live in nanoseconds, 0 or less for a snapshot never expiring.
+     * @return The snapshot.
+     */
+    static FileSnapshot of(final BasicFileAttributes attributes, final long ttl) {
+        return new FileSnapshot(true, attributes.isDirectory(), attributes.size(),
+                attributes.lastModifiedTime().toMillis(), expiration(ttl));
+    }
+
+    /**
+     * @return True if the snapshot is too old to be used.
+     */
+    boolean isExpired() {
+        return this.expiration != NONE && System.nanoTime() - this.expiration > 0;
+    }
+
+    private static long expiration(long ttl) {
+        if (ttl <= 0) {
+            return NONE;
+        }
+        long value = System.nanoTime() + ttl;
+        return value == NONE ? value + 1 : value;
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file;
+
+import be.yildizgames.common.file.lock.FileLocks;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * Serializer decorator locking the file while reading and writing, readers proceed in parallel and a writer has an
+ * exclusive access.
+ *
+ * @param <T> Object type to use.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class LockedSerializer<T> implements Serializer<T> {
+
+    /**
+     * Wrapped serializer.
+     */
+    private final Serializer<T> delegate;
+
+    /**
+     * File used by the wrapped serializer.
+     */
+    private final Path file;
+
+    /**
+     * Locks to use.
+     */
+    private final FileLocks locks;
+
+    private LockedSerializer(Serializer<T> delegate, Path file, FileLocks locks) {
+        super();
+        this.delegate = Objects.requireNonNull(delegate);
+        this.file = Objects.requireNonNull(file);
+        this.locks = Objects.requireNonNull(locks);
+    }
+
+    /**
+     * Wrap a serializer, using the default locks.
+     *
+     * @param delegate Serializer to wrap.
+     * @param file File used by the wrapped serializer.
+     * @param <T> Object type to use.
+     * @return The locked serializer.
+     */
+    public static <T> LockedSerializer<T> of(final Serializer<T> delegate, final Path file) {
+        return new LockedSerializer<>(delegate, file, FileLocks.getDefault());
+    }
+
+    /**
+     * Wrap a serializer.
+     *
+     * @param delegate Serializer to wrap.
+     * @param file File used by the wrapped serializer.
+     * @param locks Locks to use.
+     * @param <T> Object type to use.
+     * @return The locked serializer.
+     */
+    public static <T> LockedSerializer<T> of(final Serializer<T> delegate, final Path file, final FileLocks locks) {
+        return new LockedSerializer<>(delegate, file, locks);
+    }
+
+    @Override
+    public T readFromFile() {
+        try {
+            return this.locks.read(this.file, this.delegate::readFromFile);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot lock " + this.file, e);
+        }
+    }
+
+    @Override
+    public void writeToFile(final T o) {
+        try {
+            this.locks.write(this.file, () -> {
+                this.delegate.writeToFile(o);
+                return null;
+            });
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot lock " + this.file, e);
+        }
+    }
+}
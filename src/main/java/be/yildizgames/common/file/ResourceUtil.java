@@ -23,25 +23,38 @@
 
 package be.yildizgames.common.file;
 
+import be.yildizgames.common.file.buffer.BufferPool;
+import be.yildizgames.common.file.buffer.PooledBuffer;
+import be.yildizgames.common.file.lock.FileLocks;
+import be.yildizgames.common.file.metrics.FileMetrics;
+import be.yildizgames.common.file.metrics.FileOperation;
+import be.yildizgames.common.file.sort.LineSorter;
 
 import java.io.BufferedInputStream;
 import java.io.ByteArrayOutputStream;
-import java.io.File;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
 import java.net.URISyntaxException;
 import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
 import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.zip.CRC32;
 
 /**
  * Provide streams with a platform independent encoding.
@@ -57,6 +70,11 @@ public final class ResourceUtil {
      */
     private static final Charset ENCODING = StandardCharsets.UTF_8;
 
+    /**
+     * Size of the pooled buffers used to read files through a channel.
+     */
+    private static final int CHANNEL_BUFFER_SIZE = 64 * 1024;
+
     /**
      * Private constructor to prevent use.
      */
@@ -101,6 +119,58 @@ public final class ResourceUtil {
         return new BufferedInputStream(Files.newInputStream(file));
     }
 
+    /**
+     * Read the full content of a file, through a channel and a pooled buffer.
+     *
+     * @param file File to read.
+     * @return The file content.
+     * @throws IOException If the file cannot be read, or is too large to fit in an array.
+     */
+    public static byte[] readAllBytes(final Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             PooledBuffer pooled = BufferPool.getDefault().lease(CHANNEL_BUFFER_SIZE)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File too large " + file);
+            }
+            byte[] result = new byte[(int) size];
+            ByteBuffer buffer = pooled.buffer();
+            int offset = 0;
+            while (offset < result.length) {
+                buffer.clear().limit(Math.min(buffer.capacity(), result.length - offset));
+                int read = channel.read(buffer);
+                if (read < 0) {
+                    throw new IOException("Could not completely read file " + file);
+                }
+                buffer.flip();
+                buffer.get(result, offset, read);
+                offset += read;
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Compute the CRC32 of a file content, through a channel and a pooled buffer.
+     *
+     * @param file File to read.
+     * @return The CRC32 value.
+     * @throws IOException If the file cannot be read.
+     */
+    public static long computeCrc32(final Path file) throws IOException {
+        CRC32 crc = new CRC32();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             PooledBuffer pooled = BufferPool.getDefault().lease(CHANNEL_BUFFER_SIZE)) {
+            ByteBuffer buffer = pooled.buffer();
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                crc.update(buffer);
+                buffer.clear();
+            }
+        }
+        return crc.getValue();
+    }
+
     /**
      * Get a string from a byte array.
      *
@@ -128,39 +198,68 @@ public final class ResourceUtil {
     public static void createDirectoryTree(final String path) {
         Objects.requireNonNull(path);
         Path file = Paths.get(path);
-        if (Files.exists(file) && !Files.isDirectory(file)) {
-            throw new IllegalStateException("The file " + file + " already exists in this directory");
+        if (Files.isDirectory(file)) {
+            return;
         }
-        if (Files.notExists(file)) {
-            try {
-                Files.createDirectories(file);
-            } catch (IOException e) {
-                throw new IllegalStateException("Directories were not created successfully for " + path, e);
-            }
+        long start = FileMetrics.start();
+        try {
+            Files.createDirectories(file);
+            FileMetrics.success(FileOperation.CREATE, file, 0, start);
+        } catch (FileAlreadyExistsException e) {
+            FileMetrics.error(FileOperation.CREATE, file, start, e);
+            throw new IllegalStateException("The file " + file + " already exists in this directory");
+        } catch (IOException e) {
+            FileMetrics.error(FileOperation.CREATE, file, start, e);
+            throw new IllegalStateException("Directories were not created successfully for " + path, e);
         }
     }
 
+    /**
+     * Create many directory trees in parallel, using as many threads as available processors.
+     * The directories are deduplicated first, and a directory whose descendant is also requested is not created on
+     * its own, so each directory is only created once.
+     *
+     * @param directories Directories to create.
+     */
+    public static void createDirectoryTrees(final Collection<Path> directories) {
+        createDirectoryTrees(directories, Math.max(2, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * Create many directory trees in parallel.
+     * The directories are deduplicated first, and a directory whose descendant is also requested is not created on
+     * its own, so each directory is only created once.
+     *
+     * @param directories Directories to create.
+     * @param parallelism Maximum number of directories created at the same time.
+     */
+    public static void createDirectoryTrees(final Collection<Path> directories, final int parallelism) {
+        Objects.requireNonNull(directories);
+        BatchCreator.createDirectories(directories, parallelism);
+    }
+
     public static void createDirectory(final Path path) {
         createDirectoryTree(path.toAbsolutePath().toString());
     }
 
-    private static void deleteDirectoryTree(final File folder) throws IOException {
-        //TODO cleanup, use only NIO api
-        try(Stream<Path> path = Files.walk(Paths.get(folder.toURI()))) {
-            List<File> files = path.map(Path::toFile).collect(Collectors.toList());
-            for (File f : files) {
-                if (f.isDirectory()) {
-                    ResourceUtil.deleteDirectoryTree(f);
-                } else {
-                    if (!f.delete()) {
-                        throw new IllegalStateException("Cannot delete " + f.toPath());
-                    }
-                }
+    private static void deleteTree(final Path folder) throws IOException {
+        Files.walkFileTree(folder, new SimpleFileVisitor<>() {
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
             }
-            if (!folder.delete()) {
-                throw new IllegalStateException("Cannot delete " + folder.toPath());
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                if (exc != null) {
+                    throw exc;
+                }
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
             }
-        }
+        });
     }
 
     /**
@@ -169,26 +268,78 @@ public final class ResourceUtil {
      * @param folder Folder to delete.
      */
     public static void deleteDirectoryTree(final Path folder) {
+        long start = FileMetrics.start();
         try {
-            deleteDirectoryTree(folder.toFile());
+            deleteTree(folder);
+            FileMetrics.success(FileOperation.DELETE_TREE, folder, 0, start);
         } catch (IOException e) {
-            throw new IllegalStateException("Cannot delete " + folder);
+            FileMetrics.error(FileOperation.DELETE_TREE, folder, start, e);
+            throw new IllegalStateException("Cannot delete " + folder, e);
+        } catch (IllegalStateException e) {
+            FileMetrics.error(FileOperation.DELETE_TREE, folder, start, e);
+            throw e;
         }
     }
 
+    /**
+     * Decode an URL encoded string, '%xy' sequences are decoded and '+' is replaced by a space.
+     *
+     * @param string String to decode.
+     * @return The decoded string, the same instance if nothing needed to be decoded.
+     */
     public static String decode(String string) {
-        return URLDecoder.decode(string, ResourceUtil.ENCODING);
+        return ResourceUtil.decode(string, DecodeMode.URL);
     }
 
+    /**
+     * Decode a string.
+     * The string is first scanned, and returned as is if it contains nothing to decode in the given mode.
+     *
+     * @param string String to decode.
+     * @param mode Decoding to apply.
+     * @return The decoded string, the same instance if nothing needed to be decoded.
+     */
+    public static String decode(final String string, final DecodeMode mode) {
+        Objects.requireNonNull(mode);
+        switch (mode) {
+            case URL:
+                if (string.indexOf('%') < 0 && string.indexOf('+') < 0) {
+                    return string;
+                }
+                return URLDecoder.decode(string, ResourceUtil.ENCODING);
+            case PERCENT:
+                if (string.indexOf('%') < 0) {
+                    return string;
+                }
+                return URLDecoder.decode(string.replace("+", "%2B"), ResourceUtil.ENCODING);
+            default:
+                return Objects.requireNonNull(string);
+        }
+    }
+
+    /**
+     * Provide the path of a resource from the class path, the resource can be in a directory or in a jar.
+     * Resolved paths are cached, and a jar file system is opened only once.
+     *
+     * @param clazz Class whose class loader is used to find the resource.
+     * @param name Resource name.
+     * @return The resource path, in the jar file system if the resource is in a jar.
+     * @throws URISyntaxException Kept for compatibility, not thrown anymore.
+     * @throws IllegalStateException If the resource does not exist or cannot be opened.
+     */
     public static Path getFileFromClassPath(Class clazz, String name) throws URISyntaxException {
-        return Paths.get(clazz.getClassLoader().getResource(name).toURI()).toAbsolutePath();
+        return ClasspathResourceLoader.shared(clazz.getClassLoader()).getPath(name).toAbsolutePath();
     }
 
     public static Stream<Path> getFilesInDirectory(Path directory) {
         if(Files.exists(directory)) {
+            long start = FileMetrics.start();
             try {
-                return Files.walk(directory);
+                Stream<Path> result = Files.walk(directory);
+                FileMetrics.success(FileOperation.LIST, directory, 0, start);
+                return result;
             } catch (IOException e) {
+                FileMetrics.error(FileOperation.LIST, directory, start, e);
                 LOGGER.log(System.Logger.Level.ERROR, e);
             }
         } else {
@@ -197,20 +348,62 @@ public final class ResourceUtil {
         return Stream.<Path>builder().build();
     }
 
+    /**
+     * Read the content of many files concurrently, using as many threads as available processors.
+     *
+     * @param files Files to read, for example from {@link #getFilesInDirectory(Path)}.
+     * @return The content or the error of each file, in the order of the provided files.
+     */
+    public static Map<Path, FileContent> readAll(final Collection<Path> files) {
+        return ResourceUtil.readAll(files, Math.max(2, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * Read the content of many files concurrently.
+     * A failure to read a file does not prevent the other files to be read, it is provided in the file result.
+     *
+     * @param files Files to read, for example from {@link #getFilesInDirectory(Path)}.
+     * @param parallelism Maximum number of files read at the same time.
+     * @return The content or the error of each file, in the order of the provided files.
+     */
+    public static Map<Path, FileContent> readAll(final Collection<Path> files, final int parallelism) {
+        Objects.requireNonNull(files);
+        return BulkReader.readAll(files, parallelism);
+    }
+
     public static List<String> readAllLines(Path file) {
         if(Files.notExists(file)) {
             LOGGER.log(System.Logger.Level.WARNING, "File {0} does not exists", file);
             return List.of();
         }
+        long start = FileMetrics.start();
         try {
-            return Files.readAllLines(file, StandardCharsets.UTF_8);
+            List<String> result = FileLocks.getDefault().read(file, () -> Files.readAllLines(file, StandardCharsets.UTF_8));
+            FileMetrics.success(FileOperation.READ_LINES, file, FileMetrics.isEnabled() ? lineBytes(result) : 0, start);
+            return result;
         } catch (IOException e) {
+            FileMetrics.error(FileOperation.READ_LINES, file, start, e);
             LOGGER.log(System.Logger.Level.ERROR, "Error reading file", e);
             return List.of();
         }
     }
 
+    /**
+     * Count the bytes of lines, taken from the lines already read so a file removed after the read is not an error.
+     *
+     * @param lines Lines read from a file.
+     * @return The lines size in UTF-8, with a separator between them, as written by {@link #writeAllLines(Path, List)}.
+     */
+    private static long lineBytes(final List<String> lines) {
+        long bytes = Math.max(0, lines.size() - 1);
+        for (String line : lines) {
+            bytes += line.getBytes(ENCODING).length;
+        }
+        return bytes;
+    }
+
     public static void writeAllLines(Path path, List<String> lines) {
+        long start = FileMetrics.start();
         if(Files.notExists(path.getParent())) {
             try {
                 Files.createDirectories(path.getParent());
@@ -219,19 +412,35 @@ public final class ResourceUtil {
             }
         }
         try {
-            if(Files.notExists(path)) {
-                Files.createFile(path);
-            }
-            Files.writeString(path, lines.stream().collect(Collectors.joining("\n", "", "")), StandardOpenOption.TRUNCATE_EXISTING);
+            byte[] content = getByteArray(String.join("\n", lines));
+            FileLocks.getDefault().write(path, () -> Files.write(path, content,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE));
+            FileMetrics.success(FileOperation.WRITE_LINES, path, content.length, start);
         } catch (IOException e) {
+            FileMetrics.error(FileOperation.WRITE_LINES, path, start, e);
             LOGGER.log(System.Logger.Level.ERROR, e);
         }
     }
 
+    /**
+     * Sort the lines of a file in natural order, without loading the whole file in memory.
+     *
+     * @param source File to sort.
+     * @param target File to write the sorted lines to, can be the source file.
+     * @return The number of sorted lines.
+     */
+    public static long sortLines(final Path source, final Path target) {
+        return LineSorter.create().sort(source, target);
+    }
+
     public static void addLine(Path file, String line) {
+        long start = FileMetrics.start();
         try {
-            Files.writeString(file, line, StandardOpenOption.APPEND, StandardOpenOption.CREATE);
+            byte[] content = getByteArray(line);
+            FileLocks.getDefault().write(file, () -> Files.write(file, content, StandardOpenOption.APPEND, StandardOpenOption.CREATE));
+            FileMetrics.success(FileOperation.ADD_LINE, file, content.length, start);
         } catch (IOException e) {
+            FileMetrics.error(FileOperation.ADD_LINE, file, start, e);
             LOGGER.log(System.Logger.Level.ERROR, e);
         }
     }
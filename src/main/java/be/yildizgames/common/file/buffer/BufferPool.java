@@ -0,0 +1,170 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file.buffer;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Pool of reusable direct byte buffers, organized in size classes.
+ * Each size class is split in stripes selected from the calling thread, a stripe holds a bounded number of free
+ * buffers in slots taken and returned with atomic operations, so no lock is involved.
+ * Requests larger than the biggest size class are served with a new buffer which is not pooled.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class BufferPool {
+
+    /**
+     * Capacity of the buffers in each size class.
+     */
+    private static final int[] SIZE_CLASSES = {4 * 1024, 64 * 1024, 1024 * 1024};
+
+    /**
+     * Default number of free buffers kept per stripe and size class.
+     */
+    private static final int DEFAULT_SLOTS = 4;
+
+    private static final BufferPool DEFAULT = new BufferPool(DEFAULT_SLOTS);
+
+    /**
+     * Free buffers, indexed by size class then stripe.
+     */
+    private final AtomicReferenceArray<ByteBuffer>[][] free;
+
+    /**
+     * Mask to select a stripe from a thread id.
+     */
+    private final int stripeMask;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private BufferPool(int slots) {
+        super();
+        if (slots <= 0) {
+            throw new IllegalArgumentException("Slots must be positive: " + slots);
+        }
+        int stripes = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() - 1) << 1);
+        this.stripeMask = stripes - 1;
+        this.free = new AtomicReferenceArray[SIZE_CLASSES.length][stripes];
+        for (int i = 0; i < SIZE_CLASSES.length; i++) {
+            for (int j = 0; j < stripes; j++) {
+                this.free[i][j] = new AtomicReferenceArray<>(slots);
+            }
+        }
+    }
+
+    /**
+     * @return The pool shared by the library.
+     */
+    public static BufferPool getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Create a new pool.
+     *
+     * @param slots Number of free buffers kept per stripe and size class.
+     * @return The created pool.
+     */
+    public static BufferPool create(final int slots) {
+        return new BufferPool(slots);
+    }
+
+    /**
+     * Get a buffer, to be returned with {@link #release(ByteBuffer)} once not used anymore.
+     *
+     * @param minCapacity Minimum capacity of the buffer.
+     * @return A cleared direct buffer with at least the requested capacity, its capacity is the one of its size class.
+     */
+    public ByteBuffer acquire(final int minCapacity) {
+        int sizeClass = sizeClass(minCapacity);
+        if (sizeClass < 0) {
+            return ByteBuffer.allocateDirect(minCapacity);
+        }
+        AtomicReferenceArray<ByteBuffer> slots = this.free[sizeClass][this.stripe()];
+        for (int i = 0; i < slots.length(); i++) {
+            ByteBuffer buffer = slots.get(i);
+            if (buffer != null && slots.compareAndSet(i, buffer, null)) {
+                buffer.clear();
+                return buffer;
+            }
+        }
+        return ByteBuffer.allocateDirect(SIZE_CLASSES[sizeClass]);
+    }
+
+    /**
+     * Get a buffer wrapped to be released when closed, to be used with a try with resources block.
+     *
+     * @param minCapacity Minimum capacity of the buffer.
+     * @return The wrapped buffer.
+     */
+    public PooledBuffer lease(final int minCapacity) {
+        return new PooledBuffer(this, this.acquire(minCapacity));
+    }
+
+    /**
+     * Return a buffer to the pool, the buffer must not be used anymore by the caller.
+     * Buffers not coming from a size class, or exceeding the pool capacity, are dropped.
+     *
+     * @param buffer Buffer to return.
+     */
+    public void release(final ByteBuffer buffer) {
+        if (buffer == null || !buffer.isDirect() || buffer.isReadOnly()) {
+            return;
+        }
+        int sizeClass = exactSizeClass(buffer.capacity());
+        if (sizeClass < 0) {
+            return;
+        }
+        AtomicReferenceArray<ByteBuffer> slots = this.free[sizeClass][this.stripe()];
+        for (int i = 0; i < slots.length(); i++) {
+            if (slots.get(i) == null && slots.compareAndSet(i, null, buffer)) {
+                return;
+            }
+        }
+    }
+
+    private int stripe() {
+        long id = Thread.currentThread().threadId();
+        return (int) (id ^ (id >>> 16)) & this.stripeMask;
+    }
+
+    private static int sizeClass(int capacity) {
+        for (int i = 0; i < SIZE_CLASSES.length; i++) {
+            if (capacity <= SIZE_CLASSES[i]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int exactSizeClass(int capacity) {
+        for (int i = 0; i < SIZE_CLASSES.length; i++) {
+            if (capacity == SIZE_CLASSES[i]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
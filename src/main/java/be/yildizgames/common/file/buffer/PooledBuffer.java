@@ -0,0 +1,61 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file.buffer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Buffer leased from a {@link BufferPool}, returned to the pool when closed.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class PooledBuffer implements AutoCloseable {
+
+    private final BufferPool pool;
+
+    private ByteBuffer buffer;
+
+    PooledBuffer(BufferPool pool, ByteBuffer buffer) {
+        super();
+        this.pool = pool;
+        this.buffer = buffer;
+    }
+
+    /**
+     * @return The leased buffer, not to be used after this object is closed.
+     */
+    public ByteBuffer buffer() {
+        if (this.buffer == null) {
+            throw new IllegalStateException("Buffer already released.");
+        }
+        return this.buffer;
+    }
+
+    @Override
+    public void close() {
+        ByteBuffer b = this.buffer;
+        this.buffer = null;
+        this.pool.release(b);
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file.index;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.IntConsumer;
+
+/**
+ * Intern relative paths in a trie of path segments, so paths sharing a prefix share its storage.
+ * Each path is a node identified by an int, the root node 0 being the empty path, and each distinct segment value
+ * is stored once.
+ * Nodes are never removed, which makes their ids stable, so they can be used as keys by other structures.
+ * Paths use '/' as separator, '\' being converted.
+ * This class is thread safe, it can be shared by several indexes.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class PathTrie {
+
+    /**
+     * Id of the root node, the empty path.
+     */
+    public static final int ROOT = 0;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final SegmentTable segments = new SegmentTable();
+
+    private int[] parent = new int[INITIAL_CAPACITY];
+
+    private int[] segment = new int[INITIAL_CAPACITY];
+
+    private int[] firstChild = new int[INITIAL_CAPACITY];
+
+    private int[] nextSibling = new int[INITIAL_CAPACITY];
+
+    /**
+     * Open addressing hash table of the nodes by parent and segment, containing the node id, 0 for an empty slot as
+     * the root is never a child.
+     */
+    private int[] table = new int[INITIAL_CAPACITY * 2];
+
+    private int count = 1;
+
+    private PathTrie() {
+        super();
+        this.parent[ROOT] = -1;
+        this.segment[ROOT] = -1;
+        this.firstChild[ROOT] = -1;
+        this.nextSibling[ROOT] = -1;
+    }
+
+    /**
+     * Create an empty trie.
+     *
+     * @return The created trie.
+     */
+    public static PathTrie create() {
+        return new PathTrie();
+    }
+
+    /**
+     * Get the node of a path, adding it if not already present.
+     *
+     * @param path Relative path, empty for the root.
+     * @return The node id.
+     */
+    public synchronized int intern(final String path) {
+        int node = ROOT;
+        for (String s : split(path)) {
+            int id = this.segments.intern(s);
+            int child = this.findChild(node, id);
+            node = child < 0 ? this.addChild(node, id) : child;
+        }
+        return node;
+    }
+
+    /**
+     * Find the node of a path.
+     *
+     * @param path Relative path, empty for the root.
+     * @return The node id, -1 if not present.
+     */
+    public synchronized int find(final String path) {
+        int node = ROOT;
+        for (String s : split(path)) {
+            int id = this.segments.find(s);
+            if (id < 0) {
+                return -1;
+            }
+            node = this.findChild(node, id);
+            if (node < 0) {
+                return -1;
+            }
+        }
+        return node;
+    }
+
+    /**
+     * @return The number of nodes, including the root.
+     */
+    public synchronized int size() {
+        return this.count;
+    }
+
+    /**
+     * @param node Node id.
+     * @return The parent node id, -1 for the root.
+     */
+    public synchronized int getParent(final int node) {
+        this.checkNode(node);
+        return this.parent[node];
+    }
+
+    /**
+     * @param node Node id.
+     * @return The last segment of the node path, empty for the root.
+     */
+    public synchronized String getName(final int node) {
+        this.checkNode(node);
+        return node == ROOT ? "" : this.segments.get(this.segment[node]);
+    }
+
+    /**
+     * Build the path of a node.
+     *
+     * @param node Node id.
+     * @return The relative path, with '/' as separator.
+     */
+    public synchronized String getPath(final int node) {
+        this.checkNode(node);
+        if (node == ROOT) {
+            return "";
+        }
+        int depth = 0;
+        for (int n = node; n != ROOT; n = this.parent[n]) {
+            depth++;
+        }
+        String[] names = new String[depth];
+        for (int n = node; n != ROOT; n = this.parent[n]) {
+            names[--depth] = this.segments.get(this.segment[n]);
+        }
+        return String.join("/", names);
+    }
+
+    /**
+     * Visit a node and all the nodes under it, parents being visited before their children.
+     *
+     * @param node Node id of the subtree root.
+     * @param visitor Visitor called with each node id.
+     */
+    public synchronized void forEachInSubtree(final int node, final IntConsumer visitor) {
+        this.checkNode(node);
+        Objects.requireNonNull(visitor);
+        int[] stack = new int[16];
+        int top = 0;
+        stack[top++] = node;
+        while (top > 0) {
+            int n = stack[--top];
+            visitor.accept(n);
+            for (int c = this.firstChild[n]; c >= 0; c = this.nextSibling[c]) {
+                if (top == stack.length) {
+                    stack = Arrays.copyOf(stack, top * 2);
+                }
+                stack[top++] = c;
+            }
+        }
+    }
+
+    private int findChild(int node, int id) {
+        int mask = this.table.length - 1;
+        for (int slot = hash(node, id) & mask; this.table[slot] != 0; slot = (slot + 1) & mask) {
+            int n = this.table[slot];
+            if (this.parent[n] == node && this.segment[n] == id) {
+                return n;
+            }
+        }
+        return -1;
+    }
+
+    private int addChild(int node, int id) {
+        if (this.count == this.parent.length) {
+            int capacity = this.count * 2;
+            this.parent = Arrays.copyOf(this.parent, capacity);
+            this.segment = Arrays.copyOf(this.segment, capacity);
+            this.firstChild = Arrays.copyOf(this.firstChild, capacity);
+            this.nextSibling = Arrays.copyOf(this.nextSibling, capacity);
+        }
+        int child = this.count++;
+        this.parent[child] = node;
+        this.segment[child] = id;
+        this.firstChild[child] = -1;
+        this.nextSibling[child] = this.firstChild[node];
+        this.firstChild[node] = child;
+        if (this.count * 2 > this.table.length) {
+            this.table = new int[this.table.length * 2];
+            for (int n = 1; n < this.count; n++) {
+                this.insert(n);
+            }
+        } else {
+            this.insert(child);
+        }
+        return child;
+    }
+
+    private void insert(int node) {
+        int mask = this.table.length - 1;
+        int slot = hash(this.parent[node], this.segment[node]) & mask;
+        while (this.table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        this.table[slot] = node;
+    }
+
+    private void checkNode(int node) {
+        if (node < 0 || node >= this.count) {
+            throw new IndexOutOfBoundsException("Invalid node: " + node);
+        }
+    }
+
+    private static int hash(int node, int id) {
+        int h = node * 0x9E3779B9 + id;
+        return h ^ (h >>> 16);
+    }
+
+    private static String[] split(String path) {
+        Objects.requireNonNull(path);
+        if (path.isEmpty()) {
+            return new String[0];
+        }
+        String normalized = path.replace('\\', '/');
+        if (normalized.startsWith("/") || normalized.endsWith("/") || normalized.contains("//")) {
+            throw new IllegalArgumentException("Invalid relative path: " + path);
+        }
+        return normalized.split("/");
+    }
+}
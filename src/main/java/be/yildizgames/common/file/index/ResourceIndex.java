@@ -0,0 +1,309 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file.index;
+
+import be.yildizgames.common.file.FileResource;
+import be.yildizgames.common.file.sync.ChecksumCache;
+import be.yildizgames.common.file.sync.FileEntry;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Compact index of the files in a tree.
+ * Entries are not stored as objects, but as columns in primitive arrays: the path as a node of a {@link PathTrie},
+ * the size, the last modification time and the CRC32.
+ * As paths are stored in a trie, the entries under a directory are found by a subtree scan.
+ * An entry is identified by an int id, from 0 to {@link #size()} excluded, and a {@link FileResource} or
+ * {@link FileEntry} is only created when explicitly requested.
+ * Paths are relative to the indexed root, with '/' as separator.
+ * This class is not thread safe, but the trie can be shared between indexes.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class ResourceIndex {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * Trie containing the entry paths.
+     */
+    private final PathTrie trie;
+
+    /**
+     * Trie node of each entry.
+     */
+    private int[] nodes = new int[INITIAL_CAPACITY];
+
+    /**
+     * Entry id + 1 for each trie node, 0 if the node is not an entry.
+     */
+    private int[] nodeEntries = new int[INITIAL_CAPACITY];
+
+    private long[] sizes = new long[INITIAL_CAPACITY];
+
+    private long[] lastModified = new long[INITIAL_CAPACITY];
+
+    /**
+     * CRC32 values, stored on 32 bits.
+     */
+    private int[] crcs = new int[INITIAL_CAPACITY];
+
+    private int count;
+
+    private ResourceIndex(PathTrie trie) {
+        super();
+        this.trie = Objects.requireNonNull(trie);
+    }
+
+    /**
+     * Create an empty index.
+     *
+     * @return The created index.
+     */
+    public static ResourceIndex create() {
+        return new ResourceIndex(PathTrie.create());
+    }
+
+    /**
+     * Create an empty index storing its paths in an existing trie.
+     *
+     * @param trie Trie to use, can be shared with other indexes.
+     * @return The created index.
+     */
+    public static ResourceIndex create(final PathTrie trie) {
+        return new ResourceIndex(trie);
+    }
+
+    /**
+     * Index all the files in a tree, without computing their CRC32.
+     *
+     * @param root Root directory.
+     * @return The created index.
+     */
+    public static ResourceIndex build(final Path root) {
+        return build(root, null);
+    }
+
+    /**
+     * Index all the files in a tree.
+     *
+     * @param root Root directory.
+     * @param cache Cache used to compute the files CRC32, null to not compute them.
+     * @return The created index.
+     */
+    public static ResourceIndex build(final Path root, final ChecksumCache cache) {
+        Objects.requireNonNull(root);
+        ResourceIndex index = ResourceIndex.create();
+        try {
+            Files.walkFileTree(root, new SimpleFileVisitor<>() {
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (attrs.isRegularFile()) {
+                        long crc = cache == null ? FileEntry.UNKNOWN_CRC : cache.getCrc(file, attrs);
+                        index.add(FileEntry.toRelativeName(root, file), attrs.size(), attrs.lastModifiedTime().toMillis(), crc);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot index " + root, e);
+        }
+        return index;
+    }
+
+    /**
+     * Add an entry, or update it if already present.
+     *
+     * @param path Path relative to the root, with '/' as separator.
+     * @param size File size in bytes.
+     * @param lastModified Last modification time in milliseconds.
+     * @param crc CRC32 value, 0 if unknown.
+     * @return The entry id.
+     */
+    public int add(final String path, final long size, final long lastModified, final long crc) {
+        if (Objects.requireNonNull(path).isEmpty()) {
+            throw new IllegalArgumentException("Invalid relative path: " + path);
+        }
+        int node = this.trie.intern(path);
+        int id = this.getEntry(node);
+        if (id < 0) {
+            id = this.append(node);
+        }
+        this.sizes[id] = size;
+        this.lastModified[id] = lastModified;
+        this.crcs[id] = (int) crc;
+        return id;
+    }
+
+    /**
+     * Find an entry.
+     *
+     * @param path Path relative to the root, with '/' as separator.
+     * @return The entry id, -1 if not present.
+     */
+    public int find(final String path) {
+        int node = this.trie.find(path);
+        return node < 0 ? -1 : this.getEntry(node);
+    }
+
+    /**
+     * @return The number of entries.
+     */
+    public int size() {
+        return this.count;
+    }
+
+    /**
+     * Build the path of an entry.
+     *
+     * @param id Entry id.
+     * @return The path relative to the root, with '/' as separator.
+     */
+    public String getPath(final int id) {
+        this.checkId(id);
+        return this.trie.getPath(this.nodes[id]);
+    }
+
+    /**
+     * @param id Entry id.
+     * @return The file size in bytes.
+     */
+    public long getSize(final int id) {
+        this.checkId(id);
+        return this.sizes[id];
+    }
+
+    /**
+     * @param id Entry id.
+     * @return The last modification time in milliseconds.
+     */
+    public long getLastModified(final int id) {
+        this.checkId(id);
+        return this.lastModified[id];
+    }
+
+    /**
+     * @param id Entry id.
+     * @return The CRC32 value, 0 if unknown.
+     */
+    public long getCrc(final int id) {
+        this.checkId(id);
+        return Integer.toUnsignedLong(this.crcs[id]);
+    }
+
+    /**
+     * Visit all the entries, in insertion order.
+     *
+     * @param visitor Visitor to call for each entry.
+     */
+    public void forEach(final EntryVisitor visitor) {
+        Objects.requireNonNull(visitor);
+        for (int i = 0; i < this.count; i++) {
+            visitor.visit(i, this.sizes[i], this.lastModified[i], Integer.toUnsignedLong(this.crcs[i]));
+        }
+    }
+
+    /**
+     * Visit the entries under a directory, parents being visited before their children.
+     *
+     * @param directory Path of the directory relative to the root, empty for the whole index.
+     * @param visitor Visitor to call for each entry.
+     */
+    public void forEachUnder(final String directory, final EntryVisitor visitor) {
+        Objects.requireNonNull(visitor);
+        int node = this.trie.find(directory);
+        if (node < 0) {
+            return;
+        }
+        this.trie.forEachInSubtree(node, n -> {
+            int id = this.getEntry(n);
+            if (id >= 0) {
+                visitor.visit(id, this.sizes[id], this.lastModified[id], Integer.toUnsignedLong(this.crcs[id]));
+            }
+        });
+    }
+
+    /**
+     * @return The trie containing the entry paths.
+     */
+    public PathTrie getTrie() {
+        return this.trie;
+    }
+
+    /**
+     * Create an entry object.
+     *
+     * @param id Entry id.
+     * @return The entry.
+     */
+    public FileEntry toFileEntry(final int id) {
+        return FileEntry.of(this.getPath(id), this.getSize(id), this.getLastModified(id), this.getCrc(id));
+    }
+
+    /**
+     * Create a file resource for an entry.
+     *
+     * @param id Entry id.
+     * @param root Root directory the entry is relative to.
+     * @return The file resource.
+     */
+    public FileResource toFileResource(final int id, final Path root) {
+        return FileResource.fromPath(this.toFileEntry(id).resolve(root));
+    }
+
+    private int getEntry(int node) {
+        return node < this.nodeEntries.length ? this.nodeEntries[node] - 1 : -1;
+    }
+
+    private int append(int node) {
+        if (this.count == this.sizes.length) {
+            int capacity = this.count * 2;
+            this.nodes = Arrays.copyOf(this.nodes, capacity);
+            this.sizes = Arrays.copyOf(this.sizes, capacity);
+            this.lastModified = Arrays.copyOf(this.lastModified, capacity);
+            this.crcs = Arrays.copyOf(this.crcs, capacity);
+        }
+        if (node >= this.nodeEntries.length) {
+            this.nodeEntries = Arrays.copyOf(this.nodeEntries, Math.max(this.nodeEntries.length * 2, node + 1));
+        }
+        int id = this.count++;
+        this.nodes[id] = node;
+        this.nodeEntries[node] = id + 1;
+        return id;
+    }
+
+    private void checkId(int id) {
+        if (id < 0 || id >= this.count) {
+            throw new IndexOutOfBoundsException("Invalid entry id: " + id);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file.index;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Intern the path segments, each distinct segment being stored once and identified by an int.
+ *
+ * @author Grégory Van den Borre
+ */
+final class SegmentTable {
+
+    private final Map<String, Integer> ids = new HashMap<>();
+
+    private String[] segments = new String[64];
+
+    private int count;
+
+    /**
+     * Get the id of a segment, adding it if not already present.
+     *
+     * @param segment Segment to intern.
+     * @return The segment id.
+     */
+    int intern(String segment) {
+        Integer id = this.ids.get(segment);
+        if (id != null) {
+            return id;
+        }
+        if (this.count == this.segments.length) {
+            this.segments = Arrays.copyOf(this.segments, this.count * 2);
+        }
+        this.segments[this.count] = segment;
+        this.ids.put(segment, this.count);
+        return this.count++;
+    }
+
+    /**
+     * @param segment Segment to find.
+     * @return The segment id, -1 if not present.
+     */
+    int find(String segment) {
+        Integer id = this.ids.get(segment);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * @param id Segment id.
+     * @return The segment value.
+     */
+    String get(int id) {
+        return this.segments[id];
+    }
+
+    /**
+     * @return The number of distinct segments.
+     */
+    int size() {
+        return this.count;
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file.lock;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Read and write locks on files.
+ * In-process, files are locked with read write locks selected by the hash of the normalized absolute path, so
+ * readers of a file proceed in parallel while a writer has an exclusive access, without a global lock.
+ * Two paths can share a lock, which only reduces the parallelism.
+ * Optionally, an operating system lock is also taken on a '.lock' file next to the locked file, to exclude other
+ * processes using the same convention, the lock file being left on the disk.
+ * The library reads and writes files with the default instance, it should be used by applications too, as locks of
+ * different instances do not exclude each other.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class FileLocks {
+
+    /**
+     * Default number of locks.
+     */
+    private static final int DEFAULT_STRIPES = 64;
+
+    private static volatile FileLocks defaultLocks = new FileLocks(DEFAULT_STRIPES, false);
+
+    private final ReadWriteLock[] stripes;
+
+    /**
+     * True to also take an operating system lock.
+     */
+    private final boolean processLocking;
+
+    private FileLocks(int stripes, boolean processLocking) {
+        super();
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("Stripes must be positive: " + stripes);
+        }
+        int size = 1;
+        while (size < stripes) {
+            size <<= 1;
+        }
+        this.stripes = new ReadWriteLock[size];
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new ReentrantReadWriteLock();
+        }
+        this.processLocking = processLocking;
+    }
+
+    /**
+     * Create a new set of locks.
+     *
+     * @param stripes Number of locks, rounded up to a power of two.
+     * @param processLocking True to also lock the files for other processes.
+     * @return The created locks.
+     */
+    public static FileLocks create(final int stripes, final boolean processLocking) {
+        return new FileLocks(stripes, processLocking);
+    }
+
+    /**
+     * @return The locks used by the library, in process only unless replaced.
+     */
+    public static FileLocks getDefault() {
+        return defaultLocks;
+    }
+
+    /**
+     * Replace the locks used by the library, typically at startup to enable process locking.
+     *
+     * @param locks Locks to use.
+     */
+    public static void setDefault(final FileLocks locks) {
+        defaultLocks = Objects.requireNonNull(locks);
+    }
+
+    /**
+     * Provide the in-process lock of a file.
+     *
+     * @param file File to lock.
+     * @return The lock used for the file.
+     */
+    public ReadWriteLock getLock(final Path file) {
+        return this.stripes[stripe(normalize(file), this.stripes.length)];
+    }
+
+    /**
+     * @return True if operating system locks are taken as well.
+     */
+    public boolean isProcessLocking() {
+        return this.processLocking;
+    }
+
+    /**
+     * Execute an operation while holding a shared lock on a file.
+     *
+     * @param file File to lock.
+     * @param operation Operation to execute.
+     * @param <T> Result type.
+     * @return The operation result.
+     * @throws IOException If the operation failed or the lock could not be acquired.
+     */
+    public <T> T read(final Path file, final LockedOperation<T> operation) throws IOException {
+        return this.execute(file, true, operation);
+    }
+
+    /**
+     * Execute an operation while holding an exclusive lock on a file.
+     *
+     * @param file File to lock.
+     * @param operation Operation to execute.
+     * @param <T> Result type.
+     * @return The operation result.
+     * @throws IOException If the operation failed or the lock could not be acquired.
+     */
+    public <T> T write(final Path file, final LockedOperation<T> operation) throws IOException {
+        return this.execute(file, false, operation);
+    }
+
+    private <T> T execute(Path file, boolean shared, LockedOperation<T> operation) throws IOException {
+        Objects.requireNonNull(operation);
+        Path key = normalize(file);
+        ReadWriteLock readWriteLock = this.stripes[stripe(key, this.stripes.length)];
+        Lock lock = shared ? readWriteLock.readLock() : readWriteLock.writeLock();
+        lock.lock();
+        try {
+            if (!this.processLocking) {
+                return operation.run();
+            }
+            Closeable processLock = ProcessLocks.acquire(lockFile(key), shared);
+            try {
+                return operation.run();
+            } finally {
+                processLock.close();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static Path normalize(Path file) {
+        return Objects.requireNonNull(file).toAbsolutePath().normalize();
+    }
+
+    private static int stripe(Path key, int count) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & (count - 1);
+    }
+
+    private static Path lockFile(Path key) {
+        return key.resolveSibling(key.getFileName() + ".lock");
+    }
+}
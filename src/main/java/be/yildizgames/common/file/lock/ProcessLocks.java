@@ -0,0 +1,114 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file.lock;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Operating system locks on lock files, shared by the whole virtual machine.
+ * The virtual machine cannot hold two overlapping locks on the same file, so a shared lock is acquired once and
+ * reference counted for all the in-process readers.
+ * Callers must guarantee, with an in-process lock, that an exclusive lock is never requested while the same file is
+ * locked.
+ *
+ * @author Grégory Van den Borre
+ */
+final class ProcessLocks {
+
+    /**
+     * Held locks, by lock file.
+     */
+    private static final Map<Path, Holder> HOLDERS = new HashMap<>();
+
+    private ProcessLocks() {
+        super();
+    }
+
+    /**
+     * Acquire a lock, blocking until it is available.
+     *
+     * @param lockFile File to lock, created if it does not exist.
+     * @param shared True for a shared lock, false for an exclusive one.
+     * @return The lock, to close to release it.
+     * @throws IOException If the lock cannot be acquired.
+     */
+    static Closeable acquire(final Path lockFile, final boolean shared) throws IOException {
+        Holder holder;
+        synchronized (HOLDERS) {
+            holder = HOLDERS.computeIfAbsent(lockFile, k -> new Holder());
+            holder.count++;
+        }
+        try {
+            // Acquired outside of the map lock, as it blocks until other processes release the file.
+            synchronized (holder) {
+                if (holder.channel == null) {
+                    FileChannel channel = FileChannel.open(lockFile,
+                            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                    try {
+                        channel.lock(0, Long.MAX_VALUE, shared);
+                    } catch (IOException | RuntimeException e) {
+                        channel.close();
+                        throw e;
+                    }
+                    holder.channel = channel;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            release(lockFile, holder);
+            throw e;
+        }
+        return () -> release(lockFile, holder);
+    }
+
+    private static void release(Path lockFile, Holder holder) throws IOException {
+        synchronized (HOLDERS) {
+            if (--holder.count > 0) {
+                return;
+            }
+            HOLDERS.remove(lockFile);
+            // Closed while holding the map lock, so a new holder for the same file cannot overlap this lock.
+            synchronized (holder) {
+                if (holder.channel != null) {
+                    holder.channel.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Lock held on a file, the channel is null until the lock is acquired, closing the channel releases the lock.
+     */
+    private static final class Holder {
+
+        private FileChannel channel;
+
+        private int count;
+    }
+}
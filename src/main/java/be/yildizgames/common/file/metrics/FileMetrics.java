@@ -0,0 +1,160 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file.metrics;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Entry point of the metrics: the library operations report their result here, and it is forwarded to the registered
+ * listeners.
+ * Operations slower than a threshold also emit a flight recorder event, when the event is enabled in the recording.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class FileMetrics {
+
+    /**
+     * Default duration above which an operation is considered slow.
+     */
+    public static final Duration DEFAULT_SLOW_THRESHOLD = Duration.ofMillis(100);
+
+    private static final List<FileOperationListener> LISTENERS = new CopyOnWriteArrayList<>();
+
+    /**
+     * True if at least one listener is registered.
+     */
+    private static volatile boolean enabled;
+
+    /**
+     * Duration above which an operation is considered slow, in nanoseconds.
+     */
+    private static volatile long slowThreshold = DEFAULT_SLOW_THRESHOLD.toNanos();
+
+    private FileMetrics() {
+        super();
+    }
+
+    /**
+     * Register a listener to receive the operations results.
+     *
+     * @param listener Listener to register.
+     */
+    public static void register(final FileOperationListener listener) {
+        Objects.requireNonNull(listener);
+        LISTENERS.add(listener);
+        enabled = true;
+    }
+
+    /**
+     * Remove a registered listener.
+     *
+     * @param listener Listener to remove.
+     */
+    public static void unregister(final FileOperationListener listener) {
+        LISTENERS.remove(listener);
+        enabled = !LISTENERS.isEmpty();
+    }
+
+    /**
+     * Set the duration above which a flight recorder event is emitted.
+     *
+     * @param threshold Duration above which an operation is considered slow.
+     */
+    public static void setSlowThreshold(final Duration threshold) {
+        Objects.requireNonNull(threshold);
+        slowThreshold = threshold.toNanos();
+    }
+
+    /**
+     * @return True if at least one listener is registered, used to skip measurements having a cost of their own.
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Mark the beginning of an operation.
+     *
+     * @return The value to provide when reporting the operation result.
+     */
+    public static long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Report a successful operation.
+     *
+     * @param operation Completed operation.
+     * @param path File or directory the operation was made on.
+     * @param bytes Number of bytes read or written, 0 if not relevant.
+     * @param start Value returned by {@link #start()} when the operation began.
+     */
+    public static void success(final FileOperation operation, final Path path, final long bytes, final long start) {
+        long duration = System.nanoTime() - start;
+        if (enabled) {
+            for (FileOperationListener l : LISTENERS) {
+                l.onSuccess(operation, path, bytes, duration);
+            }
+        }
+        if (duration >= slowThreshold) {
+            emitSlowEvent(operation, path, bytes, duration, false);
+        }
+    }
+
+    /**
+     * Report a failed operation.
+     *
+     * @param operation Failed operation.
+     * @param path File or directory the operation was made on.
+     * @param start Value returned by {@link #start()} when the operation began.
+     * @param error Failure cause.
+     */
+    public static void error(final FileOperation operation, final Path path, final long start, final Throwable error) {
+        long duration = System.nanoTime() - start;
+        if (enabled) {
+            for (FileOperationListener l : LISTENERS) {
+                l.onError(operation, path, duration, error);
+            }
+        }
+        if (duration >= slowThreshold) {
+            emitSlowEvent(operation, path, 0, duration, true);
+        }
+    }
+
+    private static void emitSlowEvent(FileOperation operation, Path path, long bytes, long duration, boolean failed) {
+        SlowFileOperationEvent event = new SlowFileOperationEvent();
+        if (event.isEnabled()) {
+            event.operation = operation.name();
+            event.path = String.valueOf(path);
+            event.bytes = bytes;
+            event.operationDuration = duration;
+            event.failed = failed;
+            event.commit();
+        }
+    }
+}
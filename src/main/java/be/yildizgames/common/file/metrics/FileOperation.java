@@ -0,0 +1,107 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file.metrics;
+
+/**
+ * Operations measured by the library.
+ *
+ * @author Grégory Van den Borre
+ */
+public enum FileOperation {
+
+    /**
+     * Read a file content as lines.
+     */
+    READ_LINES,
+
+    /**
+     * Write a file content from lines.
+     */
+    WRITE_LINES,
+
+    /**
+     * Append a line to a file.
+     */
+    ADD_LINE,
+
+    /**
+     * Read a file content as bytes.
+     */
+    READ_BYTES,
+
+    /**
+     * Compute a file checksum.
+     */
+    CHECKSUM,
+
+    /**
+     * Read a file attributes.
+     */
+    STAT,
+
+    /**
+     * List the files in a directory tree.
+     */
+    LIST,
+
+    /**
+     * Create a file or directory.
+     */
+    CREATE,
+
+    /**
+     * Delete a file.
+     */
+    DELETE,
+
+    /**
+     * Delete a directory tree.
+     */
+    DELETE_TREE,
+
+    /**
+     * Copy a file or directory tree.
+     */
+    COPY,
+
+    /**
+     * Move or rename a file.
+     */
+    MOVE,
+
+    /**
+     * Read a properties file.
+     */
+    READ_PROPERTIES,
+
+    /**
+     * Write a properties file.
+     */
+    WRITE_PROPERTIES,
+
+    /**
+     * Sort the lines of a file.
+     */
+    SORT
+}
@@ -0,0 +1,125 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file.metrics;
+
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Default listener, keeping lock free counters of operations, errors, bytes and a latency histogram for each
+ * operation.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class FileOperationCounter implements FileOperationListener {
+
+    private final Map<FileOperation, Counters> counters = new EnumMap<>(FileOperation.class);
+
+    private FileOperationCounter() {
+        super();
+        for (FileOperation operation : FileOperation.values()) {
+            this.counters.put(operation, new Counters());
+        }
+    }
+
+    /**
+     * @return A new counter, to be registered with {@link FileMetrics#register(FileOperationListener)}.
+     */
+    public static FileOperationCounter create() {
+        return new FileOperationCounter();
+    }
+
+    @Override
+    public void onSuccess(final FileOperation operation, final Path path, final long bytes, final long durationNanos) {
+        Counters c = this.counters.get(operation);
+        c.count.increment();
+        c.bytes.add(bytes);
+        c.latency.record(durationNanos);
+    }
+
+    @Override
+    public void onError(final FileOperation operation, final Path path, final long durationNanos, final Throwable error) {
+        Counters c = this.counters.get(operation);
+        c.count.increment();
+        c.errors.increment();
+        c.latency.record(durationNanos);
+    }
+
+    /**
+     * @param operation Operation to get the value for.
+     * @return The number of times the operation was run, including failures.
+     */
+    public long getCount(final FileOperation operation) {
+        return this.counters.get(operation).count.sum();
+    }
+
+    /**
+     * @param operation Operation to get the value for.
+     * @return The number of times the operation failed.
+     */
+    public long getErrorCount(final FileOperation operation) {
+        return this.counters.get(operation).errors.sum();
+    }
+
+    /**
+     * @param operation Operation to get the value for.
+     * @return The number of bytes read or written by the operation.
+     */
+    public long getBytes(final FileOperation operation) {
+        return this.counters.get(operation).bytes.sum();
+    }
+
+    /**
+     * @param operation Operation to get the value for.
+     * @return The latency histogram of the operation.
+     */
+    public LatencyHistogram getLatency(final FileOperation operation) {
+        return this.counters.get(operation).latency;
+    }
+
+    /**
+     * Set all counters back to 0.
+     */
+    public void reset() {
+        for (Counters c : this.counters.values()) {
+            c.count.reset();
+            c.errors.reset();
+            c.bytes.reset();
+            c.latency.reset();
+        }
+    }
+
+    private static final class Counters {
+
+        private final LongAdder count = new LongAdder();
+
+        private final LongAdder errors = new LongAdder();
+
+        private final LongAdder bytes = new LongAdder();
+
+        private final LatencyHistogram latency = new LatencyHistogram();
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file.metrics;
+
+import java.nio.file.Path;
+
+/**
+ * Receive the result of each measured file operation, implementations are called on the thread running the operation
+ * and must be thread safe and fast.
+ *
+ * @author Grégory Van den Borre
+ */
+public interface FileOperationListener {
+
+    /**
+     * Called when an operation completed successfully.
+     *
+     * @param operation Completed operation.
+     * @param path File or directory the operation was made on.
+     * @param bytes Number of bytes read or written, 0 if not relevant.
+     * @param durationNanos Operation duration, in nanoseconds.
+     */
+    void onSuccess(FileOperation operation, Path path, long bytes, long durationNanos);
+
+    /**
+     * Called when an operation failed, including the failures logged and not thrown by the library.
+     *
+     * @param operation Failed operation.
+     * @param path File or directory the operation was made on.
+     * @param durationNanos Operation duration, in nanoseconds.
+     * @param error Failure cause.
+     */
+    void onError(FileOperation operation, Path path, long durationNanos, Throwable error);
+}
@@ -0,0 +1,119 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock free histogram of durations, using power of two buckets: bucket i counts the durations between 2^i and
+ * 2^(i+1) - 1 nanoseconds.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class LatencyHistogram {
+
+    /**
+     * Number of buckets, enough for any positive long value.
+     */
+    private static final int BUCKETS = 64;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    LatencyHistogram() {
+        super();
+    }
+
+    /**
+     * Add a duration.
+     *
+     * @param nanos Duration, in nanoseconds.
+     */
+    void record(final long nanos) {
+        this.counts.incrementAndGet(bucket(nanos));
+    }
+
+    /**
+     * @return The number of recorded durations per bucket, bucket i is for durations from 2^i to 2^(i+1) - 1 ns.
+     */
+    public long[] getCounts() {
+        long[] result = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            result[i] = this.counts.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * @return The number of recorded durations.
+     */
+    public long getTotalCount() {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += this.counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Provide an upper bound for a percentile of the recorded durations.
+     *
+     * @param percentile Percentile, between 0 and 100.
+     * @return The upper bound of the bucket containing the percentile, in nanoseconds, 0 if nothing was recorded.
+     */
+    public long getPercentile(final double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Invalid percentile: " + percentile);
+        }
+        long[] values = this.getCounts();
+        long total = 0;
+        for (long v : values) {
+            total += v;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += values[i];
+            if (seen >= rank && values[i] > 0) {
+                return i == BUCKETS - 1 ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Remove all recorded durations.
+     */
+    void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            this.counts.set(i, 0);
+        }
+    }
+
+    private static int bucket(long nanos) {
+        return nanos <= 0 ? 0 : 63 - Long.numberOfLeadingZeros(nanos);
+    }
+}
@@ -0,0 +1,277 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file.properties;
+
+import be.yildizgames.common.file.FileProperties;
+import be.yildizgames.common.file.metrics.FileMetrics;
+import be.yildizgames.common.file.metrics.FileOperation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Properties;
+
+/**
+ * Read only properties, loaded from a compiled file mapped in memory, without parsing.
+ * The compiled file is built from the properties file the first time, and built again when the properties file
+ * modification time or size changed.
+ * Lookups are done with a minimal perfect hash and do not lock, the values are decoded on each lookup.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class CompiledProperties {
+
+    /**
+     * Suffix added to the properties file name to get the compiled file name.
+     */
+    public static final String SUFFIX = ".compiled";
+
+    private final ByteBuffer buffer;
+
+    private final int count;
+
+    private final int buckets;
+
+    private final int slotStart;
+
+    private final int entryStart;
+
+    private final int stringStart;
+
+    private CompiledProperties(ByteBuffer buffer, int count, int buckets) {
+        super();
+        this.buffer = buffer;
+        this.count = count;
+        this.buckets = buckets;
+        this.slotStart = PropertiesCompiler.HEADER_SIZE + Integer.BYTES * buckets;
+        this.entryStart = this.slotStart + Integer.BYTES * count;
+        this.stringStart = this.entryStart + PropertiesCompiler.ENTRY_SIZE * count;
+    }
+
+    /**
+     * Load properties from their compiled file, next to the properties file, compiling it if needed.
+     *
+     * @param source Properties file.
+     * @return The loaded properties.
+     */
+    public static CompiledProperties load(final Path source) {
+        Objects.requireNonNull(source);
+        return load(source, source.resolveSibling(source.getFileName() + SUFFIX));
+    }
+
+    /**
+     * Load properties from their compiled file, compiling it if it is missing, invalid, or was compiled from
+     * another version of the properties file.
+     *
+     * @param source Properties file.
+     * @param compiled Compiled file.
+     * @return The loaded properties.
+     */
+    public static CompiledProperties load(final Path source, final Path compiled) {
+        Objects.requireNonNull(source);
+        Objects.requireNonNull(compiled);
+        long start = FileMetrics.start();
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class);
+            long lastModified = attributes.lastModifiedTime().toMillis();
+            CompiledProperties result = map(compiled, lastModified, attributes.size());
+            if (result == null) {
+                PropertiesCompiler.compile(FileProperties.getPropertiesFromFile(source), lastModified, attributes.size(), compiled);
+                result = map(compiled, lastModified, attributes.size());
+                if (result == null) {
+                    throw new IOException("Invalid compiled file " + compiled);
+                }
+            }
+            FileMetrics.success(FileOperation.READ_PROPERTIES, compiled, result.buffer.capacity(), start);
+            return result;
+        } catch (IOException e) {
+            FileMetrics.error(FileOperation.READ_PROPERTIES, compiled, start, e);
+            throw new IllegalStateException("Error while reading property file: " + source.toAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * Compile a properties file.
+     *
+     * @param source Properties file.
+     * @param target Compiled file to write.
+     */
+    public static void compile(final Path source, final Path target) {
+        Objects.requireNonNull(source);
+        Objects.requireNonNull(target);
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class);
+            PropertiesCompiler.compile(FileProperties.getPropertiesFromFile(source),
+                    attributes.lastModifiedTime().toMillis(), attributes.size(), target);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot compile property file: " + source.toAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * Retrieve a value.
+     *
+     * @param key Property key.
+     * @return The value, null if the key does not exist.
+     */
+    public String getProperty(final String key) {
+        int entry = this.find(key.getBytes(StandardCharsets.UTF_8));
+        if (entry < 0) {
+            return null;
+        }
+        int position = this.entryStart + PropertiesCompiler.ENTRY_SIZE * entry;
+        return this.readString(this.buffer.getInt(position + 8), this.buffer.getInt(position + 12));
+    }
+
+    /**
+     * Retrieve a value.
+     *
+     * @param key Property key.
+     * @param defaultValue Value to return if the key does not exist.
+     * @return The value, or the default value if the key does not exist.
+     */
+    public String getProperty(final String key, final String defaultValue) {
+        String value = this.getProperty(key);
+        return value == null ? defaultValue : value;
+    }
+
+    /**
+     * @param key Property key.
+     * @return True if the key exists.
+     */
+    public boolean containsKey(final String key) {
+        return this.find(key.getBytes(StandardCharsets.UTF_8)) >= 0;
+    }
+
+    /**
+     * @return The number of properties.
+     */
+    public int size() {
+        return this.count;
+    }
+
+    /**
+     * @return All the keys, sorted.
+     */
+    public List<String> keys() {
+        List<String> result = new ArrayList<>(this.count);
+        for (int i = 0; i < this.count; i++) {
+            int position = this.entryStart + PropertiesCompiler.ENTRY_SIZE * i;
+            result.add(this.readString(this.buffer.getInt(position), this.buffer.getInt(position + 4)));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * @return A copy of the properties, as a Properties object.
+     */
+    public Properties toProperties() {
+        Properties result = new Properties();
+        for (int i = 0; i < this.count; i++) {
+            int position = this.entryStart + PropertiesCompiler.ENTRY_SIZE * i;
+            result.setProperty(this.readString(this.buffer.getInt(position), this.buffer.getInt(position + 4)),
+                    this.readString(this.buffer.getInt(position + 8), this.buffer.getInt(position + 12)));
+        }
+        return result;
+    }
+
+    /**
+     * Find the entry of a key.
+     *
+     * @param key Key bytes.
+     * @return The entry index, -1 if the key does not exist.
+     */
+    private int find(final byte[] key) {
+        if (this.count == 0) {
+            return -1;
+        }
+        int bucket = Integer.remainderUnsigned(PropertiesCompiler.hash(key, 0), this.buckets);
+        int displacement = this.buffer.getInt(PropertiesCompiler.HEADER_SIZE + Integer.BYTES * bucket);
+        int slot = displacement < 0
+                ? -displacement - 1
+                : Integer.remainderUnsigned(PropertiesCompiler.hash(key, displacement), this.count);
+        int entry = this.buffer.getInt(this.slotStart + Integer.BYTES * slot);
+        int position = this.entryStart + PropertiesCompiler.ENTRY_SIZE * entry;
+        if (this.buffer.getInt(position + 4) != key.length) {
+            return -1;
+        }
+        int offset = this.stringStart + this.buffer.getInt(position);
+        for (int i = 0; i < key.length; i++) {
+            if (this.buffer.get(offset + i) != key[i]) {
+                return -1;
+            }
+        }
+        return entry;
+    }
+
+    private String readString(final int offset, final int length) {
+        byte[] bytes = new byte[length];
+        ByteBuffer view = this.buffer.duplicate();
+        view.position(this.stringStart + offset);
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Map a compiled file.
+     *
+     * @param compiled Compiled file.
+     * @param lastModified Expected source modification time.
+     * @param size Expected source size.
+     * @return The mapped properties, null if the file is missing, invalid or built from another source.
+     * @throws IOException If the file cannot be read.
+     */
+    private static CompiledProperties map(final Path compiled, final long lastModified, final long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(compiled, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < PropertiesCompiler.HEADER_SIZE || length > Integer.MAX_VALUE) {
+                return null;
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            if (buffer.getInt(0) != PropertiesCompiler.MAGIC || buffer.getInt(4) != PropertiesCompiler.VERSION
+                    || buffer.getLong(8) != lastModified || buffer.getLong(16) != size) {
+                return null;
+            }
+            int count = buffer.getInt(24);
+            int buckets = buffer.getInt(28);
+            if (count < 0 || buckets != PropertiesCompiler.bucketCount(count)
+                    || length < PropertiesCompiler.HEADER_SIZE + (long) Integer.BYTES * (buckets + count) + (long) PropertiesCompiler.ENTRY_SIZE * count) {
+                return null;
+            }
+            return new CompiledProperties(buffer, count, buckets);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+}
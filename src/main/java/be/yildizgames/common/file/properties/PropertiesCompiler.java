@@ -0,0 +1,231 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file.properties;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Write properties in the compiled form.
+ * Layout, big endian:
+ * header: magic (4 bytes), version (4 bytes), source last modification time (8 bytes), source size (8 bytes),
+ * entry count n (4 bytes), bucket count r (4 bytes);
+ * displacements: r ints, a negative value -s-1 giving directly the slot s of a single key bucket, a positive value
+ * being the seed used to hash the keys of the bucket;
+ * slots: n ints, the entry index for each slot of the minimal perfect hash;
+ * entries: n times key offset, key length, value offset, value length (4 bytes each), sorted by key;
+ * string table: keys and values in UTF-8, offsets are relative to its start.
+ *
+ * @author Grégory Van den Borre
+ */
+final class PropertiesCompiler {
+
+    static final int MAGIC = 0x59435046;
+
+    static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 32;
+
+    static final int ENTRY_SIZE = 16;
+
+    /**
+     * Average number of keys by bucket.
+     */
+    private static final int KEYS_BY_BUCKET = 4;
+
+    private static final int MAX_SEED = 10_000_000;
+
+    private PropertiesCompiler() {
+        super();
+    }
+
+    /**
+     * Compile properties to a file, replacing it atomically.
+     *
+     * @param properties Properties to compile.
+     * @param lastModified Last modification time of the properties source file.
+     * @param sourceSize Size of the properties source file.
+     * @param target File to write.
+     * @throws IOException If the file cannot be written.
+     */
+    static void compile(final Properties properties, final long lastModified, final long sourceSize, final Path target) throws IOException {
+        List<String> keys = new ArrayList<>(properties.stringPropertyNames());
+        keys.sort(null);
+        int count = keys.size();
+        byte[][] keyBytes = new byte[count][];
+        byte[][] valueBytes = new byte[count][];
+        int strings = 0;
+        for (int i = 0; i < count; i++) {
+            keyBytes[i] = keys.get(i).getBytes(StandardCharsets.UTF_8);
+            valueBytes[i] = properties.getProperty(keys.get(i)).getBytes(StandardCharsets.UTF_8);
+            strings += keyBytes[i].length + valueBytes[i].length;
+        }
+        int buckets = bucketCount(count);
+        int[] displacements = new int[buckets];
+        int[] slots = buildHash(keyBytes, displacements);
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + Integer.BYTES * (buckets + count) + ENTRY_SIZE * count + strings);
+        buffer.putInt(MAGIC).putInt(VERSION).putLong(lastModified).putLong(sourceSize).putInt(count).putInt(buckets);
+        for (int d : displacements) {
+            buffer.putInt(d);
+        }
+        for (int s : slots) {
+            buffer.putInt(s);
+        }
+        int offset = 0;
+        for (int i = 0; i < count; i++) {
+            buffer.putInt(offset).putInt(keyBytes[i].length);
+            offset += keyBytes[i].length;
+            buffer.putInt(offset).putInt(valueBytes[i].length);
+            offset += valueBytes[i].length;
+        }
+        for (int i = 0; i < count; i++) {
+            buffer.put(keyBytes[i]).put(valueBytes[i]);
+        }
+        buffer.flip();
+        Path temp = Files.createTempFile(target.toAbsolutePath().getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * @param count Number of keys.
+     * @return The number of buckets for the hash and displace construction.
+     */
+    static int bucketCount(final int count) {
+        return Math.max(1, (count + KEYS_BY_BUCKET - 1) / KEYS_BY_BUCKET);
+    }
+
+    /**
+     * Hash a key, the seed selecting a different hash function.
+     *
+     * @param key Key bytes.
+     * @param seed Hash function seed.
+     * @return The hash, to be taken modulo the table size with {@link Integer#remainderUnsigned(int, int)}.
+     */
+    static int hash(final byte[] key, final int seed) {
+        int h = 0x811C9DC5 ^ (seed * 0x9E3779B9);
+        for (byte b : key) {
+            h = (h ^ (b & 0xFF)) * 0x01000193;
+        }
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Build a minimal perfect hash of the keys: keys are grouped in buckets, the buckets are placed from the largest,
+     * each trying seeds until all its keys fall in free slots, and single key buckets take the remaining free slots
+     * directly.
+     *
+     * @param keys Keys to hash.
+     * @param displacements Receive the displacement of each bucket.
+     * @return The entry index of each slot.
+     */
+    private static int[] buildHash(final byte[][] keys, final int[] displacements) {
+        int count = keys.length;
+        int buckets = displacements.length;
+        int[] slots = new int[count];
+        Arrays.fill(slots, -1);
+        List<List<Integer>> content = new ArrayList<>(buckets);
+        for (int i = 0; i < buckets; i++) {
+            content.add(new ArrayList<>(KEYS_BY_BUCKET));
+        }
+        for (int i = 0; i < count; i++) {
+            content.get(Integer.remainderUnsigned(hash(keys[i], 0), buckets)).add(i);
+        }
+        Integer[] order = new Integer[buckets];
+        for (int i = 0; i < buckets; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(content.get(b).size(), content.get(a).size()));
+        int free = 0;
+        int[] candidates = new int[0];
+        for (int bucket : order) {
+            List<Integer> entries = content.get(bucket);
+            if (entries.isEmpty()) {
+                break;
+            }
+            if (entries.size() == 1) {
+                while (slots[free] != -1) {
+                    free++;
+                }
+                slots[free] = entries.get(0);
+                displacements[bucket] = -free - 1;
+                continue;
+            }
+            if (candidates.length < entries.size()) {
+                candidates = new int[entries.size()];
+            }
+            int seed = 1;
+            while (!tryPlace(keys, entries, seed, slots, candidates)) {
+                seed++;
+                if (seed > MAX_SEED) {
+                    throw new IllegalStateException("Cannot build the perfect hash for " + count + " keys.");
+                }
+            }
+            displacements[bucket] = seed;
+        }
+        return slots;
+    }
+
+    private static boolean tryPlace(final byte[][] keys, final List<Integer> entries, final int seed, final int[] slots, final int[] candidates) {
+        int size = entries.size();
+        for (int i = 0; i < size; i++) {
+            int slot = Integer.remainderUnsigned(hash(keys[entries.get(i)], seed), slots.length);
+            if (slots[slot] != -1) {
+                return false;
+            }
+            for (int j = 0; j < i; j++) {
+                if (candidates[j] == slot) {
+                    return false;
+                }
+            }
+            candidates[i] = slot;
+        }
+        for (int i = 0; i < size; i++) {
+            slots[candidates[i]] = entries.get(i);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,439 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file.schedule;
+
+import be.yildizgames.common.file.ResourceUtil;
+import be.yildizgames.common.file.buffer.BufferPool;
+import be.yildizgames.common.file.buffer.PooledBuffer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Execute file operations on a fixed number of threads, by priority class.
+ * The waiting operation with the highest priority is started first, as long as its class is below its concurrency
+ * limit, so limiting the background class keeps threads, and disk bandwidth, available for the foreground operations.
+ * Each class can also be throttled to a number of bytes per second, the operations provided by the scheduler take
+ * their bytes chunk by chunk, and submitted tasks can do the same with {@link #acquire(IoPriority, long)}.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class IoScheduler implements Closeable {
+
+    /**
+     * Bytes processed between two throttling checks.
+     */
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private static final IoPriority[] PRIORITIES = IoPriority.values();
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Signaled when a task is queued, a task ends or a limit changes.
+     */
+    private final Condition available = this.lock.newCondition();
+
+    /**
+     * Waiting tasks, by priority.
+     */
+    private final List<ArrayDeque<Job<?>>> queues = new ArrayList<>();
+
+    /**
+     * Number of running tasks, by priority.
+     */
+    private final int[] running = new int[PRIORITIES.length];
+
+    /**
+     * Maximum number of running tasks, by priority.
+     */
+    private final int[] limits = new int[PRIORITIES.length];
+
+    /**
+     * Throughput limit by priority, null if not throttled.
+     */
+    private final AtomicReferenceArray<TokenBucket> throttles = new AtomicReferenceArray<>(PRIORITIES.length);
+
+    private final List<Thread> workers = new ArrayList<>();
+
+    private boolean closed;
+
+    private IoScheduler(int threads) {
+        super();
+        for (IoPriority p : PRIORITIES) {
+            this.queues.add(new ArrayDeque<>());
+            this.limits[p.ordinal()] = threads;
+        }
+        this.limits[IoPriority.BACKGROUND.ordinal()] = Math.max(1, threads / 4);
+        for (int i = 0; i < threads; i++) {
+            Thread t = new Thread(this::work, "io-scheduler-" + i);
+            t.setDaemon(true);
+            this.workers.add(t);
+        }
+        this.workers.forEach(Thread::start);
+    }
+
+    /**
+     * Create a scheduler, by default, every class can use all the threads except the background class, limited to
+     * a quarter of them, and nothing is throttled.
+     *
+     * @param threads Number of threads executing the operations.
+     * @return The created scheduler.
+     */
+    public static IoScheduler create(final int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be positive: " + threads);
+        }
+        return new IoScheduler(threads);
+    }
+
+    /**
+     * Limit the number of operations of a class running at the same time.
+     *
+     * @param priority Class to limit.
+     * @param limit Maximum number of running operations, higher than the thread count means no limit.
+     * @return This object, for chaining.
+     */
+    public IoScheduler setConcurrency(final IoPriority priority, final int limit) {
+        Objects.requireNonNull(priority);
+        if (limit < 1) {
+            throw new IllegalArgumentException("Concurrency limit must be positive: " + limit);
+        }
+        this.lock.lock();
+        try {
+            this.limits[priority.ordinal()] = limit;
+            this.available.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+        return this;
+    }
+
+    /**
+     * Limit the throughput of a class.
+     *
+     * @param priority Class to limit.
+     * @param bytesPerSecond Maximum number of bytes per second, 0 to remove the limit.
+     * @return This object, for chaining.
+     */
+    public IoScheduler setThrottle(final IoPriority priority, final long bytesPerSecond) {
+        Objects.requireNonNull(priority);
+        if (bytesPerSecond < 0) {
+            throw new IllegalArgumentException("Throughput cannot be negative: " + bytesPerSecond);
+        }
+        this.throttles.set(priority.ordinal(), bytesPerSecond == 0 ? null : new TokenBucket(bytesPerSecond));
+        return this;
+    }
+
+    /**
+     * Queue an operation.
+     *
+     * @param priority Operation priority class.
+     * @param task Operation to execute.
+     * @param <T> Result type.
+     * @return The operation result, completed with the IOException if the operation failed.
+     */
+    public <T> CompletableFuture<T> submit(final IoPriority priority, final IoTask<T> task) {
+        Objects.requireNonNull(priority);
+        Objects.requireNonNull(task);
+        Job<T> job = new Job<>(priority, task);
+        this.lock.lock();
+        try {
+            if (this.closed) {
+                throw new IllegalStateException("Scheduler is closed.");
+            }
+            this.queues.get(priority.ordinal()).add(job);
+            this.available.signal();
+        } finally {
+            this.lock.unlock();
+        }
+        return job.future;
+    }
+
+    /**
+     * Take bytes from the throughput limit of a class, waiting as long as needed to respect it.
+     * Does nothing if the class is not throttled.
+     *
+     * @param priority Class of the calling operation.
+     * @param bytes Number of bytes read or written.
+     * @throws InterruptedIOException If the thread is interrupted while waiting.
+     */
+    public void acquire(final IoPriority priority, final long bytes) throws InterruptedIOException {
+        TokenBucket bucket = this.throttles.get(priority.ordinal());
+        if (bucket == null || bytes <= 0) {
+            return;
+        }
+        try {
+            bucket.acquire(bytes);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while throttled.");
+        }
+    }
+
+    /**
+     * Read a file content, chunk by chunk, each chunk is taken from the throughput limit once read.
+     *
+     * @param priority Operation priority class.
+     * @param file File to read.
+     * @return The file content.
+     */
+    public CompletableFuture<byte[]> readAllBytes(final IoPriority priority, final Path file) {
+        return this.submit(priority, () -> {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+                 PooledBuffer pooled = BufferPool.getDefault().lease(CHUNK_SIZE)) {
+                long size = channel.size();
+                if (size > Integer.MAX_VALUE) {
+                    throw new IOException("File too large " + file);
+                }
+                byte[] result = new byte[(int) size];
+                ByteBuffer buffer = pooled.buffer();
+                int offset = 0;
+                while (offset < result.length) {
+                    buffer.clear().limit(Math.min(CHUNK_SIZE, result.length - offset));
+                    int read = channel.read(buffer);
+                    if (read < 0) {
+                        throw new IOException("Could not completely read file " + file);
+                    }
+                    this.acquire(priority, read);
+                    buffer.flip();
+                    buffer.get(result, offset, read);
+                    offset += read;
+                }
+                return result;
+            }
+        });
+    }
+
+    /**
+     * Compute the CRC32 of a file content.
+     *
+     * @param priority Operation priority class.
+     * @param file File to read.
+     * @return The checksum value.
+     */
+    public CompletableFuture<Long> computeCrc32(final IoPriority priority, final Path file) {
+        return this.submit(priority, () -> {
+            CRC32 crc = new CRC32();
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+                 PooledBuffer pooled = BufferPool.getDefault().lease(CHUNK_SIZE)) {
+                ByteBuffer buffer = pooled.buffer();
+                buffer.limit(CHUNK_SIZE);
+                int read;
+                while ((read = channel.read(buffer)) >= 0) {
+                    this.acquire(priority, read);
+                    buffer.flip();
+                    crc.update(buffer);
+                    buffer.clear().limit(CHUNK_SIZE);
+                }
+            }
+            return crc.getValue();
+        });
+    }
+
+    /**
+     * Copy a file, replacing the target if it exists, missing parent directories are created.
+     *
+     * @param priority Operation priority class.
+     * @param source File to copy.
+     * @param target Copy destination.
+     * @return The number of copied bytes.
+     */
+    public CompletableFuture<Long> copy(final IoPriority priority, final Path source, final Path target) {
+        return this.submit(priority, () -> {
+            Path parent = target.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            long position = 0;
+            try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+                 FileChannel out = FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                long size = in.size();
+                while (position < size) {
+                    long transferred = in.transferTo(position, Math.min(CHUNK_SIZE, size - position), out);
+                    if (transferred <= 0) {
+                        break;
+                    }
+                    this.acquire(priority, transferred);
+                    position += transferred;
+                }
+            }
+            return position;
+        });
+    }
+
+    /**
+     * Delete a directory and its content.
+     *
+     * @param priority Operation priority class.
+     * @param directory Directory to delete.
+     * @return Completed when the directory is deleted.
+     */
+    public CompletableFuture<Void> deleteDirectoryTree(final IoPriority priority, final Path directory) {
+        return this.submit(priority, () -> {
+            ResourceUtil.deleteDirectoryTree(directory);
+            return null;
+        });
+    }
+
+    /**
+     * @param priority Class to check.
+     * @return The number of operations of that class waiting to start.
+     */
+    public int getQueued(final IoPriority priority) {
+        this.lock.lock();
+        try {
+            return this.queues.get(priority.ordinal()).size();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * @param priority Class to check.
+     * @return The number of running operations of that class.
+     */
+    public int getRunning(final IoPriority priority) {
+        this.lock.lock();
+        try {
+            return this.running[priority.ordinal()];
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Stop the scheduler, the running operations are completed, the waiting ones are cancelled.
+     */
+    @Override
+    public void close() {
+        List<Job<?>> cancelled = new ArrayList<>();
+        this.lock.lock();
+        try {
+            this.closed = true;
+            this.queues.forEach(q -> {
+                cancelled.addAll(q);
+                q.clear();
+            });
+            this.available.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+        cancelled.forEach(j -> j.future.cancel(false));
+    }
+
+    private void work() {
+        while (true) {
+            Job<?> job;
+            this.lock.lock();
+            try {
+                while ((job = this.next()) == null) {
+                    if (this.closed) {
+                        return;
+                    }
+                    this.available.await();
+                }
+                this.running[job.priority.ordinal()]++;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                this.lock.unlock();
+            }
+            try {
+                job.run();
+            } finally {
+                this.lock.lock();
+                try {
+                    this.running[job.priority.ordinal()]--;
+                    this.available.signalAll();
+                } finally {
+                    this.lock.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Take the next task to run, must be called with the lock.
+     *
+     * @return The waiting task with the highest priority whose class is below its limit, null if there is none.
+     */
+    private Job<?> next() {
+        for (IoPriority p : PRIORITIES) {
+            int i = p.ordinal();
+            if (this.running[i] < this.limits[i] && !this.queues.get(i).isEmpty()) {
+                return this.queues.get(i).poll();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Queued task and its result.
+     *
+     * @param <T> Result type.
+     */
+    private static final class Job<T> {
+
+        private final IoPriority priority;
+
+        private final IoTask<T> task;
+
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        private Job(IoPriority priority, IoTask<T> task) {
+            super();
+            this.priority = priority;
+            this.task = task;
+        }
+
+        private void run() {
+            if (this.future.isDone()) {
+                return;
+            }
+            try {
+                this.future.complete(this.task.run());
+            } catch (IOException | RuntimeException | Error e) {
+                // Errors are reported through the future as well, so the worker thread keeps running.
+                this.future.completeExceptionally(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file.schedule;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limit a throughput in bytes per second, allowing a burst of one second.
+ * Callers take the bytes they use, the bucket going in debt if needed, and wait until the debt is repaid, so
+ * concurrent callers are served in order.
+ *
+ * @author Grégory Van den Borre
+ */
+final class TokenBucket {
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final long bytesPerSecond;
+
+    /**
+     * Available bytes, negative when in debt.
+     */
+    private double tokens;
+
+    private long lastRefill;
+
+    TokenBucket(long bytesPerSecond) {
+        super();
+        this.bytesPerSecond = bytesPerSecond;
+        this.tokens = bytesPerSecond;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * Take bytes from the bucket, and wait if it is in debt.
+     *
+     * @param bytes Number of bytes to take.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    void acquire(final long bytes) throws InterruptedException {
+        long wait;
+        synchronized (this) {
+            long now = System.nanoTime();
+            this.tokens = Math.min(this.bytesPerSecond, this.tokens + (now - this.lastRefill) * (double) this.bytesPerSecond / NANOS_PER_SECOND);
+            this.lastRefill = now;
+            this.tokens -= bytes;
+            wait = this.tokens >= 0 ? 0 : (long) (-this.tokens * NANOS_PER_SECOND / this.bytesPerSecond);
+        }
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+
+    long getBytesPerSecond() {
+        return this.bytesPerSecond;
+    }
+}
@@ -0,0 +1,378 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file.search;
+
+import be.yildizgames.common.file.buffer.BufferPool;
+import be.yildizgames.common.file.buffer.PooledBuffer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Search a literal text or a regular expression in the content of all the files of a directory tree.
+ * Files are searched in parallel, small files are read in memory and large ones are mapped, literal texts are
+ * searched directly in the UTF-8 bytes, only the matching lines being decoded, regular expressions are applied on
+ * each decoded line.
+ * By default, files whose first bytes contain a null byte are considered binary and skipped.
+ * A search is immutable and can be used many times.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class ContentSearch {
+
+    private static final System.Logger LOGGER = System.getLogger(ContentSearch.class.getName());
+
+    /**
+     * Files larger than this size are mapped instead of being read.
+     */
+    static final int MAP_THRESHOLD = 1024 * 1024;
+
+    /**
+     * Number of bytes checked to detect binary files.
+     */
+    private static final int BINARY_CHECK_SIZE = 8000;
+
+    /**
+     * Number of files searched ahead of the consumer, per thread.
+     */
+    private static final int FILES_AHEAD = 4;
+
+    private final byte[] literal;
+
+    private final int[] skip;
+
+    private final Pattern regex;
+
+    private final boolean skipBinary;
+
+    private final long maxFileSize;
+
+    private final int parallelism;
+
+    private ContentSearch(byte[] literal, Pattern regex, boolean skipBinary, long maxFileSize, int parallelism) {
+        super();
+        this.literal = literal;
+        this.skip = literal == null ? null : skipTable(literal);
+        this.regex = regex;
+        this.skipBinary = skipBinary;
+        this.maxFileSize = maxFileSize;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Create a search for a literal text.
+     *
+     * @param text Text to search, cannot contain a line break.
+     * @return The search.
+     */
+    public static ContentSearch literal(final String text) {
+        Objects.requireNonNull(text);
+        if (text.isEmpty() || text.indexOf('\n') >= 0) {
+            throw new IllegalArgumentException("Searched text must be a non empty single line.");
+        }
+        return new ContentSearch(text.getBytes(StandardCharsets.UTF_8), null, true, Integer.MAX_VALUE, defaultParallelism());
+    }
+
+    /**
+     * Create a search for a regular expression, matched on each line.
+     *
+     * @param regex Regular expression to search.
+     * @return The search.
+     */
+    public static ContentSearch regex(final String regex) {
+        return regex(Pattern.compile(regex));
+    }
+
+    /**
+     * Create a search for a regular expression, matched on each line.
+     *
+     * @param regex Regular expression to search.
+     * @return The search.
+     */
+    public static ContentSearch regex(final Pattern regex) {
+        Objects.requireNonNull(regex);
+        return new ContentSearch(null, regex, true, Integer.MAX_VALUE, defaultParallelism());
+    }
+
+    /**
+     * @param skip True to skip the binary files, false to search them too.
+     * @return A copy of this search with the binary files option changed.
+     */
+    public ContentSearch withBinaryFilesSkipped(final boolean skip) {
+        return new ContentSearch(this.literal, this.regex, skip, this.maxFileSize, this.parallelism);
+    }
+
+    /**
+     * @param size Size in bytes above which files are skipped, at most {@link Integer#MAX_VALUE}, which is the default.
+     * @return A copy of this search with the size limit changed.
+     */
+    public ContentSearch withMaxFileSize(final long size) {
+        if (size < 0 || size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid file size limit: " + size);
+        }
+        return new ContentSearch(this.literal, this.regex, this.skipBinary, size, this.parallelism);
+    }
+
+    /**
+     * @param threads Number of files searched at the same time, one per processor by default.
+     * @return A copy of this search with the parallelism changed.
+     */
+    public ContentSearch withParallelism(final int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + threads);
+        }
+        return new ContentSearch(this.literal, this.regex, this.skipBinary, this.maxFileSize, threads);
+    }
+
+    /**
+     * Search all the files in a directory tree, or a single file.
+     * Files are sorted by path, and matches are provided in file order, then in position order.
+     * Files are searched ahead of the stream consumption by background threads, released when the stream is
+     * fully consumed or closed, the stream should be used in a try with resources block if it may not be consumed
+     * entirely.
+     * Files that cannot be read are skipped.
+     *
+     * @param root Directory or file to search.
+     * @return The matches.
+     */
+    public Stream<SearchMatch> search(final Path root) {
+        Objects.requireNonNull(root);
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(root)) {
+            files = walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        } catch (IOException | UncheckedIOException e) {
+            throw new IllegalStateException("Cannot list files in " + root, e);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(this.parallelism, r -> {
+            Thread t = new Thread(r, "content-search");
+            t.setDaemon(true);
+            return t;
+        });
+        Iterator<List<SearchMatch>> results = new Iterator<>() {
+
+            private final List<CompletableFuture<List<SearchMatch>>> futures = new ArrayList<>();
+
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                if (this.next < files.size()) {
+                    return true;
+                }
+                executor.shutdown();
+                return false;
+            }
+
+            @Override
+            public List<SearchMatch> next() {
+                if (!this.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int ahead = Math.min(files.size(), this.next + 1 + parallelism * FILES_AHEAD);
+                while (this.futures.size() < ahead) {
+                    Path file = files.get(this.futures.size());
+                    this.futures.add(CompletableFuture.supplyAsync(() -> searchFile(file), executor));
+                }
+                CompletableFuture<List<SearchMatch>> future = this.futures.set(this.next, null);
+                this.next++;
+                try {
+                    return future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while searching " + root, e);
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Error while searching " + root, e.getCause());
+                }
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(results, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .flatMap(List::stream)
+                .onClose(executor::shutdownNow);
+    }
+
+    /**
+     * Search a file.
+     *
+     * @param file File to search.
+     * @return The matches in the file, empty if the file is skipped or cannot be read.
+     */
+    List<SearchMatch> searchFile(final Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0 || size > this.maxFileSize) {
+                return List.of();
+            }
+            if (size > MAP_THRESHOLD) {
+                return this.search(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+            }
+            try (PooledBuffer pooled = BufferPool.getDefault().lease((int) size)) {
+                ByteBuffer content = pooled.buffer();
+                content.limit((int) size);
+                while (content.hasRemaining() && channel.read(content) >= 0) {
+                    // Read until the buffer is full.
+                }
+                content.flip();
+                return this.search(file, content);
+            }
+        } catch (IOException e) {
+            LOGGER.log(System.Logger.Level.WARNING, "Cannot search " + file, e);
+            return List.of();
+        }
+    }
+
+    /**
+     * Search a file content, the matches do not refer to the content once returned.
+     *
+     * @param file File the content comes from.
+     * @param content File content, from position 0 to the limit.
+     * @return The matches in the content, empty if the content is binary and binary files are skipped.
+     */
+    private List<SearchMatch> search(final Path file, final ByteBuffer content) {
+        if (this.skipBinary && isBinary(content)) {
+            return List.of();
+        }
+        return this.literal == null ? this.searchRegex(file, content) : this.searchLiteral(file, content);
+    }
+
+    private List<SearchMatch> searchLiteral(final Path file, final ByteBuffer content) {
+        List<SearchMatch> result = new ArrayList<>();
+        int limit = content.limit();
+        int m = this.literal.length;
+        long lineNumber = 1;
+        int lineStart = 0;
+        int counted = 0;
+        int i = 0;
+        while (i <= limit - m) {
+            int j = m - 1;
+            while (j >= 0 && content.get(i + j) == this.literal[j]) {
+                j--;
+            }
+            if (j >= 0) {
+                i += this.skip[content.get(i + m - 1) & 0xFF];
+                continue;
+            }
+            for (; counted < i; counted++) {
+                if (content.get(counted) == '\n') {
+                    lineNumber++;
+                    lineStart = counted + 1;
+                }
+            }
+            result.add(new SearchMatch(file, i, lineNumber, line(content, lineStart, lineEnd(content, i + m))));
+            i += m;
+        }
+        return result;
+    }
+
+    private List<SearchMatch> searchRegex(final Path file, final ByteBuffer content) {
+        List<SearchMatch> result = new ArrayList<>();
+        int limit = content.limit();
+        long lineNumber = 1;
+        int start = 0;
+        while (start < limit) {
+            int end = lineEnd(content, start);
+            String line = line(content, start, end);
+            Matcher matcher = this.regex.matcher(line);
+            while (matcher.find()) {
+                long offset = start + line.substring(0, matcher.start()).getBytes(StandardCharsets.UTF_8).length;
+                result.add(new SearchMatch(file, offset, lineNumber, line));
+            }
+            lineNumber++;
+            start = end + 1;
+        }
+        return result;
+    }
+
+    /**
+     * @return The position of the line feed ending the line containing the position, or the content end.
+     */
+    private static int lineEnd(final ByteBuffer content, final int position) {
+        int limit = content.limit();
+        int end = position;
+        while (end < limit && content.get(end) != '\n') {
+            end++;
+        }
+        return end;
+    }
+
+    /**
+     * Decode a line, without its carriage return.
+     */
+    private static String line(final ByteBuffer content, final int start, final int end) {
+        int to = end > start && content.get(end - 1) == '\r' ? end - 1 : end;
+        byte[] bytes = new byte[to - start];
+        ByteBuffer view = content.duplicate();
+        view.position(start);
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static boolean isBinary(final ByteBuffer content) {
+        int end = Math.min(content.limit(), BINARY_CHECK_SIZE);
+        for (int i = 0; i < end; i++) {
+            if (content.get(i) == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Build the Horspool shift table: for each byte value, the distance to shift when it ends the compared window.
+     */
+    private static int[] skipTable(final byte[] pattern) {
+        int[] table = new int[256];
+        Arrays.fill(table, pattern.length);
+        for (int i = 0; i < pattern.length - 1; i++) {
+            table[pattern[i] & 0xFF] = pattern.length - 1 - i;
+        }
+        return table;
+    }
+
+    private static int defaultParallelism() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+}
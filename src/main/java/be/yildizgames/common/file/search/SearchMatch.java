@@ -0,0 +1,83 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file.search;
+
+import java.nio.file.Path;
+
+/**
+ * Occurrence of a searched pattern in a file.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class SearchMatch {
+
+    private final Path file;
+
+    private final long offset;
+
+    private final long lineNumber;
+
+    private final String line;
+
+    SearchMatch(Path file, long offset, long lineNumber, String line) {
+        super();
+        this.file = file;
+        this.offset = offset;
+        this.lineNumber = lineNumber;
+        this.line = line;
+    }
+
+    /**
+     * @return The file containing the match.
+     */
+    public Path getFile() {
+        return this.file;
+    }
+
+    /**
+     * @return The position of the match first byte in the file.
+     */
+    public long getOffset() {
+        return this.offset;
+    }
+
+    /**
+     * @return The number of the line containing the match, starting at 1.
+     */
+    public long getLineNumber() {
+        return this.lineNumber;
+    }
+
+    /**
+     * @return The line containing the match, without its line terminator.
+     */
+    public String getLine() {
+        return this.line;
+    }
+
+    @Override
+    public String toString() {
+        return this.file + ":" + this.lineNumber + ": " + this.line;
+    }
+}
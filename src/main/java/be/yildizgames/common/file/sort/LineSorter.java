@@ -0,0 +1,382 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file.sort;
+
+import be.yildizgames.common.file.ResourceUtil;
+import be.yildizgames.common.file.metrics.FileMetrics;
+import be.yildizgames.common.file.metrics.FileOperation;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Sort the lines of a file without loading the whole file in memory.
+ * The file is read in chunks fitting the memory budget, each chunk is sorted by a worker thread and written to a
+ * temporary run file, the runs are then merged, many passes being done if there are too many runs to merge at once.
+ * The temporary files are created next to the target file, and the target is replaced atomically once sorted, so the
+ * source and the target can be the same file.
+ * Files are read and written in UTF-8, the lines of the sorted file are separated by '\n', as
+ * {@link be.yildizgames.common.file.ResourceUtil#writeAllLines(Path, List)} does.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class LineSorter {
+
+    /**
+     * Default memory budget, 64Mb.
+     */
+    public static final long DEFAULT_MEMORY_BUDGET = 64L * 1024L * 1024L;
+
+    private static final System.Logger LOGGER = System.getLogger(LineSorter.class.getName());
+
+    /**
+     * Maximum number of runs merged at once.
+     */
+    private static final int MAX_FAN_IN = 128;
+
+    private static final int MIN_BUFFER_SIZE = 8 * 1024;
+
+    private static final int MAX_BUFFER_SIZE = 1024 * 1024;
+
+    /**
+     * Estimated memory used by a line, in addition to its characters: string and array headers, list reference.
+     */
+    private static final int LINE_OVERHEAD = 64;
+
+    private final Comparator<String> comparator;
+
+    private final long memoryBudget;
+
+    private final int parallelism;
+
+    private final boolean distinct;
+
+    private LineSorter(Comparator<String> comparator, long memoryBudget, int parallelism, boolean distinct) {
+        super();
+        this.comparator = comparator;
+        this.memoryBudget = memoryBudget;
+        this.parallelism = parallelism;
+        this.distinct = distinct;
+    }
+
+    /**
+     * Create a sorter using the natural string order, the default memory budget and one thread per processor,
+     * keeping duplicated lines.
+     *
+     * @return The created sorter.
+     */
+    public static LineSorter create() {
+        return create(Comparator.naturalOrder(), DEFAULT_MEMORY_BUDGET, Runtime.getRuntime().availableProcessors(), false);
+    }
+
+    /**
+     * Create a sorter.
+     *
+     * @param comparator Line order, lines considered equal keep their order from the source file.
+     * @param memoryBudget Approximate maximum memory used to hold lines, in bytes.
+     * @param parallelism Number of chunks sorted at the same time.
+     * @param distinct True to keep only the first of the lines considered equal by the comparator.
+     * @return The created sorter.
+     */
+    public static LineSorter create(final Comparator<String> comparator, final long memoryBudget, final int parallelism, final boolean distinct) {
+        Objects.requireNonNull(comparator);
+        if (memoryBudget <= 0) {
+            throw new IllegalArgumentException("Memory budget must be positive: " + memoryBudget);
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        return new LineSorter(comparator, memoryBudget, parallelism, distinct);
+    }
+
+    /**
+     * Sort a file.
+     *
+     * @param source File to sort.
+     * @param target File to write the sorted lines to, replaced if it exists, can be the source file.
+     * @return The number of lines in the sorted file.
+     */
+    public long sort(final Path source, final Path target) {
+        Objects.requireNonNull(source);
+        Objects.requireNonNull(target);
+        long start = FileMetrics.start();
+        Path work = null;
+        try {
+            Path parent = target.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            work = Files.createTempDirectory(parent, ".sort");
+            long lines = this.sort(source, target, work);
+            FileMetrics.success(FileOperation.SORT, source, FileMetrics.isEnabled() ? Files.size(target) : 0, start);
+            return lines;
+        } catch (IOException e) {
+            FileMetrics.error(FileOperation.SORT, source, start, e);
+            throw new IllegalStateException("Cannot sort " + source + " to " + target, e);
+        } finally {
+            if (work != null) {
+                deleteQuietly(work);
+            }
+        }
+    }
+
+    private long sort(final Path source, final Path target, final Path work) throws IOException {
+        List<Run> runs = this.createRuns(source, work);
+        Run result;
+        if (runs.isEmpty()) {
+            result = new Run(Files.createFile(work.resolve("empty")), 0);
+        } else {
+            int pass = 0;
+            while (runs.size() > 1) {
+                List<Run> merged = new ArrayList<>();
+                boolean last = runs.size() <= MAX_FAN_IN;
+                for (int i = 0; i < runs.size(); i += MAX_FAN_IN) {
+                    List<Run> group = runs.subList(i, Math.min(runs.size(), i + MAX_FAN_IN));
+                    merged.add(this.merge(group, work.resolve("merge-" + pass + "-" + merged.size()), last));
+                }
+                runs = merged;
+                pass++;
+            }
+            result = runs.get(0);
+        }
+        Files.move(result.file, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return result.lines;
+    }
+
+    /**
+     * Read the source by chunks fitting the memory budget, and write each chunk sorted in a run file.
+     * Lines are terminated by '\n' in the runs, so an empty last line is kept when the run is read back, except if
+     * the whole source fits in a single run, which is then written in the target format.
+     *
+     * @param source File to sort.
+     * @param work Directory for the run files.
+     * @return The runs, in the source order.
+     * @throws IOException If a file cannot be read or written.
+     */
+    private List<Run> createRuns(final Path source, final Path work) throws IOException {
+        // One chunk being read while the others are sorted.
+        long chunkBudget = Math.max(1, this.memoryBudget / (this.parallelism + 1));
+        Semaphore slots = new Semaphore(this.parallelism);
+        List<Future<Run>> futures = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(this.parallelism, r -> {
+            Thread t = new Thread(r, "line-sorter");
+            t.setDaemon(true);
+            return t;
+        });
+        try (BufferedReader reader = newReader(source, MAX_BUFFER_SIZE)) {
+            List<String> chunk = new ArrayList<>();
+            long used = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                // A full chunk is only submitted once another line follows, so the last chunk is known to be the only one.
+                if (used >= chunkBudget) {
+                    futures.add(this.submit(executor, slots, chunk, work.resolve("run-" + futures.size()), false));
+                    chunk = new ArrayList<>();
+                    used = 0;
+                }
+                chunk.add(line);
+                used += LINE_OVERHEAD + 2L * line.length();
+            }
+            if (!chunk.isEmpty()) {
+                futures.add(this.submit(executor, slots, chunk, work.resolve("run-" + futures.size()), futures.isEmpty()));
+            }
+            List<Run> runs = new ArrayList<>(futures.size());
+            for (Future<Run> future : futures) {
+                runs.add(future.get());
+            }
+            return runs;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while sorting " + source);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Future<Run> submit(final ExecutorService executor, final Semaphore slots, final List<String> chunk, final Path file, final boolean target) throws InterruptedException {
+        slots.acquire();
+        return executor.submit(() -> {
+            try {
+                chunk.sort(this.comparator);
+                long count = 0;
+                try (BufferedWriter writer = newWriter(file, MAX_BUFFER_SIZE)) {
+                    String last = null;
+                    for (String line : chunk) {
+                        if (this.distinct && last != null && this.comparator.compare(line, last) == 0) {
+                            continue;
+                        }
+                        writeLine(writer, line, last == null, target);
+                        last = line;
+                        count++;
+                    }
+                }
+                return new Run(file, count);
+            } finally {
+                slots.release();
+            }
+        });
+    }
+
+    /**
+     * Merge sorted runs, the runs files are deleted once merged.
+     *
+     * @param runs Runs to merge, in the source order.
+     * @param file File to write the merged lines to.
+     * @param target True for the last merge, writing the lines in the target format.
+     * @return The merged run.
+     * @throws IOException If a file cannot be read or written.
+     */
+    private Run merge(final List<Run> runs, final Path file, final boolean target) throws IOException {
+        if (runs.size() == 1) {
+            return runs.get(0);
+        }
+        int bufferSize = (int) Math.max(MIN_BUFFER_SIZE, Math.min(MAX_BUFFER_SIZE, this.memoryBudget / (runs.size() + 1)));
+        // Equal lines are taken from the earliest run to keep the source order.
+        PriorityQueue<Cursor> queue = new PriorityQueue<>(runs.size(), (a, b) -> {
+            int result = this.comparator.compare(a.line, b.line);
+            return result != 0 ? result : Integer.compare(a.index, b.index);
+        });
+        List<BufferedReader> readers = new ArrayList<>(runs.size());
+        long count = 0;
+        try (BufferedWriter writer = newWriter(file, bufferSize)) {
+            for (int i = 0; i < runs.size(); i++) {
+                BufferedReader reader = newReader(runs.get(i).file, bufferSize);
+                readers.add(reader);
+                String first = reader.readLine();
+                if (first != null) {
+                    queue.add(new Cursor(i, first, reader));
+                }
+            }
+            String last = null;
+            while (!queue.isEmpty()) {
+                Cursor cursor = queue.poll();
+                if (!this.distinct || last == null || this.comparator.compare(cursor.line, last) != 0) {
+                    writeLine(writer, cursor.line, last == null, target);
+                    last = cursor.line;
+                    count++;
+                }
+                cursor.line = cursor.reader.readLine();
+                if (cursor.line != null) {
+                    queue.add(cursor);
+                }
+            }
+        } finally {
+            for (BufferedReader reader : readers) {
+                reader.close();
+            }
+        }
+        for (Run run : runs) {
+            Files.delete(run.file);
+        }
+        return new Run(file, count);
+    }
+
+    /**
+     * Write a line, terminated by '\n' in the runs, or preceded by '\n' if not first in the target, as
+     * {@link be.yildizgames.common.file.ResourceUtil#writeAllLines(Path, List)} does.
+     */
+    private static void writeLine(final BufferedWriter writer, final String line, final boolean first, final boolean target) throws IOException {
+        if (target) {
+            if (!first) {
+                writer.write('\n');
+            }
+            writer.write(line);
+        } else {
+            writer.write(line);
+            writer.write('\n');
+        }
+    }
+
+    private static BufferedReader newReader(final Path file, final int bufferSize) throws IOException {
+        return new BufferedReader(new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8), bufferSize);
+    }
+
+    private static BufferedWriter newWriter(final Path file, final int bufferSize) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file), StandardCharsets.UTF_8), bufferSize);
+    }
+
+    private static void deleteQuietly(final Path directory) {
+        try {
+            ResourceUtil.deleteDirectoryTree(directory);
+        } catch (IllegalStateException e) {
+            LOGGER.log(System.Logger.Level.WARNING, "Cannot delete temporary sort files in " + directory, e);
+        }
+    }
+
+    /**
+     * Sorted file and its number of lines.
+     */
+    private static final class Run {
+
+        private final Path file;
+
+        private final long lines;
+
+        private Run(Path file, long lines) {
+            super();
+            this.file = file;
+            this.lines = lines;
+        }
+    }
+
+    /**
+     * Current line of a run being merged.
+     */
+    private static final class Cursor {
+
+        private final int index;
+
+        private final BufferedReader reader;
+
+        private String line;
+
+        private Cursor(int index, String line, BufferedReader reader) {
+            super();
+            this.index = index;
+            this.line = line;
+            this.reader = reader;
+        }
+    }
+}
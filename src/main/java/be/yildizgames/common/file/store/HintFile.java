@@ -0,0 +1,139 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file.store;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keys and positions of the records of a segment, without the values, to rebuild the index without reading the
+ * whole segment.
+ * Layout: magic (4 bytes), size of the segment when the hint was written (8 bytes), entry count (4 bytes), then for
+ * each record: type (1 byte), key length (4 bytes), key, offset (8 bytes), value length (4 bytes).
+ *
+ * @author Grégory Van den Borre
+ */
+final class HintFile implements RecordVisitor {
+
+    private static final int MAGIC = 0x594B5648;
+
+    private final List<Entry> entries = new ArrayList<>();
+
+    HintFile() {
+        super();
+    }
+
+    @Override
+    public void visit(final byte type, final String key, final long offset, final int keyLength, final int valueLength) {
+        this.entries.add(new Entry(type, key, offset, keyLength, valueLength));
+    }
+
+    /**
+     * Write the hint file, replacing the previous one atomically.
+     *
+     * @param file Hint file.
+     * @param segmentSize Size of the segment described by the hint.
+     * @throws IOException If the file cannot be written.
+     */
+    void write(final Path file, final long segmentSize) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeLong(segmentSize);
+            out.writeInt(this.entries.size());
+            for (Entry e : this.entries) {
+                byte[] key = e.key.getBytes(StandardCharsets.UTF_8);
+                out.writeByte(e.type);
+                out.writeInt(key.length);
+                out.write(key);
+                out.writeLong(e.offset);
+                out.writeInt(e.valueLength);
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Read a hint file.
+     *
+     * @param file Hint file.
+     * @param segmentSize Current size of the segment, the hint is ignored if it was written for another size.
+     * @param visitor Receive the records.
+     * @return True if the hint was read, false if it is missing, stale or invalid, in which case the visitor was not called.
+     * @throws IOException If the visitor failed.
+     */
+    static boolean read(final Path file, final long segmentSize, final RecordVisitor visitor) throws IOException {
+        HintFile hint = new HintFile();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readLong() != segmentSize) {
+                return false;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                byte type = in.readByte();
+                byte[] key = new byte[in.readInt()];
+                in.readFully(key);
+                hint.visit(type, new String(key, StandardCharsets.UTF_8), in.readLong(), key.length, in.readInt());
+            }
+        } catch (IOException | RuntimeException e) {
+            // Missing or damaged hint, the segment will be read instead.
+            return false;
+        }
+        for (Entry e : hint.entries) {
+            visitor.visit(e.type, e.key, e.offset, e.keyLength, e.valueLength);
+        }
+        return true;
+    }
+
+    private static final class Entry {
+
+        private final byte type;
+
+        private final String key;
+
+        private final long offset;
+
+        private final int keyLength;
+
+        private final int valueLength;
+
+        private Entry(byte type, String key, long offset, int keyLength, int valueLength) {
+            super();
+            this.type = type;
+            this.key = key;
+            this.offset = offset;
+            this.keyLength = keyLength;
+            this.valueLength = valueLength;
+        }
+    }
+}
@@ -0,0 +1,569 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file.store;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Embedded key value store, persisting each update by appending a record to a segment file instead of rewriting
+ * the whole content.
+ * The position of the last record of each key is kept in an in-memory index, rebuilt when the store is opened from
+ * the hint files written next to the full segments, or from the segments themselves.
+ * When a segment reaches its maximum size, a new one is started, and when more than half of the stored bytes are
+ * overwritten or removed values, the full segments are compacted in the background, keeping only the live records.
+ * The store is thread safe, but must be opened by a single process at a time.
+ *
+ * @param <V> Value type.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class KeyValueStore<V> implements Closeable {
+
+    /**
+     * Default maximum segment size, 64Mb.
+     */
+    public static final long DEFAULT_SEGMENT_SIZE = 64L * 1024L * 1024L;
+
+    private static final System.Logger LOGGER = System.getLogger(KeyValueStore.class.getName());
+
+    private final Path directory;
+
+    private final ValueCodec<V> codec;
+
+    private final long maxSegmentSize;
+
+    /**
+     * Position of the last record of each live key.
+     */
+    private final Map<String, Location> index = new HashMap<>();
+
+    /**
+     * All segments by id, the last one being the active segment.
+     */
+    private final NavigableMap<Integer, Segment> segments = new TreeMap<>();
+
+    /**
+     * Read lock for the reads, write lock for the index and segments updates.
+     */
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Held while compacting, only one compaction runs at a time.
+     */
+    private final ReentrantLock compactionLock = new ReentrantLock();
+
+    private final ExecutorService compactor;
+
+    /**
+     * Segment receiving the new records.
+     */
+    private Segment active;
+
+    /**
+     * Records of the active segment, written as hint file when the segment is full.
+     */
+    private HintFile activeHint;
+
+    private int nextId;
+
+    /**
+     * Size of the records referenced by the index.
+     */
+    private long liveBytes;
+
+    private boolean closed;
+
+    private KeyValueStore(Path directory, ValueCodec<V> codec, long maxSegmentSize) {
+        super();
+        this.directory = directory;
+        this.codec = codec;
+        this.maxSegmentSize = maxSegmentSize;
+        this.compactor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "key-value-store-compaction");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Open a store with the default segment size, creating it if it does not exist.
+     *
+     * @param directory Directory containing the store files.
+     * @param codec Convert the values to and from bytes.
+     * @param <V> Value type.
+     * @return The opened store.
+     */
+    public static <V> KeyValueStore<V> open(final Path directory, final ValueCodec<V> codec) {
+        return open(directory, codec, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Open a store, creating it if it does not exist.
+     *
+     * @param directory Directory containing the store files.
+     * @param codec Convert the values to and from bytes.
+     * @param maxSegmentSize Size in bytes after which a new segment is started.
+     * @param <V> Value type.
+     * @return The opened store.
+     */
+    public static <V> KeyValueStore<V> open(final Path directory, final ValueCodec<V> codec, final long maxSegmentSize) {
+        Objects.requireNonNull(directory);
+        Objects.requireNonNull(codec);
+        if (maxSegmentSize <= 0) {
+            throw new IllegalArgumentException("Segment size must be positive: " + maxSegmentSize);
+        }
+        KeyValueStore<V> store = new KeyValueStore<>(directory, codec, maxSegmentSize);
+        try {
+            store.load();
+        } catch (IOException e) {
+            store.closeSegments();
+            store.compactor.shutdown();
+            throw new IllegalStateException("Cannot open key value store " + directory, e);
+        }
+        return store;
+    }
+
+    /**
+     * Add or replace a value.
+     *
+     * @param key Value key.
+     * @param value Value to store.
+     */
+    public void put(final String key, final V value) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+        this.append(Record.PUT, key, this.codec.encode(value));
+    }
+
+    /**
+     * Retrieve a value.
+     *
+     * @param key Value key.
+     * @return The value, empty if the key is not in the store.
+     */
+    public Optional<V> get(final String key) {
+        byte[] data;
+        this.lock.readLock().lock();
+        try {
+            this.ensureOpen();
+            Location location = this.index.get(key);
+            if (location == null) {
+                return Optional.empty();
+            }
+            data = this.segments.get(location.segment).read(location.valuePosition(), location.valueLength);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read " + key + " from key value store " + this.directory, e);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+        return Optional.of(this.codec.decode(data));
+    }
+
+    /**
+     * Remove a value.
+     *
+     * @param key Value key.
+     * @return True if the key was in the store.
+     */
+    public boolean remove(final String key) {
+        Objects.requireNonNull(key);
+        this.lock.writeLock().lock();
+        try {
+            this.ensureOpen();
+            if (!this.index.containsKey(key)) {
+                return false;
+            }
+            this.append(Record.DELETE, key, new byte[0]);
+            return true;
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param key Key to check.
+     * @return True if the store contains a value for that key.
+     */
+    public boolean contains(final String key) {
+        this.lock.readLock().lock();
+        try {
+            return this.index.containsKey(key);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return The number of keys in the store.
+     */
+    public int size() {
+        this.lock.readLock().lock();
+        try {
+            return this.index.size();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return A copy of the keys in the store.
+     */
+    public Set<String> keys() {
+        this.lock.readLock().lock();
+        try {
+            return Set.copyOf(this.index.keySet());
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Write the records to the storage device, without this call, the latest records can be lost if the system
+     * crashes, in which case the store is reopened in its last consistent state.
+     */
+    public void flush() {
+        this.lock.readLock().lock();
+        try {
+            this.ensureOpen();
+            this.active.force();
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot flush key value store " + this.directory, e);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rewrite the live records of the full segments in a new segment and delete them, the store remains usable
+     * while compacting.
+     */
+    public void compact() {
+        this.compactionLock.lock();
+        try {
+            this.compactSegments();
+        } finally {
+            this.compactionLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        this.compactor.shutdown();
+        this.compactionLock.lock();
+        this.lock.writeLock().lock();
+        try {
+            if (this.closed) {
+                return;
+            }
+            this.closed = true;
+            this.active.force();
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot flush key value store " + this.directory, e);
+        } finally {
+            this.closeSegments();
+            this.lock.writeLock().unlock();
+            this.compactionLock.unlock();
+        }
+    }
+
+    /**
+     * @return The number of segment files.
+     */
+    int getSegmentCount() {
+        this.lock.readLock().lock();
+        try {
+            return this.segments.size();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return The size of the records not referenced by the index anymore.
+     */
+    long getDeadBytes() {
+        this.lock.readLock().lock();
+        try {
+            long total = 0;
+            for (Segment s : this.segments.values()) {
+                total += s.getSize();
+            }
+            return total - this.liveBytes;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    private void load() throws IOException {
+        Files.createDirectories(this.directory);
+        List<Integer> ids;
+        try (Stream<Path> files = Files.list(this.directory)) {
+            ids = files.map(Segment::parseId).filter(id -> id >= 0).sorted().collect(Collectors.toList());
+        }
+        for (int i = 0; i < ids.size(); i++) {
+            Segment segment = Segment.open(this.directory, ids.get(i));
+            this.segments.put(segment.getId(), segment);
+            this.loadSegment(segment, i == ids.size() - 1);
+        }
+        if (this.segments.isEmpty()) {
+            this.active = Segment.open(this.directory, 0);
+            this.segments.put(0, this.active);
+            this.activeHint = new HintFile();
+        } else {
+            this.active = this.segments.lastEntry().getValue();
+        }
+        this.nextId = this.active.getId() + 1;
+        if (this.active.getSize() >= this.maxSegmentSize) {
+            this.roll();
+        }
+    }
+
+    /**
+     * Add the records of a segment to the index, from its hint file if it is valid.
+     *
+     * @param segment Segment to read.
+     * @param last True for the active segment, which has no hint file yet.
+     * @throws IOException If the segment cannot be read.
+     */
+    private void loadSegment(final Segment segment, final boolean last) throws IOException {
+        int id = segment.getId();
+        if (!last && HintFile.read(segment.getHint(), segment.getSize(), (type, key, offset, kl, vl) -> this.index(id, type, key, offset, kl, vl))) {
+            return;
+        }
+        HintFile hint = new HintFile();
+        long end = Record.scan(segment.getFile(), (type, key, offset, kl, vl) -> {
+            this.index(id, type, key, offset, kl, vl);
+            hint.visit(type, key, offset, kl, vl);
+        });
+        if (end < segment.getSize()) {
+            LOGGER.log(System.Logger.Level.WARNING, "Dropping " + (segment.getSize() - end) + " invalid bytes at the end of " + segment.getFile());
+            segment.truncate(end);
+        }
+        if (last) {
+            this.activeHint = hint;
+        } else {
+            hint.write(segment.getHint(), segment.getSize());
+        }
+    }
+
+    private void index(int segment, byte type, String key, long offset, int keyLength, int valueLength) {
+        Location previous = type == Record.PUT
+                ? this.index.put(key, new Location(segment, offset, keyLength, valueLength))
+                : this.index.remove(key);
+        if (previous != null) {
+            this.liveBytes -= previous.recordSize();
+        }
+        if (type == Record.PUT) {
+            this.liveBytes += Record.size(keyLength, valueLength);
+        }
+    }
+
+    private void append(final byte type, final String key, final byte[] value) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer record = Record.encode(type, keyBytes, value);
+        this.lock.writeLock().lock();
+        try {
+            this.ensureOpen();
+            long offset = this.active.append(record);
+            this.index(this.active.getId(), type, key, offset, keyBytes.length, value.length);
+            this.activeHint.visit(type, key, offset, keyBytes.length, value.length);
+            if (this.active.getSize() >= this.maxSegmentSize) {
+                this.roll();
+                this.compactIfNeeded();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot write " + key + " to key value store " + this.directory, e);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Write the hint of the active segment and start a new one, must be called with the write lock.
+     *
+     * @throws IOException If the files cannot be written.
+     */
+    private void roll() throws IOException {
+        this.activeHint.write(this.active.getHint(), this.active.getSize());
+        this.active = Segment.open(this.directory, this.nextId);
+        this.nextId++;
+        this.segments.put(this.active.getId(), this.active);
+        this.activeHint = new HintFile();
+    }
+
+    private void compactIfNeeded() {
+        long dead = this.getDeadBytes();
+        if (dead < this.maxSegmentSize || dead < this.liveBytes) {
+            return;
+        }
+        this.compactor.execute(() -> {
+            if (!this.compactionLock.tryLock()) {
+                return;
+            }
+            try {
+                if (!this.isClosed()) {
+                    this.compactSegments();
+                }
+            } catch (IllegalStateException e) {
+                LOGGER.log(System.Logger.Level.ERROR, "Compaction failed for " + this.directory, e);
+            } finally {
+                this.compactionLock.unlock();
+            }
+        });
+    }
+
+    /**
+     * Compact the full segments, must be called with the compaction lock.
+     * The live records are copied to a new segment whose id is between the full segments and the new active one,
+     * the full segments are then deleted from the oldest, so a crash at any point leaves a consistent store.
+     */
+    private void compactSegments() {
+        int outputId;
+        List<Segment> sources;
+        this.lock.writeLock().lock();
+        try {
+            this.ensureOpen();
+            if (this.getDeadBytes() == 0) {
+                return;
+            }
+            outputId = this.nextId;
+            this.nextId++;
+            this.roll();
+            sources = new ArrayList<>(this.segments.headMap(outputId).values());
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot compact key value store " + this.directory, e);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+        Segment output = null;
+        boolean registered = false;
+        try {
+            output = Segment.open(this.directory, outputId);
+            HintFile outputHint = new HintFile();
+            List<String> keys = new ArrayList<>();
+            List<Location> moved = new ArrayList<>();
+            List<Location> copies = new ArrayList<>();
+            for (Segment source : sources) {
+                Segment target = output;
+                Record.scan(source.getFile(), (type, key, offset, kl, vl) -> {
+                    Location current = this.liveLocation(key, source.getId(), offset);
+                    if (type != Record.PUT || current == null) {
+                        return;
+                    }
+                    long position = target.append(ByteBuffer.wrap(source.read(offset, current.recordSize())));
+                    outputHint.visit(type, key, position, kl, vl);
+                    keys.add(key);
+                    moved.add(current);
+                    copies.add(new Location(outputId, position, kl, vl));
+                });
+            }
+            output.force();
+            outputHint.write(output.getHint(), output.getSize());
+            this.lock.writeLock().lock();
+            try {
+                for (int i = 0; i < keys.size(); i++) {
+                    // Keys updated while copying already point to a newer segment.
+                    if (this.index.get(keys.get(i)) == moved.get(i)) {
+                        this.index.put(keys.get(i), copies.get(i));
+                    }
+                }
+                this.segments.put(outputId, output);
+                registered = true;
+                for (Segment source : sources) {
+                    this.segments.remove(source.getId());
+                    source.delete();
+                }
+            } finally {
+                this.lock.writeLock().unlock();
+            }
+        } catch (IOException e) {
+            if (output != null && !registered) {
+                try {
+                    output.delete();
+                } catch (IOException ex) {
+                    e.addSuppressed(ex);
+                }
+            }
+            throw new IllegalStateException("Cannot compact key value store " + this.directory, e);
+        }
+    }
+
+    /**
+     * @return The index location of the key if it is the given record, null otherwise.
+     */
+    private Location liveLocation(final String key, final int segment, final long offset) {
+        this.lock.readLock().lock();
+        try {
+            Location location = this.index.get(key);
+            return location != null && location.segment == segment && location.offset == offset ? location : null;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    private boolean isClosed() {
+        this.lock.readLock().lock();
+        try {
+            return this.closed;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    private void ensureOpen() {
+        if (this.closed) {
+            throw new IllegalStateException("Key value store " + this.directory + " is closed.");
+        }
+    }
+
+    private void closeSegments() {
+        for (Segment s : this.segments.values()) {
+            try {
+                s.close();
+            } catch (IOException e) {
+                LOGGER.log(System.Logger.Level.WARNING, "Cannot close " + s.getFile(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file.store;
+
+/**
+ * Position of a record in a segment.
+ *
+ * @author Grégory Van den Borre
+ */
+final class Location {
+
+    /**
+     * Id of the segment containing the record.
+     */
+    final int segment;
+
+    /**
+     * Position of the record start in the segment.
+     */
+    final long offset;
+
+    /**
+     * Key size in bytes.
+     */
+    final int keyLength;
+
+    /**
+     * Value size in bytes.
+     */
+    final int valueLength;
+
+    Location(int segment, long offset, int keyLength, int valueLength) {
+        super();
+        this.segment = segment;
+        this.offset = offset;
+        this.keyLength = keyLength;
+        this.valueLength = valueLength;
+    }
+
+    /**
+     * @return The position of the value in the segment.
+     */
+    long valuePosition() {
+        return this.offset + Record.HEADER_SIZE + this.keyLength;
+    }
+
+    /**
+     * @return The whole record size in bytes.
+     */
+    int recordSize() {
+        return Record.size(this.keyLength, this.valueLength);
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file.store;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+
+/**
+ * Record layout in a segment: crc of the rest of the record (4 bytes), type (1 byte), key length (4 bytes),
+ * value length (4 bytes), key as UTF-8, value.
+ *
+ * @author Grégory Van den Borre
+ */
+final class Record {
+
+    /**
+     * Record adding or replacing a value.
+     */
+    static final byte PUT = 0;
+
+    /**
+     * Record removing a value, the value is empty.
+     */
+    static final byte DELETE = 1;
+
+    /**
+     * Size of the fixed part of a record.
+     */
+    static final int HEADER_SIZE = 13;
+
+    private static final int SCAN_BUFFER_SIZE = 65536;
+
+    private Record() {
+        super();
+    }
+
+    /**
+     * @param keyLength Key size in bytes.
+     * @param valueLength Value size in bytes.
+     * @return The record size in bytes.
+     */
+    static int size(final int keyLength, final int valueLength) {
+        return HEADER_SIZE + keyLength + valueLength;
+    }
+
+    /**
+     * Build a record.
+     *
+     * @param type Record type.
+     * @param key Key bytes.
+     * @param value Value bytes.
+     * @return The record, ready to be written.
+     */
+    static ByteBuffer encode(final byte type, final byte[] key, final byte[] value) {
+        ByteBuffer buffer = ByteBuffer.allocate(size(key.length, value.length));
+        buffer.position(Integer.BYTES);
+        buffer.put(type).putInt(key.length).putInt(value.length).put(key).put(value);
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), Integer.BYTES, buffer.capacity() - Integer.BYTES);
+        buffer.putInt(0, (int) crc.getValue());
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Read all the valid records of a segment file, the reading stops at the first incomplete or corrupted record.
+     *
+     * @param file Segment file.
+     * @param visitor Receive the records.
+     * @return The position following the last valid record.
+     * @throws IOException If the file cannot be read.
+     */
+    static long scan(final Path file, final RecordVisitor visitor) throws IOException {
+        long length = Files.size(file);
+        long offset = 0;
+        byte[] chunk = new byte[SCAN_BUFFER_SIZE];
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), SCAN_BUFFER_SIZE))) {
+            while (offset + HEADER_SIZE <= length) {
+                int expected = in.readInt();
+                byte type = in.readByte();
+                int keyLength = in.readInt();
+                int valueLength = in.readInt();
+                if ((type != PUT && type != DELETE) || keyLength < 0 || valueLength < 0
+                        || offset + HEADER_SIZE + keyLength + valueLength > length) {
+                    break;
+                }
+                byte[] key = new byte[keyLength];
+                in.readFully(key);
+                crc.reset();
+                crc.update(type);
+                crc.update(ByteBuffer.allocate(Integer.BYTES * 2).putInt(keyLength).putInt(valueLength).array());
+                crc.update(key);
+                updateCrc(in, crc, valueLength, chunk);
+                if ((int) crc.getValue() != expected) {
+                    break;
+                }
+                visitor.visit(type, new String(key, StandardCharsets.UTF_8), offset, keyLength, valueLength);
+                offset += size(keyLength, valueLength);
+            }
+        } catch (EOFException e) {
+            // Incomplete last record, ignored.
+        }
+        return offset;
+    }
+
+    private static void updateCrc(final InputStream in, final CRC32 crc, final int length, final byte[] chunk) throws IOException {
+        int remaining = length;
+        while (remaining > 0) {
+            int read = in.read(chunk, 0, Math.min(chunk.length, remaining));
+            if (read < 0) {
+                throw new EOFException();
+            }
+            crc.update(chunk, 0, read);
+            remaining -= read;
+        }
+    }
+}
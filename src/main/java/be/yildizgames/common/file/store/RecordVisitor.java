@@ -0,0 +1,47 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file.store;
+
+import java.io.IOException;
+
+/**
+ * Receive the records of a segment, in the order they were written.
+ *
+ * @author Grégory Van den Borre
+ */
+@FunctionalInterface
+interface RecordVisitor {
+
+    /**
+     * Called for each record.
+     *
+     * @param type Record type, {@link Record#PUT} or {@link Record#DELETE}.
+     * @param key Record key.
+     * @param offset Position of the record in the segment.
+     * @param keyLength Key size in bytes.
+     * @param valueLength Value size in bytes.
+     * @throws IOException If the record cannot be processed.
+     */
+    void visit(byte type, String key, long offset, int keyLength, int valueLength) throws IOException;
+}
@@ -0,0 +1,186 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file.store;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append only file containing records, read at random positions.
+ *
+ * @author Grégory Van den Borre
+ */
+final class Segment implements Closeable {
+
+    private static final String PREFIX = "segment-";
+
+    private static final String DATA_SUFFIX = ".data";
+
+    private static final String HINT_SUFFIX = ".hint";
+
+    private final int id;
+
+    private final Path file;
+
+    private final Path hint;
+
+    private final FileChannel channel;
+
+    private volatile long size;
+
+    private Segment(int id, Path file, Path hint, FileChannel channel, long size) {
+        super();
+        this.id = id;
+        this.file = file;
+        this.hint = hint;
+        this.channel = channel;
+        this.size = size;
+    }
+
+    /**
+     * Open a segment, creating it if it does not exist.
+     *
+     * @param directory Store directory.
+     * @param id Segment id.
+     * @return The opened segment.
+     * @throws IOException If the file cannot be opened.
+     */
+    static Segment open(final Path directory, final int id) throws IOException {
+        String name = PREFIX + String.format("%010d", id);
+        Path file = directory.resolve(name + DATA_SUFFIX);
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new Segment(id, file, directory.resolve(name + HINT_SUFFIX), channel, channel.size());
+    }
+
+    /**
+     * Extract the segment id from a file name.
+     *
+     * @param file File to check.
+     * @return The segment id, or -1 if the file is not a segment.
+     */
+    static int parseId(final Path file) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith(PREFIX) || !name.endsWith(DATA_SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(name.substring(PREFIX.length(), name.length() - DATA_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Write a record at the end of the segment.
+     *
+     * @param record Record to write.
+     * @return The position of the record in the segment.
+     * @throws IOException If the record cannot be written.
+     */
+    long append(final ByteBuffer record) throws IOException {
+        long position = this.size;
+        long current = position;
+        while (record.hasRemaining()) {
+            current += this.channel.write(record, current);
+        }
+        this.size = current;
+        return position;
+    }
+
+    /**
+     * Read bytes from the segment.
+     *
+     * @param position Position of the first byte to read.
+     * @param length Number of bytes to read.
+     * @return The read bytes.
+     * @throws IOException If the bytes cannot be read.
+     */
+    byte[] read(final long position, final int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (this.channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Unexpected end of " + this.file);
+            }
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Remove the bytes after a position, used to drop an incomplete last record.
+     *
+     * @param length New segment size.
+     * @throws IOException If the file cannot be truncated.
+     */
+    void truncate(final long length) throws IOException {
+        this.channel.truncate(length);
+        this.size = length;
+    }
+
+    /**
+     * Write the segment content to the storage device.
+     *
+     * @throws IOException If the content cannot be written.
+     */
+    void force() throws IOException {
+        this.channel.force(false);
+    }
+
+    /**
+     * Close and delete the segment and its hint.
+     *
+     * @throws IOException If the files cannot be deleted.
+     */
+    void delete() throws IOException {
+        this.close();
+        Files.deleteIfExists(this.file);
+        Files.deleteIfExists(this.hint);
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+
+    int getId() {
+        return this.id;
+    }
+
+    Path getFile() {
+        return this.file;
+    }
+
+    Path getHint() {
+        return this.hint;
+    }
+
+    long getSize() {
+        return this.size;
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file.store;
+
+/**
+ * Convert the values of a key value store to and from bytes.
+ *
+ * @param <V> Value type.
+ *
+ * @author Grégory Van den Borre
+ */
+public interface ValueCodec<V> {
+
+    /**
+     * Convert a value to bytes.
+     *
+     * @param value Value to convert.
+     * @return The bytes representing the value.
+     */
+    byte[] encode(V value);
+
+    /**
+     * Convert bytes back to a value.
+     *
+     * @param data Bytes built with {@link #encode(Object)}.
+     * @return The value.
+     */
+    V decode(byte[] data);
+
+    /**
+     * @return A codec storing strings as UTF-8 bytes.
+     */
+    static ValueCodec<String> utf8() {
+        return Utf8Codec.INSTANCE;
+    }
+}
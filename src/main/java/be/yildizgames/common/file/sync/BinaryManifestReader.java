@@ -0,0 +1,93 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file.sync;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Read the format written by {@link BinaryManifestWriter}, the magic number is expected to be already consumed.
+ *
+ * @author Grégory Van den Borre
+ */
+final class BinaryManifestReader implements ManifestReader {
+
+    private final DataInputStream in;
+
+    /**
+     * Bytes of the previously read path, only the first pathLength bytes are used.
+     */
+    private byte[] path = new byte[256];
+
+    private int pathLength;
+
+    private boolean ended;
+
+    BinaryManifestReader(InputStream in) throws IOException {
+        super();
+        this.in = new DataInputStream(in);
+        int version = this.in.readUnsignedByte();
+        if (version != BinaryManifestWriter.VERSION) {
+            throw new IOException("Unsupported manifest version: " + version);
+        }
+    }
+
+    @Override
+    public FileEntry read() throws IOException {
+        if (this.ended) {
+            return null;
+        }
+        int marker = this.in.readUnsignedByte();
+        if (marker == BinaryManifestWriter.END) {
+            this.ended = true;
+            return null;
+        }
+        if (marker != BinaryManifestWriter.ENTRY) {
+            throw new IOException("Invalid manifest entry marker: " + marker);
+        }
+        int shared = Varint.readInt(this.in);
+        int suffix = Varint.readInt(this.in);
+        if (shared > this.pathLength) {
+            throw new IOException("Invalid shared prefix length: " + shared);
+        }
+        int length = shared + suffix;
+        if (length > this.path.length) {
+            this.path = Arrays.copyOf(this.path, Math.max(length, this.path.length * 2));
+        }
+        this.in.readFully(this.path, shared, suffix);
+        this.pathLength = length;
+        long size = Varint.read(this.in);
+        long lastModified = Varint.read(this.in) - 1;
+        long crc = this.in.readInt() & 0xFFFFFFFFL;
+        return FileEntry.of(new String(this.path, 0, length, StandardCharsets.UTF_8), size, lastModified, crc);
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.in.close();
+    }
+}
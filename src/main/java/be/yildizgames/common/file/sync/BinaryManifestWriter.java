@@ -0,0 +1,117 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file.sync;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * Binary manifest format.
+ * Header: magic number and version.
+ * Entry: marker byte, shared prefix length with the previous path, suffix length and suffix UTF-8 bytes, size,
+ * last modification time + 1 (0 meaning unknown), all as varints, followed by the crc32 on 4 bytes.
+ * End: marker byte.
+ *
+ * @author Grégory Van den Borre
+ */
+final class BinaryManifestWriter implements ManifestWriter {
+
+    /**
+     * Value identifying the binary format.
+     */
+    static final int MAGIC = 0x594D4642;
+
+    /**
+     * Format version.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * Marker preceding an entry.
+     */
+    static final int ENTRY = 1;
+
+    /**
+     * Marker for the end of the manifest.
+     */
+    static final int END = 0;
+
+    private final DataOutputStream out;
+
+    /**
+     * UTF-8 bytes of the previously written path.
+     */
+    private byte[] previous = new byte[0];
+
+    private boolean finished;
+
+    BinaryManifestWriter(OutputStream out) throws IOException {
+        super();
+        Objects.requireNonNull(out);
+        this.out = new DataOutputStream(new BufferedOutputStream(out, 64 * 1024));
+        this.out.writeInt(MAGIC);
+        this.out.writeByte(VERSION);
+    }
+
+    @Override
+    public void write(final FileEntry entry) throws IOException {
+        Objects.requireNonNull(entry);
+        byte[] path = entry.getPath().getBytes(StandardCharsets.UTF_8);
+        int max = Math.min(path.length, this.previous.length);
+        int shared = 0;
+        while (shared < max && path[shared] == this.previous[shared]) {
+            shared++;
+        }
+        this.out.writeByte(ENTRY);
+        Varint.write(this.out, shared);
+        Varint.write(this.out, path.length - shared);
+        this.out.write(path, shared, path.length - shared);
+        Varint.write(this.out, entry.getSize());
+        Varint.write(this.out, entry.getLastModified() + 1);
+        this.out.writeInt((int) entry.getCrc());
+        this.previous = path;
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (!this.finished) {
+            this.finished = true;
+            this.out.writeByte(END);
+            this.out.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            this.finish();
+        } finally {
+            this.out.close();
+        }
+    }
+}
@@ -0,0 +1,286 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file.sync;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.Objects;
+
+/**
+ * Block level delta between two versions of a file, computed with rolling checksums in the same way as rsync.
+ * The delta only contains the data not already present in the old version, and references to the blocks to reuse.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class BlockDelta {
+
+    /**
+     * Value used to identify a delta stream.
+     */
+    private static final int MAGIC = 0x5944544C;
+
+    /**
+     * Operation marking the delta end.
+     */
+    private static final int OP_END = 0;
+
+    /**
+     * Operation copying a run of consecutive blocks from the old version.
+     */
+    private static final int OP_COPY = 1;
+
+    /**
+     * Operation writing literal data.
+     */
+    private static final int OP_LITERAL = 2;
+
+    /**
+     * Minimum size of the scan buffer.
+     */
+    private static final int MIN_BUFFER_SIZE = 256 * 1024;
+
+    private BlockDelta() {
+        super();
+    }
+
+    /**
+     * Compute the delta to transform the file matching a signature into a new version.
+     *
+     * @param signature Signature of the old version.
+     * @param source New version content.
+     * @param delta Stream to write the delta to.
+     * @throws IOException If a stream cannot be read or written.
+     */
+    public static void write(final BlockSignature signature, final InputStream source, final OutputStream delta) throws IOException {
+        Objects.requireNonNull(signature);
+        Objects.requireNonNull(source);
+        Objects.requireNonNull(delta);
+        DeltaWriter out = new DeltaWriter(new DataOutputStream(new BufferedOutputStream(delta)), signature.getBlockSize());
+        int blockSize = signature.getBlockSize();
+        byte[] buffer = new byte[Math.max(blockSize * 4, MIN_BUFFER_SIZE)];
+        MessageDigest digest = BlockSignature.newDigest();
+        int end = 0;
+        int position = 0;
+        int literalStart = 0;
+        boolean eof = false;
+        RollingChecksum checksum = null;
+        while (true) {
+            if (position + blockSize >= end && !eof) {
+                out.literal(buffer, literalStart, position - literalStart);
+                System.arraycopy(buffer, position, buffer, 0, end - position);
+                end -= position;
+                position = 0;
+                literalStart = 0;
+                int read = source.readNBytes(buffer, end, buffer.length - end);
+                end += read;
+                eof = end < buffer.length;
+            }
+            int length = Math.min(blockSize, end - position);
+            if (length == 0) {
+                break;
+            }
+            if (checksum == null) {
+                checksum = RollingChecksum.of(buffer, position, length);
+            }
+            int block = signature.find(checksum.value(), buffer, position, length, digest);
+            if (block >= 0) {
+                out.literal(buffer, literalStart, position - literalStart);
+                out.copy(block);
+                position += length;
+                literalStart = position;
+                checksum = null;
+            } else if (position + length < end) {
+                checksum.roll(buffer[position], buffer[position + length], length);
+                position++;
+            } else {
+                checksum.rollOut(buffer[position], length);
+                position++;
+            }
+        }
+        out.literal(buffer, literalStart, position - literalStart);
+        out.end();
+    }
+
+    /**
+     * Rebuild a new version of a file from its old version and a delta.
+     *
+     * @param basis Old version of the file.
+     * @param delta Delta computed from the old version signature.
+     * @param target Stream to write the new version to.
+     * @throws IOException If a file or stream cannot be read or written.
+     */
+    public static void apply(final Path basis, final InputStream delta, final OutputStream target) throws IOException {
+        Objects.requireNonNull(basis);
+        Objects.requireNonNull(delta);
+        Objects.requireNonNull(target);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(delta));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Invalid delta header");
+        }
+        int blockSize = in.readInt();
+        byte[] buffer = new byte[blockSize];
+        try (FileChannel channel = FileChannel.open(basis, StandardOpenOption.READ)) {
+            while (true) {
+                int op = in.readUnsignedByte();
+                if (op == OP_END) {
+                    break;
+                } else if (op == OP_COPY) {
+                    long position = (long) in.readInt() * blockSize;
+                    long remaining = (long) in.readInt() * blockSize;
+                    while (remaining > 0) {
+                        ByteBuffer bb = ByteBuffer.wrap(buffer, 0, (int) Math.min(blockSize, remaining));
+                        int read = channel.read(bb, position);
+                        if (read <= 0) {
+                            break;
+                        }
+                        target.write(buffer, 0, read);
+                        position += read;
+                        remaining -= read;
+                    }
+                } else if (op == OP_LITERAL) {
+                    int length = in.readInt();
+                    while (length > 0) {
+                        int chunk = Math.min(length, buffer.length);
+                        in.readFully(buffer, 0, chunk);
+                        target.write(buffer, 0, chunk);
+                        length -= chunk;
+                    }
+                } else {
+                    throw new IOException("Invalid delta operation: " + op);
+                }
+            }
+        }
+        target.flush();
+    }
+
+    /**
+     * Update a file to match a new version, only the blocks not already present in the file are copied.
+     * The file is replaced once the new version is completely built.
+     *
+     * @param basis File to update.
+     * @param source New version of the file.
+     * @param blockSize Size of the blocks.
+     */
+    public static void patch(final Path basis, final Path source, final int blockSize) {
+        Objects.requireNonNull(basis);
+        Objects.requireNonNull(source);
+        BlockSignature signature = BlockSignature.compute(basis, blockSize);
+        Path directory = basis.toAbsolutePath().getParent();
+        Path delta = null;
+        Path result = null;
+        try {
+            delta = Files.createTempFile(directory, ".delta", ".tmp");
+            result = Files.createTempFile(directory, ".patch", ".tmp");
+            try (InputStream in = Files.newInputStream(source); OutputStream out = Files.newOutputStream(delta)) {
+                write(signature, in, out);
+            }
+            try (InputStream in = Files.newInputStream(delta); OutputStream out = new BufferedOutputStream(Files.newOutputStream(result))) {
+                apply(basis, in, out);
+            }
+            Files.move(result, basis, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot patch " + basis + " from " + source, e);
+        } finally {
+            deleteQuietly(delta);
+            deleteQuietly(result);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file != null) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                //Temporary file, nothing else can be done.
+            }
+        }
+    }
+
+    /**
+     * Encode the delta operations, consecutive block copies are merged in a single operation.
+     */
+    private static final class DeltaWriter {
+
+        private final DataOutputStream out;
+
+        private int runStart = -1;
+
+        private int runLength;
+
+        private DeltaWriter(DataOutputStream out, int blockSize) throws IOException {
+            super();
+            this.out = out;
+            this.out.writeInt(MAGIC);
+            this.out.writeInt(blockSize);
+        }
+
+        private void copy(int block) throws IOException {
+            if (this.runStart >= 0 && this.runStart + this.runLength == block) {
+                this.runLength++;
+                return;
+            }
+            this.flushRun();
+            this.runStart = block;
+            this.runLength = 1;
+        }
+
+        private void literal(byte[] data, int offset, int length) throws IOException {
+            if (length == 0) {
+                return;
+            }
+            this.flushRun();
+            this.out.writeByte(OP_LITERAL);
+            this.out.writeInt(length);
+            this.out.write(data, offset, length);
+        }
+
+        private void end() throws IOException {
+            this.flushRun();
+            this.out.writeByte(OP_END);
+            this.out.flush();
+        }
+
+        private void flushRun() throws IOException {
+            if (this.runStart >= 0) {
+                this.out.writeByte(OP_COPY);
+                this.out.writeInt(this.runStart);
+                this.out.writeInt(this.runLength);
+                this.runStart = -1;
+                this.runLength = 0;
+            }
+        }
+    }
+}
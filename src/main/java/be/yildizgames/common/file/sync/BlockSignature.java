@@ -0,0 +1,247 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file.sync;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Checksums of the fixed size blocks composing a file, each block has a weak rolling checksum and a strong MD5 digest.
+ * The signature of an existing file is used to express a new version of that file as a list of reused blocks and
+ * literal data.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class BlockSignature {
+
+    /**
+     * Value used to identify a serialized signature.
+     */
+    private static final int MAGIC = 0x59534947;
+
+    /**
+     * Length of a MD5 digest.
+     */
+    private static final int STRONG_LENGTH = 16;
+
+    /**
+     * Size of a block, only the last one can be smaller.
+     */
+    private final int blockSize;
+
+    /**
+     * Size of the file the signature is computed from.
+     */
+    private final long length;
+
+    /**
+     * Weak checksum of each block.
+     */
+    private final int[] weak;
+
+    /**
+     * Strong digest of each block, concatenated.
+     */
+    private final byte[] strong;
+
+    /**
+     * Blocks indexed by their weak checksum.
+     */
+    private final Map<Integer, int[]> index;
+
+    private BlockSignature(int blockSize, long length, int[] weak, byte[] strong) {
+        super();
+        this.blockSize = blockSize;
+        this.length = length;
+        this.weak = weak;
+        this.strong = strong;
+        this.index = new HashMap<>(weak.length * 2);
+        for (int i = 0; i < weak.length; i++) {
+            int[] blocks = this.index.get(weak[i]);
+            if (blocks == null) {
+                this.index.put(weak[i], new int[]{i});
+            } else {
+                int[] newBlocks = Arrays.copyOf(blocks, blocks.length + 1);
+                newBlocks[blocks.length] = i;
+                this.index.put(weak[i], newBlocks);
+            }
+        }
+    }
+
+    /**
+     * Compute the signature of a file.
+     *
+     * @param file File to compute the signature from.
+     * @param blockSize Size of the blocks.
+     * @return The computed signature.
+     */
+    public static BlockSignature compute(final Path file, final int blockSize) {
+        Objects.requireNonNull(file);
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive: " + blockSize);
+        }
+        try (InputStream is = Files.newInputStream(file)) {
+            long length = Files.size(file);
+            int count = (int) ((length + blockSize - 1) / blockSize);
+            int[] weak = new int[count];
+            byte[] strong = new byte[count * STRONG_LENGTH];
+            byte[] block = new byte[blockSize];
+            MessageDigest digest = newDigest();
+            for (int i = 0; i < count; i++) {
+                int read = is.readNBytes(block, 0, blockSize);
+                weak[i] = RollingChecksum.value(block, 0, read);
+                digest.update(block, 0, read);
+                System.arraycopy(digest.digest(), 0, strong, i * STRONG_LENGTH, STRONG_LENGTH);
+            }
+            return new BlockSignature(blockSize, length, weak, strong);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot compute signature for " + file, e);
+        }
+    }
+
+    /**
+     * Read a signature previously written with {@link #write(OutputStream)}.
+     *
+     * @param input Stream to read from.
+     * @return The read signature.
+     * @throws IOException If the stream cannot be read or does not contain a signature.
+     */
+    public static BlockSignature read(final InputStream input) throws IOException {
+        DataInputStream in = new DataInputStream(input);
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Invalid signature header");
+        }
+        int blockSize = in.readInt();
+        long length = in.readLong();
+        int count = in.readInt();
+        int[] weak = new int[count];
+        byte[] strong = new byte[count * STRONG_LENGTH];
+        for (int i = 0; i < count; i++) {
+            weak[i] = in.readInt();
+            in.readFully(strong, i * STRONG_LENGTH, STRONG_LENGTH);
+        }
+        return new BlockSignature(blockSize, length, weak, strong);
+    }
+
+    /**
+     * Write this signature, to send it to the side holding the new version of the file.
+     *
+     * @param output Stream to write to.
+     * @throws IOException If the stream cannot be written.
+     */
+    public void write(final OutputStream output) throws IOException {
+        DataOutputStream out = new DataOutputStream(output);
+        out.writeInt(MAGIC);
+        out.writeInt(this.blockSize);
+        out.writeLong(this.length);
+        out.writeInt(this.weak.length);
+        for (int i = 0; i < this.weak.length; i++) {
+            out.writeInt(this.weak[i]);
+            out.write(this.strong, i * STRONG_LENGTH, STRONG_LENGTH);
+        }
+        out.flush();
+    }
+
+    /**
+     * @return The size of a block.
+     */
+    public int getBlockSize() {
+        return this.blockSize;
+    }
+
+    /**
+     * @return The size of the file the signature is computed from.
+     */
+    public long getLength() {
+        return this.length;
+    }
+
+    /**
+     * @return The number of blocks.
+     */
+    public int getBlockCount() {
+        return this.weak.length;
+    }
+
+    /**
+     * Find a block matching a window of data.
+     *
+     * @param weakValue Weak checksum of the window.
+     * @param data Data containing the window.
+     * @param offset Window start.
+     * @param length Window length.
+     * @param digest Digest to use to compute the strong checksum.
+     * @return The matching block index, -1 if none match.
+     */
+    int find(final int weakValue, final byte[] data, final int offset, final int length, final MessageDigest digest) {
+        int[] candidates = this.index.get(weakValue);
+        if (candidates == null) {
+            return -1;
+        }
+        byte[] strongValue = null;
+        for (int candidate : candidates) {
+            if (this.getBlockLength(candidate) != length) {
+                continue;
+            }
+            if (strongValue == null) {
+                digest.update(data, offset, length);
+                strongValue = digest.digest();
+            }
+            int from = candidate * STRONG_LENGTH;
+            if (Arrays.equals(strongValue, 0, STRONG_LENGTH, this.strong, from, from + STRONG_LENGTH)) {
+                return candidate;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Provide the length of a block, all blocks have the block size, except the last one.
+     *
+     * @param block Block index.
+     * @return The block length.
+     */
+    int getBlockLength(final int block) {
+        return (int) Math.min(this.blockSize, this.length - (long) block * this.blockSize);
+    }
+
+    static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
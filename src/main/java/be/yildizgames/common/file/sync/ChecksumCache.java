@@ -0,0 +1,148 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file.sync;
+
+import be.yildizgames.common.file.ResourceUtil;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keep the CRC32 of files already computed, a cached value is reused as long as the file size and last
+ * modification time did not change.
+ * This class is thread safe.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class ChecksumCache {
+
+    /**
+     * Computed values, keyed by absolute normalized path.
+     */
+    private final Map<Path, CachedCrc> values = new ConcurrentHashMap<>();
+
+    private ChecksumCache() {
+        super();
+    }
+
+    /**
+     * @return A new empty cache.
+     */
+    public static ChecksumCache create() {
+        return new ChecksumCache();
+    }
+
+    /**
+     * Provide the CRC32 of a file, computing it only if the file changed since the last call.
+     *
+     * @param file File to check.
+     * @return The file CRC32.
+     */
+    public long getCrc(final Path file) {
+        Objects.requireNonNull(file);
+        try {
+            return this.getCrc(file, Files.readAttributes(file, BasicFileAttributes.class));
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot compute crc for " + file, e);
+        }
+    }
+
+    /**
+     * Provide the CRC32 of a file, computing it only if the size or modification time in the provided attributes
+     * do not match the cached ones.
+     *
+     * @param file File to check.
+     * @param attributes Attributes already read for the file.
+     * @return The file CRC32.
+     */
+    public long getCrc(final Path file, final BasicFileAttributes attributes) {
+        Objects.requireNonNull(file);
+        Objects.requireNonNull(attributes);
+        Path key = file.toAbsolutePath().normalize();
+        long size = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        CachedCrc cached = this.values.get(key);
+        if (cached != null && cached.size == size && cached.lastModified == lastModified) {
+            return cached.crc;
+        }
+        try {
+            long crc = compute(file);
+            this.values.put(key, new CachedCrc(size, lastModified, crc));
+            return crc;
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot compute crc for " + file, e);
+        }
+    }
+
+    /**
+     * Remove a file from the cache.
+     *
+     * @param file File to forget.
+     */
+    public void invalidate(final Path file) {
+        this.values.remove(file.toAbsolutePath().normalize());
+    }
+
+    /**
+     * Remove all values from the cache.
+     */
+    public void clear() {
+        this.values.clear();
+    }
+
+    /**
+     * Compute the CRC32 of a file content.
+     *
+     * @param file File to read.
+     * @return The computed value.
+     * @throws IOException If the file cannot be read.
+     */
+    static long compute(final Path file) throws IOException {
+        return ResourceUtil.computeCrc32(file);
+    }
+
+    /**
+     * CRC32 computed for a given file state.
+     */
+    private static final class CachedCrc {
+
+        private final long size;
+
+        private final long lastModified;
+
+        private final long crc;
+
+        private CachedCrc(long size, long lastModified, long crc) {
+            super();
+            this.size = size;
+            this.lastModified = lastModified;
+            this.crc = crc;
+        }
+    }
+}
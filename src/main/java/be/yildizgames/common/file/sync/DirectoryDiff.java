@@ -0,0 +1,229 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file.sync;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Differences between a local tree and a reference state, the reference being another directory or a manifest.
+ * Files are first compared on their size, then on their last modification time when both sides provide it,
+ * and finally on their CRC32, read from the manifest or computed through a checksum cache.
+ * All paths are relative to the tree roots and use '/' as separator.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class DirectoryDiff {
+
+    /**
+     * Files present in the reference but not in the local tree.
+     */
+    private final List<String> added;
+
+    /**
+     * Files present in the local tree but not in the reference.
+     */
+    private final List<String> removed;
+
+    /**
+     * Files present on both sides with a different content.
+     */
+    private final List<String> changed;
+
+    private DirectoryDiff(List<String> added, List<String> removed, List<String> changed) {
+        super();
+        Collections.sort(added);
+        Collections.sort(removed);
+        Collections.sort(changed);
+        this.added = Collections.unmodifiableList(added);
+        this.removed = Collections.unmodifiableList(removed);
+        this.changed = Collections.unmodifiableList(changed);
+    }
+
+    /**
+     * Compare a local directory with a reference directory.
+     *
+     * @param local Local directory, to be updated.
+     * @param reference Directory containing the expected state.
+     * @param cache Cache used to retrieve the checksums.
+     * @return The differences between the two directories.
+     */
+    public static DirectoryDiff compare(final Path local, final Path reference, final ChecksumCache cache) {
+        Objects.requireNonNull(local);
+        Objects.requireNonNull(reference);
+        Objects.requireNonNull(cache);
+        return compare(local, scan(local), reference, scan(reference), cache);
+    }
+
+    /**
+     * Compare a local directory with a manifest made of values produced by
+     * {@link be.yildizgames.common.file.FileResource#toString()}.
+     * Manifest entries without crc (0 value) are only compared on their size.
+     *
+     * @param local Local directory, to be updated.
+     * @param manifest Values formatted as name_crc_size.
+     * @param manifestRoot Root the manifest names are relative to.
+     * @param cache Cache used to retrieve the local checksums.
+     * @return The differences between the directory and the manifest.
+     */
+    public static DirectoryDiff compare(final Path local, final Collection<String> manifest, final Path manifestRoot, final ChecksumCache cache) {
+        Objects.requireNonNull(manifest);
+        Objects.requireNonNull(manifestRoot);
+        List<FileEntry> entries = new ArrayList<>(manifest.size());
+        for (String value : manifest) {
+            entries.add(FileEntry.fromResourceString(value, manifestRoot));
+        }
+        return compare(local, entries, cache);
+    }
+
+    /**
+     * Compare a local directory with a list of expected entries.
+     *
+     * @param local Local directory, to be updated.
+     * @param expected Expected entries.
+     * @param cache Cache used to retrieve the local checksums.
+     * @return The differences between the directory and the expected entries.
+     */
+    public static DirectoryDiff compare(final Path local, final Collection<FileEntry> expected, final ChecksumCache cache) {
+        Objects.requireNonNull(local);
+        Objects.requireNonNull(expected);
+        Objects.requireNonNull(cache);
+        Map<String, FileEntry> reference = new HashMap<>(expected.size() * 2);
+        for (FileEntry e : expected) {
+            reference.put(e.getPath(), e);
+        }
+        return compare(local, scan(local), null, reference, cache);
+    }
+
+    /**
+     * @return The files only present in the reference, sorted.
+     */
+    public List<String> getAdded() {
+        return this.added;
+    }
+
+    /**
+     * @return The files only present in the local tree, sorted.
+     */
+    public List<String> getRemoved() {
+        return this.removed;
+    }
+
+    /**
+     * @return The files present on both sides with a different content, sorted.
+     */
+    public List<String> getChanged() {
+        return this.changed;
+    }
+
+    /**
+     * @return True if both sides are identical.
+     */
+    public boolean isEmpty() {
+        return this.added.isEmpty() && this.removed.isEmpty() && this.changed.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "added: " + this.added + ", removed: " + this.removed + ", changed: " + this.changed;
+    }
+
+    private static DirectoryDiff compare(Path localRoot, Map<String, FileEntry> local, Path referenceRoot,
+                                         Map<String, FileEntry> reference, ChecksumCache cache) {
+        List<String> added = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+        List<String> changed = new ArrayList<>();
+        for (FileEntry expected : reference.values()) {
+            FileEntry current = local.get(expected.getPath());
+            if (current == null) {
+                added.add(expected.getPath());
+            } else if (isChanged(localRoot, current, referenceRoot, expected, cache)) {
+                changed.add(expected.getPath());
+            }
+        }
+        for (String path : local.keySet()) {
+            if (!reference.containsKey(path)) {
+                removed.add(path);
+            }
+        }
+        return new DirectoryDiff(added, removed, changed);
+    }
+
+    private static boolean isChanged(Path localRoot, FileEntry current, Path referenceRoot, FileEntry expected, ChecksumCache cache) {
+        if (current.getSize() != expected.getSize()) {
+            return true;
+        }
+        if (current.hasLastModified() && current.getLastModified() == expected.getLastModified()) {
+            return false;
+        }
+        long expectedCrc;
+        if (expected.hasCrc()) {
+            expectedCrc = expected.getCrc();
+        } else if (referenceRoot != null) {
+            expectedCrc = cache.getCrc(expected.resolve(referenceRoot));
+        } else {
+            return false;
+        }
+        return cache.getCrc(current.resolve(localRoot)) != expectedCrc;
+    }
+
+    /**
+     * Retrieve all regular files in a tree with their size and last modification time, crc are not computed.
+     *
+     * @param root Tree root.
+     * @return The entries, keyed by relative path, empty if the root does not exist.
+     */
+    static Map<String, FileEntry> scan(final Path root) {
+        Map<String, FileEntry> result = new HashMap<>();
+        if (Files.notExists(root)) {
+            return result;
+        }
+        try {
+            Files.walkFileTree(root, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (attrs.isRegularFile()) {
+                        String name = FileEntry.toRelativeName(root, file);
+                        result.put(name, FileEntry.of(name, attrs.size(), attrs.lastModifiedTime().toMillis(), FileEntry.UNKNOWN_CRC));
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot scan directory " + root, e);
+        }
+        return result;
+    }
+}
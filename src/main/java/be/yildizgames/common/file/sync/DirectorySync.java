@@ -0,0 +1,178 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file.sync;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Objects;
+
+/**
+ * Update a target directory to match a source directory, only the differences are applied.
+ * Added files are copied, removed files are deleted, and changed files larger than a threshold are patched with a
+ * block delta so only their modified blocks are rewritten.
+ * The source last modification time is set on updated files, so the next comparison can skip their checksum.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class DirectorySync {
+
+    /**
+     * Default size of the blocks used to compute the deltas.
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 16 * 1024;
+
+    /**
+     * Default minimum size for a changed file to be patched instead of copied.
+     */
+    public static final long DEFAULT_DELTA_THRESHOLD = 1024 * 1024;
+
+    /**
+     * Cache used to retrieve the checksums.
+     */
+    private final ChecksumCache cache;
+
+    /**
+     * Size of the blocks used to compute the deltas.
+     */
+    private final int blockSize;
+
+    /**
+     * Minimum size for a changed file to be patched instead of copied.
+     */
+    private final long deltaThreshold;
+
+    private DirectorySync(ChecksumCache cache, int blockSize, long deltaThreshold) {
+        super();
+        Objects.requireNonNull(cache);
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive: " + blockSize);
+        }
+        this.cache = cache;
+        this.blockSize = blockSize;
+        this.deltaThreshold = deltaThreshold;
+    }
+
+    /**
+     * Create a new synchronizer with default block size and delta threshold.
+     *
+     * @param cache Cache used to retrieve the checksums.
+     * @return The created synchronizer.
+     */
+    public static DirectorySync create(final ChecksumCache cache) {
+        return new DirectorySync(cache, DEFAULT_BLOCK_SIZE, DEFAULT_DELTA_THRESHOLD);
+    }
+
+    /**
+     * Create a new synchronizer.
+     *
+     * @param cache Cache used to retrieve the checksums.
+     * @param blockSize Size of the blocks used to compute the deltas.
+     * @param deltaThreshold Minimum size for a changed file to be patched instead of copied.
+     * @return The created synchronizer.
+     */
+    public static DirectorySync create(final ChecksumCache cache, final int blockSize, final long deltaThreshold) {
+        return new DirectorySync(cache, blockSize, deltaThreshold);
+    }
+
+    /**
+     * Compute the differences between a source and a target directory.
+     *
+     * @param source Directory containing the expected state.
+     * @param target Directory to update.
+     * @return The differences, from the target point of view.
+     */
+    public DirectoryDiff diff(final Path source, final Path target) {
+        return DirectoryDiff.compare(target, source, this.cache);
+    }
+
+    /**
+     * Update a target directory to match a source directory.
+     *
+     * @param source Directory containing the expected state.
+     * @param target Directory to update.
+     * @return The applied differences.
+     */
+    public DirectoryDiff synchronize(final Path source, final Path target) {
+        DirectoryDiff diff = this.diff(source, target);
+        this.apply(diff, source, target);
+        return diff;
+    }
+
+    /**
+     * Apply previously computed differences on a target directory.
+     *
+     * @param diff Differences to apply.
+     * @param source Directory containing the expected state.
+     * @param target Directory to update.
+     */
+    public void apply(final DirectoryDiff diff, final Path source, final Path target) {
+        Objects.requireNonNull(diff);
+        Objects.requireNonNull(source);
+        Objects.requireNonNull(target);
+        for (String name : diff.getRemoved()) {
+            Path file = target.resolve(name);
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot delete " + file, e);
+            }
+            this.cache.invalidate(file);
+        }
+        for (String name : diff.getAdded()) {
+            this.copy(source.resolve(name), target.resolve(name));
+        }
+        for (String name : diff.getChanged()) {
+            this.update(source.resolve(name), target.resolve(name));
+        }
+    }
+
+    private void update(Path from, Path to) {
+        try {
+            if (Files.size(from) < this.deltaThreshold || Files.notExists(to)) {
+                this.copy(from, to);
+                return;
+            }
+            BlockDelta.patch(to, from, this.blockSize);
+            Files.setLastModifiedTime(to, Files.getLastModifiedTime(from));
+            this.cache.invalidate(to);
+            if (this.cache.getCrc(to) != this.cache.getCrc(from)) {
+                this.copy(from, to);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot update " + to + " from " + from, e);
+        }
+    }
+
+    private void copy(Path from, Path to) {
+        try {
+            Files.createDirectories(to.toAbsolutePath().getParent());
+            Files.copy(from, to, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot copy " + from + " to " + to, e);
+        }
+        this.cache.invalidate(to);
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file.sync;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Objects;
+
+/**
+ * Immutable description of a file in a tree, the file is identified by its path relative to the tree root,
+ * using '/' as separator whatever the platform.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class FileEntry {
+
+    /**
+     * Value used when the last modification time is not known.
+     */
+    public static final long UNKNOWN_TIME = -1L;
+
+    /**
+     * Value used when the crc32 is not known.
+     */
+    public static final long UNKNOWN_CRC = 0L;
+
+    /**
+     * Path relative to the tree root.
+     */
+    private final String path;
+
+    /**
+     * File size in bytes.
+     */
+    private final long size;
+
+    /**
+     * Last modification time in milliseconds.
+     */
+    private final long lastModified;
+
+    /**
+     * CRC32 value.
+     */
+    private final long crc;
+
+    private FileEntry(String path, long size, long lastModified, long crc) {
+        super();
+        Objects.requireNonNull(path);
+        this.path = path;
+        this.size = size;
+        this.lastModified = lastModified;
+        this.crc = crc;
+    }
+
+    /**
+     * Create a new entry.
+     *
+     * @param path Path relative to the tree root, with '/' as separator.
+     * @param size File size in bytes.
+     * @param lastModified Last modification time in milliseconds, or UNKNOWN_TIME.
+     * @param crc CRC32 of the content, or UNKNOWN_CRC.
+     * @return The created entry.
+     */
+    public static FileEntry of(String path, long size, long lastModified, long crc) {
+        return new FileEntry(path, size, lastModified, crc);
+    }
+
+    /**
+     * Build an entry from a value produced by {@link be.yildizgames.common.file.FileResource#toString()}.
+     * The name is split on the last two '_' so names containing underscores are supported.
+     *
+     * @param resource Value formatted as name_crc_size.
+     * @param root Root the name will be relativized against, if the name is located under it.
+     * @return The created entry, without last modification time.
+     */
+    public static FileEntry fromResourceString(String resource, Path root) {
+        Objects.requireNonNull(resource);
+        Objects.requireNonNull(root);
+        int sizeSeparator = resource.lastIndexOf('_');
+        int crcSeparator = sizeSeparator > 0 ? resource.lastIndexOf('_', sizeSeparator - 1) : -1;
+        if (crcSeparator <= 0) {
+            throw new IllegalArgumentException("Invalid resource value: " + resource);
+        }
+        long crc = Long.parseLong(resource.substring(crcSeparator + 1, sizeSeparator));
+        long size = Long.parseLong(resource.substring(sizeSeparator + 1));
+        Path name = Paths.get(resource.substring(0, crcSeparator));
+        Path absoluteRoot = root.toAbsolutePath();
+        String relative = name.isAbsolute() && name.startsWith(absoluteRoot)
+                ? toRelativeName(absoluteRoot, name)
+                : toRelativeName(name);
+        return new FileEntry(relative, size, UNKNOWN_TIME, crc);
+    }
+
+    /**
+     * Build the relative name used by entries for a file located in a tree.
+     *
+     * @param root Tree root.
+     * @param file File in the tree.
+     * @return The path relative to the root, with '/' as separator.
+     */
+    public static String toRelativeName(Path root, Path file) {
+        return toRelativeName(root.relativize(file));
+    }
+
+    private static String toRelativeName(Path relative) {
+        String separator = relative.getFileSystem().getSeparator();
+        String name = relative.toString();
+        return "/".equals(separator) ? name : name.replace(separator, "/");
+    }
+
+    /**
+     * @return The path relative to the tree root, with '/' as separator.
+     */
+    public String getPath() {
+        return this.path;
+    }
+
+    /**
+     * @return The file size in bytes.
+     */
+    public long getSize() {
+        return this.size;
+    }
+
+    /**
+     * @return The last modification time in milliseconds, or UNKNOWN_TIME.
+     */
+    public long getLastModified() {
+        return this.lastModified;
+    }
+
+    /**
+     * @return The CRC32 value, or UNKNOWN_CRC.
+     */
+    public long getCrc() {
+        return this.crc;
+    }
+
+    public boolean hasLastModified() {
+        return this.lastModified != UNKNOWN_TIME;
+    }
+
+    public boolean hasCrc() {
+        return this.crc != UNKNOWN_CRC;
+    }
+
+    /**
+     * Resolve this entry against a tree root.
+     *
+     * @param root Tree root.
+     * @return The file location in the tree.
+     */
+    public Path resolve(Path root) {
+        return root.resolve(this.path);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof FileEntry)) {
+            return false;
+        }
+        FileEntry other = (FileEntry) o;
+        return this.size == other.size
+                && this.lastModified == other.lastModified
+                && this.crc == other.crc
+                && this.path.equals(other.path);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.path, this.size, this.lastModified, this.crc);
+    }
+
+    @Override
+    public String toString() {
+        return this.path + "_" + this.crc + "_" + this.size;
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file.sync;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Read the entries of a manifest written by a {@link ManifestWriter}, one at a time.
+ *
+ * @author Grégory Van den Borre
+ */
+public interface ManifestReader extends Closeable {
+
+    /**
+     * Open a manifest, the format is detected from its header.
+     *
+     * @param in Stream to read from, closed with the reader.
+     * @return The reader for the detected format.
+     * @throws IOException If the stream cannot be read or does not contain a manifest.
+     */
+    static ManifestReader open(final InputStream in) throws IOException {
+        Objects.requireNonNull(in);
+        BufferedInputStream bis = new BufferedInputStream(in, 64 * 1024);
+        bis.mark(4);
+        int magic = 0;
+        for (int i = 0; i < 4; i++) {
+            int b = bis.read();
+            if (b < 0) {
+                throw new IOException("Not a manifest, stream too short");
+            }
+            magic = (magic << 8) | b;
+        }
+        if (magic == BinaryManifestWriter.MAGIC) {
+            return new BinaryManifestReader(bis);
+        }
+        bis.reset();
+        return new TextManifestReader(bis);
+    }
+
+    /**
+     * Read the next entry.
+     *
+     * @return The next entry, null if the manifest is ended.
+     * @throws IOException If the manifest cannot be read or is corrupted.
+     */
+    FileEntry read() throws IOException;
+
+    /**
+     * Read all remaining entries.
+     *
+     * @return The read entries.
+     * @throws IOException If the manifest cannot be read or is corrupted.
+     */
+    default List<FileEntry> readAll() throws IOException {
+        List<FileEntry> result = new ArrayList<>();
+        FileEntry e;
+        while ((e = this.read()) != null) {
+            result.add(e);
+        }
+        return result;
+    }
+
+    /**
+     * Provide the remaining entries as a lazy stream, read errors are thrown as UncheckedIOException.
+     *
+     * @return A stream of the remaining entries.
+     */
+    default Stream<FileEntry> stream() {
+        Iterator<FileEntry> iterator = new Iterator<>() {
+
+            private FileEntry next;
+
+            @Override
+            public boolean hasNext() {
+                if (this.next == null) {
+                    try {
+                        this.next = ManifestReader.this.read();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                return this.next != null;
+            }
+
+            @Override
+            public FileEntry next() {
+                if (!this.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                FileEntry result = this.next;
+                this.next = null;
+                return result;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+}
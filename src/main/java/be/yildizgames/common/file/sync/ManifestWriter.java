@@ -0,0 +1,119 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file.sync;
+
+import be.yildizgames.common.file.FileResource;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Write a list of file entries, one at a time, so whole trees can be persisted without keeping them in memory.
+ * Two formats are available, a compact binary one and a line based text one, both can be read with
+ * {@link ManifestReader#open(java.io.InputStream)}.
+ *
+ * @author Grégory Van den Borre
+ */
+public interface ManifestWriter extends Closeable {
+
+    /**
+     * Create a writer producing the binary format, paths are front coded against the previous entry and numbers are
+     * stored as varints, so entries should be written sorted to get the smallest output.
+     *
+     * @param out Stream to write to, closed with the writer.
+     * @return The created writer.
+     * @throws IOException If the header cannot be written.
+     */
+    static ManifestWriter binary(final OutputStream out) throws IOException {
+        return new BinaryManifestWriter(out);
+    }
+
+    /**
+     * Create a writer producing the text format, one entry per line as size, crc, last modification time and path
+     * separated by tabulations, the path is last so it can contain any character.
+     *
+     * @param out Stream to write to, closed with the writer.
+     * @return The created writer.
+     * @throws IOException If the header cannot be written.
+     */
+    static ManifestWriter text(final OutputStream out) throws IOException {
+        return new TextManifestWriter(out);
+    }
+
+    /**
+     * Write an entry.
+     *
+     * @param entry Entry to write.
+     * @throws IOException If the entry cannot be written.
+     */
+    void write(FileEntry entry) throws IOException;
+
+    /**
+     * Write a file resource, its path is relativized against the tree root.
+     *
+     * @param resource Resource to write.
+     * @param root Tree root.
+     * @throws IOException If the entry cannot be written.
+     */
+    default void write(final FileResource resource, final Path root) throws IOException {
+        Objects.requireNonNull(resource);
+        Path file = Paths.get(resource.getAbsolutePath());
+        this.write(FileEntry.of(FileEntry.toRelativeName(root.toAbsolutePath(), file), resource.getSize(),
+                Files.getLastModifiedTime(file).toMillis(), resource.getCrc32()));
+    }
+
+    /**
+     * Write all files of a tree, sorted by path, with their crc.
+     *
+     * @param root Tree root.
+     * @param cache Cache used to retrieve the checksums.
+     * @throws IOException If an entry cannot be written.
+     */
+    default void writeTree(final Path root, final ChecksumCache cache) throws IOException {
+        Objects.requireNonNull(root);
+        Objects.requireNonNull(cache);
+        Map<String, FileEntry> scanned = DirectoryDiff.scan(root);
+        List<String> names = new ArrayList<>(scanned.keySet());
+        names.sort(null);
+        for (String name : names) {
+            FileEntry e = scanned.get(name);
+            this.write(FileEntry.of(name, e.getSize(), e.getLastModified(), cache.getCrc(e.resolve(root))));
+        }
+    }
+
+    /**
+     * Write the end marker and flush the content.
+     *
+     * @throws IOException If the stream cannot be written.
+     */
+    void finish() throws IOException;
+}
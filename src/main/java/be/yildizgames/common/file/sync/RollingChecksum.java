@@ -0,0 +1,115 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file.sync;
+
+/**
+ * Weak checksum of a window of bytes, as used by rsync, which can be updated in constant time when the window
+ * slides by one byte.
+ *
+ * @author Grégory Van den Borre
+ */
+final class RollingChecksum {
+
+    private static final int MASK = 0xFFFF;
+
+    /**
+     * Sum of the bytes in the window.
+     */
+    private int a;
+
+    /**
+     * Sum of the bytes weighted by their distance to the window end.
+     */
+    private int b;
+
+    private RollingChecksum() {
+        super();
+    }
+
+    /**
+     * Compute the checksum of a window.
+     *
+     * @param data Data containing the window.
+     * @param offset Window start.
+     * @param length Window length.
+     * @return The checksum of the window.
+     */
+    static RollingChecksum of(final byte[] data, final int offset, final int length) {
+        RollingChecksum c = new RollingChecksum();
+        int a = 0;
+        int b = 0;
+        for (int i = 0; i < length; i++) {
+            int value = data[offset + i] & 0xFF;
+            a += value;
+            b += (length - i) * value;
+        }
+        c.a = a & MASK;
+        c.b = b & MASK;
+        return c;
+    }
+
+    /**
+     * Compute the checksum value of a window without keeping the rolling state.
+     *
+     * @param data Data containing the window.
+     * @param offset Window start.
+     * @param length Window length.
+     * @return The checksum value.
+     */
+    static int value(final byte[] data, final int offset, final int length) {
+        return of(data, offset, length).value();
+    }
+
+    /**
+     * Slide the window by one byte.
+     *
+     * @param out Byte leaving the window.
+     * @param in Byte entering the window.
+     * @param length Window length.
+     */
+    void roll(final byte out, final byte in, final int length) {
+        int o = out & 0xFF;
+        this.a = (this.a - o + (in & 0xFF)) & MASK;
+        this.b = (this.b - length * o + this.a) & MASK;
+    }
+
+    /**
+     * Remove the first byte of the window, the window length is reduced by one.
+     *
+     * @param out Byte leaving the window.
+     * @param length Window length before removing the byte.
+     */
+    void rollOut(final byte out, final int length) {
+        int o = out & 0xFF;
+        this.a = (this.a - o) & MASK;
+        this.b = (this.b - length * o) & MASK;
+    }
+
+    /**
+     * @return The checksum value.
+     */
+    int value() {
+        return (this.b << 16) | this.a;
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file.sync;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Read the format written by {@link TextManifestWriter}.
+ *
+ * @author Grégory Van den Borre
+ */
+final class TextManifestReader implements ManifestReader {
+
+    private final BufferedReader in;
+
+    private final StringBuilder path = new StringBuilder(256);
+
+    private int lineNumber = 1;
+
+    TextManifestReader(InputStream in) throws IOException {
+        super();
+        this.in = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+        String header = this.in.readLine();
+        if (!TextManifestWriter.HEADER.equals(header)) {
+            throw new IOException("Not a manifest, invalid header: " + header);
+        }
+    }
+
+    @Override
+    public FileEntry read() throws IOException {
+        String line;
+        do {
+            line = this.in.readLine();
+            this.lineNumber++;
+            if (line == null) {
+                return null;
+            }
+        } while (line.isEmpty());
+        int sizeEnd = line.indexOf('\t');
+        int crcEnd = sizeEnd < 0 ? -1 : line.indexOf('\t', sizeEnd + 1);
+        int timeEnd = crcEnd < 0 ? -1 : line.indexOf('\t', crcEnd + 1);
+        if (timeEnd < 0) {
+            throw new IOException("Invalid manifest line " + this.lineNumber);
+        }
+        try {
+            long size = Long.parseLong(line, 0, sizeEnd, 10);
+            long crc = Long.parseLong(line, sizeEnd + 1, crcEnd, 10);
+            long lastModified = Long.parseLong(line, crcEnd + 1, timeEnd, 10);
+            return FileEntry.of(this.unescape(line, timeEnd + 1), size, lastModified, crc);
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid manifest line " + this.lineNumber, e);
+        }
+    }
+
+    private String unescape(String line, int start) throws IOException {
+        if (line.indexOf('\\', start) < 0) {
+            return line.substring(start);
+        }
+        StringBuilder sb = this.path;
+        sb.setLength(0);
+        for (int i = start; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            if (++i == line.length()) {
+                throw new IOException("Invalid escape sequence at line " + this.lineNumber);
+            }
+            char escaped = line.charAt(i);
+            if (escaped == '\\') {
+                sb.append('\\');
+            } else if (escaped == 'n') {
+                sb.append('\n');
+            } else if (escaped == 'r') {
+                sb.append('\r');
+            } else {
+                throw new IOException("Invalid escape sequence at line " + this.lineNumber);
+            }
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.in.close();
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file.sync;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * Text manifest format, UTF-8 encoded.
+ * Header line, then one line per entry: size, crc32, last modification time and path, separated by tabulations.
+ * In the path, '\' is written as "\\", line feed as "\n" and carriage return as "\r".
+ *
+ * @author Grégory Van den Borre
+ */
+final class TextManifestWriter implements ManifestWriter {
+
+    /**
+     * First line of a text manifest.
+     */
+    static final String HEADER = "#yildiz-manifest 1";
+
+    private final Writer out;
+
+    private final StringBuilder line = new StringBuilder(256);
+
+    TextManifestWriter(OutputStream out) throws IOException {
+        super();
+        Objects.requireNonNull(out);
+        this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        this.out.write(HEADER);
+        this.out.write('\n');
+    }
+
+    @Override
+    public void write(final FileEntry entry) throws IOException {
+        Objects.requireNonNull(entry);
+        StringBuilder sb = this.line;
+        sb.setLength(0);
+        sb.append(entry.getSize()).append('\t')
+                .append(entry.getCrc()).append('\t')
+                .append(entry.getLastModified()).append('\t');
+        String path = entry.getPath();
+        for (int i = 0; i < path.length(); i++) {
+            char c = path.charAt(i);
+            if (c == '\\') {
+                sb.append("\\\\");
+            } else if (c == '\n') {
+                sb.append("\\n");
+            } else if (c == '\r') {
+                sb.append("\\r");
+            } else {
+                sb.append(c);
+            }
+        }
+        sb.append('\n');
+        this.out.append(sb);
+    }
+
+    @Override
+    public void finish() throws IOException {
+        this.out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.out.close();
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file.sync;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Encode unsigned values on a variable number of bytes, 7 bits per byte, the high bit telling if more bytes follow.
+ *
+ * @author Grégory Van den Borre
+ */
+final class Varint {
+
+    private Varint() {
+        super();
+    }
+
+    /**
+     * Write a positive value.
+     *
+     * @param out Stream to write to.
+     * @param value Value to write, interpreted as unsigned.
+     * @throws IOException If the stream cannot be written.
+     */
+    static void write(final OutputStream out, final long value) throws IOException {
+        long v = value;
+        while ((v & ~0x7FL) != 0) {
+            out.write((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.write((int) v);
+    }
+
+    /**
+     * Read a value written with {@link #write(OutputStream, long)}.
+     *
+     * @param in Stream to read from.
+     * @return The read value.
+     * @throws IOException If the stream cannot be read, is ended or contains an invalid value.
+     */
+    static long read(final InputStream in) throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException();
+            }
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("Invalid varint value");
+    }
+
+    /**
+     * Read a value expected to fit in an int.
+     *
+     * @param in Stream to read from.
+     * @return The read value.
+     * @throws IOException If the stream cannot be read or the value is out of range.
+     */
+    static int readInt(final InputStream in) throws IOException {
+        long value = read(in);
+        if (value < 0 || value > Integer.MAX_VALUE) {
+            throw new IOException("Value out of range: " + value);
+        }
+        return (int) value;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file.transfer;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Identify the source of a chunked transfer, a transfer can only be resumed if the source did not change.
+ *
+ * @author Grégory Van den Borre
+ */
+final class ChunkHeader {
+
+    /**
+     * Number of bytes of a serialized header.
+     */
+    static final int BYTES = 20;
+
+    /**
+     * Source length in bytes.
+     */
+    final long length;
+
+    /**
+     * Size of the chunks, the last one can be smaller.
+     */
+    final int chunkSize;
+
+    /**
+     * Source last modification time, in milliseconds.
+     */
+    final long lastModified;
+
+    ChunkHeader(long length, int chunkSize, long lastModified) {
+        super();
+        if (length < 0) {
+            throw new IllegalArgumentException("Invalid length: " + length);
+        }
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Invalid chunk size: " + chunkSize);
+        }
+        this.length = length;
+        this.chunkSize = chunkSize;
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * @return The number of chunks.
+     */
+    int getChunkCount() {
+        return (int) ((this.length + this.chunkSize - 1) / this.chunkSize);
+    }
+
+    /**
+     * @param index Chunk index.
+     * @return The position of the chunk in the file.
+     */
+    long getPosition(int index) {
+        return (long) index * this.chunkSize;
+    }
+
+    /**
+     * @param index Chunk index.
+     * @return The number of bytes in the chunk.
+     */
+    int getChunkLength(int index) {
+        return (int) Math.min(this.chunkSize, this.length - this.getPosition(index));
+    }
+
+    void write(DataOutput out) throws IOException {
+        out.writeLong(this.length);
+        out.writeInt(this.chunkSize);
+        out.writeLong(this.lastModified);
+    }
+
+    static ChunkHeader read(DataInput in) throws IOException {
+        long length = in.readLong();
+        int chunkSize = in.readInt();
+        long lastModified = in.readLong();
+        if (length < 0 || chunkSize <= 0) {
+            throw new IOException("Invalid chunk header");
+        }
+        return new ChunkHeader(length, chunkSize, lastModified);
+    }
+
+    boolean isSameSource(ChunkHeader other) {
+        return this.length == other.length
+                && this.chunkSize == other.chunkSize
+                && this.lastModified == other.lastModified;
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file.transfer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Journal of a chunked transfer, recording the source header followed by the CRC32 of each chunk written so far,
+ * in chunk order.
+ * The journal is not synchronized to the disk for each chunk, the recorded chunks are verified before resuming.
+ *
+ * @author Grégory Van den Borre
+ */
+final class ChunkJournal implements Closeable {
+
+    private static final int MAGIC = 0x594A524E;
+
+    private static final int HEADER_BYTES = Integer.BYTES + ChunkHeader.BYTES;
+
+    private final FileChannel channel;
+
+    private final ByteBuffer entry = ByteBuffer.allocate(Integer.BYTES);
+
+    private ChunkJournal(FileChannel channel) {
+        super();
+        this.channel = channel;
+    }
+
+    /**
+     * Read the chunk checksums recorded in a journal.
+     *
+     * @param journal Journal file.
+     * @param header Header of the current source.
+     * @return The recorded checksums, empty if the journal does not exist or was recorded for another source.
+     * @throws IOException If the journal cannot be read.
+     */
+    static int[] read(Path journal, ChunkHeader header) throws IOException {
+        if (Files.notExists(journal) || Files.size(journal) < HEADER_BYTES) {
+            return new int[0];
+        }
+        byte[] content = Files.readAllBytes(journal);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(content));
+        if (in.readInt() != MAGIC || !ChunkHeader.read(in).isSameSource(header)) {
+            return new int[0];
+        }
+        int count = Math.min(header.getChunkCount(), (content.length - HEADER_BYTES) / Integer.BYTES);
+        int[] result = new int[count];
+        for (int i = 0; i < count; i++) {
+            result[i] = in.readInt();
+        }
+        return result;
+    }
+
+    /**
+     * Open a journal to append chunks, dropping the entries after a given number of chunks.
+     *
+     * @param journal Journal file.
+     * @param header Header of the current source.
+     * @param chunks Number of recorded chunks to keep.
+     * @return The opened journal.
+     * @throws IOException If the journal cannot be written.
+     */
+    static ChunkJournal open(Path journal, ChunkHeader header, int chunks) throws IOException {
+        FileChannel channel = FileChannel.open(journal, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(HEADER_BYTES);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(MAGIC);
+            header.write(out);
+            channel.write(ByteBuffer.wrap(bytes.toByteArray()), 0);
+            long end = HEADER_BYTES + (long) chunks * Integer.BYTES;
+            channel.truncate(end);
+            channel.position(end);
+            return new ChunkJournal(channel);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Record the next chunk.
+     *
+     * @param crc Chunk CRC32.
+     * @throws IOException If the journal cannot be written.
+     */
+    void append(int crc) throws IOException {
+        this.entry.clear();
+        this.entry.putInt(crc).flip();
+        while (this.entry.hasRemaining()) {
+            this.channel.write(this.entry);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+}
@@ -0,0 +1,427 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file.transfer;
+
+import be.yildizgames.common.file.buffer.BufferPool;
+import be.yildizgames.common.file.buffer.PooledBuffer;
+import be.yildizgames.common.file.metrics.FileMetrics;
+import be.yildizgames.common.file.metrics.FileOperation;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+
+/**
+ * Transfer a file split in fixed size chunks, each chunk having its own CRC32.
+ * The target is written in a '.part' file next to it, and each chunk is recorded in a '.journal' file once written.
+ * An interrupted transfer of the same, unchanged, source is resumed after the last chunk still matching its recorded
+ * checksum, the recorded chunks being verified in parallel.
+ * The part file is moved to the target once all chunks are written.
+ * A transfer can be done between two local paths, or through a stream with {@link #send(Path, int, OutputStream)}
+ * on one side and {@link #receive(InputStream, Path)} on the other, the receiver providing its
+ * {@link #getResumeChunk(Path, Path)} to the sender.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class ChunkedTransfer {
+
+    /**
+     * Default chunk size, in bytes.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+
+    private static final int MAGIC = 0x59435446;
+
+    /**
+     * Size of the heap array used to move chunks between the buffer and the streams.
+     */
+    private static final int COPY_SIZE = 64 * 1024;
+
+    /**
+     * Size of the chunks, in bytes.
+     */
+    private final int chunkSize;
+
+    /**
+     * Maximum number of chunks verified at the same time.
+     */
+    private final int parallelism;
+
+    private ChunkedTransfer(int chunkSize, int parallelism) {
+        super();
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Create a transfer with chunks of {@link #DEFAULT_CHUNK_SIZE} bytes, verified with as many threads as available
+     * processors.
+     *
+     * @return The created transfer.
+     */
+    public static ChunkedTransfer create() {
+        return create(DEFAULT_CHUNK_SIZE, Math.max(2, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * Create a transfer.
+     *
+     * @param chunkSize Size of the chunks, in bytes.
+     * @param parallelism Maximum number of chunks verified at the same time.
+     * @return The created transfer.
+     */
+    public static ChunkedTransfer create(final int chunkSize, final int parallelism) {
+        return new ChunkedTransfer(chunkSize, parallelism);
+    }
+
+    /**
+     * Copy a file, resuming a previously interrupted copy to the same target if any.
+     *
+     * @param source File to copy.
+     * @param target Path of the copy.
+     * @return The number of bytes copied by this call, excluding the resumed chunks.
+     */
+    public long copy(final Path source, final Path target) {
+        Objects.requireNonNull(source);
+        Objects.requireNonNull(target);
+        long start = FileMetrics.start();
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             PooledBuffer pooled = BufferPool.getDefault().lease(this.chunkSize)) {
+            ChunkHeader header = this.header(source);
+            int first = this.verify(target, header);
+            long bytes = 0;
+            try (Receiver receiver = new Receiver(target, header, first)) {
+                ByteBuffer buffer = pooled.buffer();
+                for (int i = first; i < header.getChunkCount(); i++) {
+                    int length = header.getChunkLength(i);
+                    readChunk(in, header.getPosition(i), buffer, length);
+                    receiver.write(i, buffer, checksum(buffer));
+                    bytes += length;
+                }
+                receiver.complete();
+            }
+            FileMetrics.success(FileOperation.COPY, source, bytes, start);
+            return bytes;
+        } catch (IOException e) {
+            FileMetrics.error(FileOperation.COPY, source, start, e);
+            throw new IllegalStateException("Cannot copy " + source + " to " + target, e);
+        }
+    }
+
+    /**
+     * Provide the chunk from which a transfer to a target must be resumed.
+     * The chunks recorded in the target journal are verified, so the result is the first chunk not correctly written.
+     *
+     * @param source File to transfer, only its attributes are read.
+     * @param target Target of the transfer.
+     * @return The index of the first chunk to transfer.
+     */
+    public int getResumeChunk(final Path source, final Path target) {
+        try {
+            return this.verify(target, this.header(source));
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot verify " + target, e);
+        }
+    }
+
+    /**
+     * Write a file in the chunked transfer format.
+     *
+     * @param source File to send.
+     * @param firstChunk Index of the first chunk to send, as provided by the receiver.
+     * @param out Stream to write to, not closed by this method.
+     */
+    public void send(final Path source, final int firstChunk, final OutputStream out) {
+        Objects.requireNonNull(source);
+        Objects.requireNonNull(out);
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             PooledBuffer pooled = BufferPool.getDefault().lease(this.chunkSize)) {
+            ChunkHeader header = this.header(source);
+            if (firstChunk < 0 || firstChunk > header.getChunkCount()) {
+                throw new IllegalArgumentException("Invalid first chunk: " + firstChunk);
+            }
+            DataOutputStream data = new DataOutputStream(out);
+            data.writeInt(MAGIC);
+            header.write(data);
+            data.writeInt(firstChunk);
+            ByteBuffer buffer = pooled.buffer();
+            byte[] array = new byte[Math.min(buffer.capacity(), COPY_SIZE)];
+            for (int i = firstChunk; i < header.getChunkCount(); i++) {
+                int length = header.getChunkLength(i);
+                readChunk(in, header.getPosition(i), buffer, length);
+                data.writeInt(checksum(buffer));
+                while (buffer.hasRemaining()) {
+                    int n = Math.min(array.length, buffer.remaining());
+                    buffer.get(array, 0, n);
+                    data.write(array, 0, n);
+                }
+            }
+            data.flush();
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot send " + source, e);
+        }
+    }
+
+    /**
+     * Read a file in the chunked transfer format, each chunk is verified before being recorded.
+     * If the stream is interrupted, the chunks already received are kept and the transfer can be resumed.
+     *
+     * @param in Stream to read from, not closed by this method.
+     * @param target File to write.
+     */
+    public void receive(final InputStream in, final Path target) {
+        Objects.requireNonNull(in);
+        Objects.requireNonNull(target);
+        try (PooledBuffer pooled = BufferPool.getDefault().lease(this.chunkSize)) {
+            DataInputStream data = new DataInputStream(in);
+            if (data.readInt() != MAGIC) {
+                throw new IOException("Invalid chunked transfer stream.");
+            }
+            ChunkHeader header = ChunkHeader.read(data);
+            int first = data.readInt();
+            int expected = this.verify(target, header);
+            if (first > expected) {
+                throw new IOException("Stream starts at chunk " + first + " but the target needs chunk " + expected);
+            }
+            ByteBuffer buffer = header.chunkSize <= pooled.buffer().capacity()
+                    ? pooled.buffer()
+                    : ByteBuffer.allocate(header.chunkSize);
+            byte[] array = new byte[Math.min(buffer.capacity(), COPY_SIZE)];
+            try (Receiver receiver = new Receiver(target, header, first)) {
+                for (int i = first; i < header.getChunkCount(); i++) {
+                    int crc = data.readInt();
+                    int length = header.getChunkLength(i);
+                    buffer.clear();
+                    while (buffer.position() < length) {
+                        int n = Math.min(array.length, length - buffer.position());
+                        data.readFully(array, 0, n);
+                        buffer.put(array, 0, n);
+                    }
+                    buffer.flip();
+                    if (checksum(buffer) != crc) {
+                        throw new IOException("Checksum mismatch for chunk " + i);
+                    }
+                    receiver.write(i, buffer, crc);
+                }
+                receiver.complete();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot receive " + target, e);
+        }
+    }
+
+    private ChunkHeader header(Path source) throws IOException {
+        return new ChunkHeader(Files.size(source), this.chunkSize, Files.getLastModifiedTime(source).toMillis());
+    }
+
+    /**
+     * Verify in parallel the chunks recorded in the journal of a target.
+     *
+     * @return The index of the first chunk not recorded or not matching its checksum.
+     */
+    private int verify(Path target, ChunkHeader header) throws IOException {
+        Path part = partFile(target);
+        int[] recorded = ChunkJournal.read(journalFile(target), header);
+        if (recorded.length == 0 || Files.notExists(part)) {
+            return 0;
+        }
+        int count = recorded.length;
+        AtomicInteger firstInvalid = new AtomicInteger(count);
+        AtomicInteger next = new AtomicInteger();
+        int workers = Math.min(this.parallelism, count);
+        try (FileChannel channel = FileChannel.open(part, StandardOpenOption.READ)) {
+            if (workers <= 1) {
+                verifyNext(channel, header, recorded, next, firstInvalid);
+                return firstInvalid.get();
+            }
+            ExecutorService executor = Executors.newFixedThreadPool(workers, r -> {
+                Thread t = new Thread(r, "chunk-verifier");
+                t.setDaemon(true);
+                return t;
+            });
+            try {
+                List<Future<?>> futures = new ArrayList<>(workers);
+                for (int i = 0; i < workers; i++) {
+                    futures.add(executor.submit(() -> {
+                        verifyNext(channel, header, recorded, next, firstInvalid);
+                        return null;
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while verifying " + part, e);
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+        return firstInvalid.get();
+    }
+
+    private static void verifyNext(FileChannel channel, ChunkHeader header, int[] recorded, AtomicInteger next,
+                                   AtomicInteger firstInvalid) throws IOException {
+        try (PooledBuffer pooled = BufferPool.getDefault().lease(header.chunkSize)) {
+            ByteBuffer buffer = pooled.buffer();
+            int index;
+            while ((index = next.getAndIncrement()) < firstInvalid.get()) {
+                int length = header.getChunkLength(index);
+                boolean valid;
+                try {
+                    readChunk(channel, header.getPosition(index), buffer, length);
+                    valid = checksum(buffer) == recorded[index];
+                } catch (EOFException e) {
+                    valid = false;
+                }
+                if (!valid) {
+                    firstInvalid.accumulateAndGet(index, Math::min);
+                }
+            }
+        }
+    }
+
+    /**
+     * Read a chunk in a buffer, ready to be read.
+     */
+    private static void readChunk(FileChannel channel, long position, ByteBuffer buffer, int length) throws IOException {
+        buffer.clear().limit(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Unexpected end of file at " + (position + buffer.position()));
+            }
+        }
+        buffer.flip();
+    }
+
+    /**
+     * Compute the CRC32 of the remaining bytes of a buffer, without changing its position.
+     */
+    private static int checksum(ByteBuffer buffer) {
+        CRC32 crc = new CRC32();
+        int position = buffer.position();
+        crc.update(buffer);
+        buffer.position(position);
+        return (int) crc.getValue();
+    }
+
+    private static Path partFile(Path target) {
+        return target.resolveSibling(target.getFileName() + ".part");
+    }
+
+    private static Path journalFile(Path target) {
+        return target.resolveSibling(target.getFileName() + ".journal");
+    }
+
+    /**
+     * Write the chunks in the part file and record them in the journal.
+     */
+    private static final class Receiver implements AutoCloseable {
+
+        private final Path target;
+
+        private final ChunkHeader header;
+
+        private final FileChannel part;
+
+        private final ChunkJournal journal;
+
+        private Receiver(Path target, ChunkHeader header, int first) throws IOException {
+            super();
+            this.target = target;
+            this.header = header;
+            Path parent = target.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            this.part = FileChannel.open(partFile(target), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            try {
+                this.journal = ChunkJournal.open(journalFile(target), header, first);
+            } catch (IOException e) {
+                this.part.close();
+                throw e;
+            }
+        }
+
+        /**
+         * Write a chunk and record it in the journal.
+         *
+         * @param index Chunk index.
+         * @param data Chunk content.
+         * @param crc Chunk checksum.
+         * @throws IOException If the chunk cannot be written.
+         */
+        private void write(int index, ByteBuffer data, int crc) throws IOException {
+            long position = this.header.getPosition(index);
+            while (data.hasRemaining()) {
+                this.part.write(data, position + data.position());
+            }
+            this.journal.append(crc);
+        }
+
+        private void complete() throws IOException {
+            this.part.truncate(this.header.length);
+            this.part.force(true);
+            this.part.close();
+            this.journal.close();
+            Files.move(partFile(this.target), this.target, StandardCopyOption.REPLACE_EXISTING);
+            Files.delete(journalFile(this.target));
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                this.part.close();
+            } finally {
+                this.journal.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,368 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file.transfer;
+
+import be.yildizgames.common.file.metrics.FileMetrics;
+import be.yildizgames.common.file.metrics.FileOperation;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.CopyOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributeView;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Copy and move files and directory trees.
+ * File content is copied with {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)},
+ * letting the operating system copy the data without going through the java heap, and the files of a tree are copied
+ * in parallel.
+ * A move is done by renaming when the source and the target are on the same file store, and by a copy followed by a
+ * delete otherwise.
+ * Supported options are {@link StandardCopyOption#REPLACE_EXISTING} and {@link StandardCopyOption#COPY_ATTRIBUTES}.
+ * Without {@link StandardCopyOption#REPLACE_EXISTING}, copying a tree onto an existing directory fails, with it the
+ * tree is merged into the existing one.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class FileCopier {
+
+    /**
+     * Maximum number of files copied at the same time.
+     */
+    private final int parallelism;
+
+    /**
+     * True to replace the existing target files, false to fail if a target file exists.
+     */
+    private final boolean replaceExisting;
+
+    /**
+     * True to copy the times and permissions of the source files.
+     */
+    private final boolean copyAttributes;
+
+    private FileCopier(int parallelism, boolean replaceExisting, boolean copyAttributes) {
+        super();
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        this.parallelism = parallelism;
+        this.replaceExisting = replaceExisting;
+        this.copyAttributes = copyAttributes;
+    }
+
+    /**
+     * Create a copier using as many threads as available processors, not replacing existing files and not copying
+     * attributes.
+     *
+     * @return The created copier.
+     */
+    public static FileCopier create() {
+        return create(Math.max(2, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * Create a copier.
+     *
+     * @param parallelism Maximum number of files copied at the same time.
+     * @param options Copy options, only {@link StandardCopyOption#REPLACE_EXISTING} and
+     *                {@link StandardCopyOption#COPY_ATTRIBUTES} are supported.
+     * @return The created copier.
+     */
+    public static FileCopier create(final int parallelism, final CopyOption... options) {
+        List<CopyOption> list = Arrays.asList(options);
+        for (CopyOption option : list) {
+            if (option != StandardCopyOption.REPLACE_EXISTING && option != StandardCopyOption.COPY_ATTRIBUTES) {
+                throw new UnsupportedOperationException("Unsupported option: " + option);
+            }
+        }
+        return new FileCopier(parallelism,
+                list.contains(StandardCopyOption.REPLACE_EXISTING),
+                list.contains(StandardCopyOption.COPY_ATTRIBUTES));
+    }
+
+    /**
+     * Copy a file or a directory tree, missing parent directories of the target are created.
+     *
+     * @param source File or directory to copy.
+     * @param target Path of the copy.
+     * @return The number of copied bytes.
+     */
+    public long copy(final Path source, final Path target) {
+        Objects.requireNonNull(source);
+        Objects.requireNonNull(target);
+        long start = FileMetrics.start();
+        try {
+            long bytes = this.copyImpl(source, target);
+            FileMetrics.success(FileOperation.COPY, source, bytes, start);
+            return bytes;
+        } catch (IOException e) {
+            FileMetrics.error(FileOperation.COPY, source, start, e);
+            throw new IllegalStateException("Cannot copy " + source + " to " + target, e);
+        }
+    }
+
+    /**
+     * Move a file or a directory tree, missing parent directories of the target are created.
+     *
+     * @param source File or directory to move.
+     * @param target New path.
+     * @return The number of copied bytes, 0 if the move was done by renaming.
+     */
+    public long move(final Path source, final Path target) {
+        Objects.requireNonNull(source);
+        Objects.requireNonNull(target);
+        long start = FileMetrics.start();
+        try {
+            createParent(target);
+            long bytes = 0;
+            if (isSameFileStore(source, target)) {
+                if (this.replaceExisting) {
+                    Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+                } else {
+                    Files.move(source, target);
+                }
+            } else {
+                bytes = this.copyImpl(source, target);
+                delete(source);
+            }
+            FileMetrics.success(FileOperation.MOVE, source, bytes, start);
+            return bytes;
+        } catch (IOException e) {
+            FileMetrics.error(FileOperation.MOVE, source, start, e);
+            throw new IllegalStateException("Cannot move " + source + " to " + target, e);
+        }
+    }
+
+    private long copyImpl(Path source, Path target) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        createParent(target);
+        if (attributes.isDirectory()) {
+            return this.copyTree(source, target);
+        }
+        return this.copyEntry(source, target, attributes);
+    }
+
+    private long copyTree(Path source, Path target) throws IOException {
+        List<Path[]> files = new ArrayList<>();
+        List<Path[]> directories = new ArrayList<>();
+        Files.walkFileTree(source, new SimpleFileVisitor<>() {
+
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Path copy = resolve(source, dir, target);
+                if (replaceExisting) {
+                    Files.createDirectories(copy);
+                } else {
+                    Files.createDirectory(copy);
+                }
+                directories.add(new Path[]{dir, copy});
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                files.add(new Path[]{file, resolve(source, file, target)});
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        long bytes = this.copyAll(files);
+        if (this.copyAttributes) {
+            // Done once the content is copied, as creating files updates the directory times.
+            Collections.reverse(directories);
+            for (Path[] directory : directories) {
+                copyAttributes(directory[0], directory[1]);
+            }
+        }
+        return bytes;
+    }
+
+    private long copyAll(List<Path[]> files) throws IOException {
+        AtomicLong bytes = new AtomicLong();
+        AtomicInteger next = new AtomicInteger();
+        int workers = Math.min(this.parallelism, files.size());
+        if (workers <= 1) {
+            this.copyNext(files, next, bytes);
+            return bytes.get();
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(workers, r -> {
+            Thread t = new Thread(r, "file-copier");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>(workers);
+            for (int i = 0; i < workers; i++) {
+                futures.add(executor.submit(() -> {
+                    this.copyNext(files, next, bytes);
+                    return null;
+                }));
+            }
+            IOException error = null;
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    IOException cause = e.getCause() instanceof IOException
+                            ? (IOException) e.getCause()
+                            : new IOException(e.getCause());
+                    if (error == null) {
+                        error = cause;
+                        // Stop the other workers.
+                        next.set(files.size());
+                    } else {
+                        error.addSuppressed(cause);
+                    }
+                }
+            }
+            if (error != null) {
+                throw error;
+            }
+            return bytes.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while copying files", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void copyNext(List<Path[]> files, AtomicInteger next, AtomicLong bytes) throws IOException {
+        int index;
+        while ((index = next.getAndIncrement()) < files.size()) {
+            Path[] file = files.get(index);
+            BasicFileAttributes attributes = Files.readAttributes(file[0], BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+            bytes.addAndGet(this.copyEntry(file[0], file[1], attributes));
+        }
+    }
+
+    private long copyEntry(Path source, Path target, BasicFileAttributes attributes) throws IOException {
+        if (attributes.isSymbolicLink()) {
+            if (this.replaceExisting) {
+                Files.copy(source, target, LinkOption.NOFOLLOW_LINKS, StandardCopyOption.REPLACE_EXISTING);
+            } else {
+                Files.copy(source, target, LinkOption.NOFOLLOW_LINKS);
+            }
+            return 0;
+        }
+        Set<OpenOption> options = this.replaceExisting
+                ? Set.of(StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)
+                : Set.of(StandardOpenOption.WRITE, StandardOpenOption.CREATE_NEW);
+        long position = 0;
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target, options)) {
+            long size = in.size();
+            while (position < size) {
+                long transferred = in.transferTo(position, size - position, out);
+                if (transferred <= 0) {
+                    // The source may have been truncated during the copy.
+                    size = Math.min(size, in.size());
+                    if (position < size) {
+                        throw new IOException("No progress while copying " + source);
+                    }
+                }
+                position += transferred;
+            }
+        }
+        if (this.copyAttributes) {
+            copyAttributes(source, target);
+        }
+        return position;
+    }
+
+    private static void copyAttributes(Path source, Path target) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class);
+        Files.getFileAttributeView(target, BasicFileAttributeView.class)
+                .setTimes(attributes.lastModifiedTime(), attributes.lastAccessTime(), attributes.creationTime());
+        PosixFileAttributeView sourceView = Files.getFileAttributeView(source, PosixFileAttributeView.class);
+        PosixFileAttributeView targetView = Files.getFileAttributeView(target, PosixFileAttributeView.class);
+        if (sourceView != null && targetView != null) {
+            targetView.setPermissions(sourceView.readAttributes().permissions());
+        }
+    }
+
+    private static Path resolve(Path sourceRoot, Path source, Path targetRoot) {
+        Path result = targetRoot;
+        for (Path element : sourceRoot.relativize(source)) {
+            result = result.resolve(element.toString());
+        }
+        return result;
+    }
+
+    private static void createParent(Path target) throws IOException {
+        Path parent = target.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+    }
+
+    private static boolean isSameFileStore(Path source, Path target) throws IOException {
+        Path existing = target.toAbsolutePath();
+        while (existing != null && Files.notExists(existing)) {
+            existing = existing.getParent();
+        }
+        return existing != null && Files.getFileStore(source).equals(Files.getFileStore(existing));
+    }
+
+    private static void delete(Path source) throws IOException {
+        Files.walkFileTree(source, new SimpleFileVisitor<>() {
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                if (exc != null) {
+                    throw exc;
+                }
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
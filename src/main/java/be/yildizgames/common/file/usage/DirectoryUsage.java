@@ -0,0 +1,119 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file.usage;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Size of a directory tree, at the time it was computed.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class DirectoryUsage {
+
+    private final Path path;
+
+    /**
+     * Directory last modification time when its entries were listed, in milliseconds.
+     */
+    final long lastModified;
+
+    /**
+     * Time when the directory entries were listed, in milliseconds.
+     */
+    final long listed;
+
+    /**
+     * Size of the files directly in the directory.
+     */
+    final long ownBytes;
+
+    /**
+     * Number of files directly in the directory.
+     */
+    final long ownFiles;
+
+    private final List<Path> subdirectories;
+
+    private final long bytes;
+
+    private final long files;
+
+    private final long directories;
+
+    DirectoryUsage(Path path, long lastModified, long listed, long ownBytes, long ownFiles, List<Path> subdirectories,
+                   long bytes, long files, long directories) {
+        super();
+        this.path = path;
+        this.lastModified = lastModified;
+        this.listed = listed;
+        this.ownBytes = ownBytes;
+        this.ownFiles = ownFiles;
+        this.subdirectories = subdirectories;
+        this.bytes = bytes;
+        this.files = files;
+        this.directories = directories;
+    }
+
+    /**
+     * @return The directory absolute path.
+     */
+    public Path getPath() {
+        return this.path;
+    }
+
+    /**
+     * @return The size in bytes of all the files in the tree.
+     */
+    public long getBytes() {
+        return this.bytes;
+    }
+
+    /**
+     * @return The number of files in the tree.
+     */
+    public long getFileCount() {
+        return this.files;
+    }
+
+    /**
+     * @return The number of directories in the tree, this directory excluded.
+     */
+    public long getDirectoryCount() {
+        return this.directories;
+    }
+
+    /**
+     * @return The directories directly in this directory.
+     */
+    public List<Path> getSubdirectories() {
+        return this.subdirectories;
+    }
+
+    @Override
+    public String toString() {
+        return this.path + ": " + this.bytes + " bytes, " + this.files + " files, " + this.directories + " directories";
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file.usage;
+
+import be.yildizgames.common.file.metrics.FileMetrics;
+import be.yildizgames.common.file.metrics.FileOperation;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Compute the size of directory trees, listing the directories in parallel and reading each entry attributes once.
+ * The entries of each directory are cached with the directory last modification time, when computed again, only
+ * the directories whose modification time changed are listed again, the others only cost one attribute read.
+ * A directory modification time changes when entries are added, removed or renamed, but not when an existing file
+ * content is modified, use {@link #invalidate(Path)} to take such a change into account.
+ * Symbolic links are not followed, their own size is counted.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class DiskUsage {
+
+    /**
+     * Directories modified less than this delay before being listed are listed again on the next computation, as
+     * a later modification could leave the same modification time on file systems with a coarse precision.
+     */
+    private static final long RACY_DELAY = 2000;
+
+    private static final DiskUsage DEFAULT = create();
+
+    private final ForkJoinPool pool;
+
+    private final Map<Path, DirectoryUsage> cache = new ConcurrentHashMap<>();
+
+    private DiskUsage(int parallelism) {
+        super();
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * @return A disk usage instance using one thread per processor.
+     */
+    public static DiskUsage create() {
+        return create(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param parallelism Number of threads listing the directories.
+     * @return A disk usage instance.
+     */
+    public static DiskUsage create(final int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        return new DiskUsage(parallelism);
+    }
+
+    /**
+     * @return The instance shared by the library.
+     */
+    public static DiskUsage getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Compute the size of a directory tree.
+     *
+     * @param directory Directory to compute.
+     * @return The directory tree size.
+     */
+    public DirectoryUsage compute(final Path directory) {
+        Objects.requireNonNull(directory);
+        Path root = directory.toAbsolutePath().normalize();
+        long start = FileMetrics.start();
+        try {
+            DirectoryUsage usage = this.pool.invoke(new Scan(root, true));
+            FileMetrics.success(FileOperation.LIST, root, 0, start);
+            return usage;
+        } catch (UncheckedIOException e) {
+            FileMetrics.error(FileOperation.LIST, root, start, e.getCause());
+            throw new IllegalStateException("Cannot compute disk usage of " + root, e.getCause());
+        }
+    }
+
+    /**
+     * Retrieve the last computed size of a directory, the directory or one of its parents must have been computed.
+     *
+     * @param directory Directory to retrieve.
+     * @return The last computed size, empty if it was not computed.
+     */
+    public Optional<DirectoryUsage> getCached(final Path directory) {
+        return Optional.ofNullable(this.cache.get(directory.toAbsolutePath().normalize()));
+    }
+
+    /**
+     * Force a directory to be listed again on the next computation.
+     *
+     * @param directory Directory whose files were modified.
+     */
+    public void invalidate(final Path directory) {
+        this.cache.remove(directory.toAbsolutePath().normalize());
+    }
+
+    /**
+     * Remove all cached directories.
+     */
+    public void clear() {
+        this.cache.clear();
+    }
+
+    /**
+     * Remove a directory and its subdirectories from the cache.
+     *
+     * @param directory Directory no longer existing.
+     */
+    private void forget(final Path directory) {
+        DirectoryUsage removed = this.cache.remove(directory);
+        if (removed != null) {
+            removed.getSubdirectories().forEach(this::forget);
+        }
+    }
+
+    /**
+     * Compute a directory tree size, forking a task for each subdirectory.
+     */
+    private final class Scan extends RecursiveTask<DirectoryUsage> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient Path directory;
+
+        private final boolean root;
+
+        private Scan(Path directory, boolean root) {
+            super();
+            this.directory = directory;
+            this.root = root;
+        }
+
+        @Override
+        protected DirectoryUsage compute() {
+            try {
+                return this.scan();
+            } catch (NoSuchFileException | NotDirectoryException e) {
+                if (this.root) {
+                    throw new UncheckedIOException(e);
+                }
+                // Removed or replaced while computing.
+                forget(this.directory);
+                return null;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private DirectoryUsage scan() throws IOException {
+            BasicFileAttributes attributes = Files.readAttributes(this.directory, BasicFileAttributes.class);
+            if (!attributes.isDirectory()) {
+                throw new NotDirectoryException(this.directory.toString());
+            }
+            long lastModified = attributes.lastModifiedTime().toMillis();
+            DirectoryUsage own = cache.get(this.directory);
+            if (own == null || own.lastModified != lastModified || own.lastModified >= own.listed - RACY_DELAY) {
+                own = this.list(lastModified, own);
+            }
+            List<Scan> tasks = new ArrayList<>(own.getSubdirectories().size());
+            for (Path sub : own.getSubdirectories()) {
+                tasks.add(new Scan(sub, false));
+            }
+            long bytes = own.ownBytes;
+            long files = own.ownFiles;
+            long directories = 0;
+            for (Scan task : ForkJoinTask.invokeAll(tasks)) {
+                DirectoryUsage child = task.join();
+                if (child != null) {
+                    bytes += child.getBytes();
+                    files += child.getFileCount();
+                    directories += child.getDirectoryCount() + 1;
+                }
+            }
+            DirectoryUsage result = new DirectoryUsage(this.directory, own.lastModified, own.listed, own.ownBytes,
+                    own.ownFiles, own.getSubdirectories(), bytes, files, directories);
+            cache.put(this.directory, result);
+            return result;
+        }
+
+        /**
+         * Read the directory entries.
+         *
+         * @param lastModified Directory modification time.
+         * @param previous Previous listing, null if none.
+         * @return The directory own usage, without its subdirectories.
+         * @throws IOException If the directory cannot be listed.
+         */
+        private DirectoryUsage list(final long lastModified, final DirectoryUsage previous) throws IOException {
+            long listed = System.currentTimeMillis();
+            long bytes = 0;
+            long files = 0;
+            List<Path> subdirectories = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(this.directory)) {
+                for (Path entry : stream) {
+                    BasicFileAttributes attributes;
+                    try {
+                        attributes = Files.readAttributes(entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                    } catch (NoSuchFileException e) {
+                        continue;
+                    }
+                    if (attributes.isDirectory()) {
+                        subdirectories.add(entry);
+                    } else {
+                        bytes += attributes.size();
+                        files++;
+                    }
+                }
+            }
+            if (previous != null) {
+                Set<Path> current = new HashSet<>(subdirectories);
+                previous.getSubdirectories().stream().filter(p -> !current.contains(p)).forEach(DiskUsage.this::forget);
+            }
+            return new DirectoryUsage(this.directory, lastModified, listed, bytes, files,
+                    Collections.unmodifiableList(subdirectories), bytes, files, subdirectories.size());
+        }
+    }
+}
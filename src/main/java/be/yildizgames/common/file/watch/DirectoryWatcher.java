@@ -0,0 +1,354 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file.watch;
+
+import be.yildizgames.common.file.FileResource;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watch a directory and all its sub directories for changes, sub directories created after the watcher started are
+ * registered automatically.
+ * Events are coalesced per path and delivered in batches once no new event was received during the debounce delay,
+ * or at the latest after ten times that delay when changes keep coming.
+ * Watching and delivery happen on a dedicated thread, a daemon platform thread by default, or a thread from a provided
+ * factory, for example a virtual thread factory.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class DirectoryWatcher implements Closeable {
+
+    private static final System.Logger LOGGER = System.getLogger(DirectoryWatcher.class.getName());
+
+    /**
+     * Maximum delay before delivering a batch, expressed in debounce delays.
+     */
+    private static final int MAX_DELAY_FACTOR = 10;
+
+    /**
+     * Watched root directory.
+     */
+    private final Path root;
+
+    /**
+     * Quiet period before delivering a batch, in milliseconds.
+     */
+    private final long debounce;
+
+    /**
+     * Listener receiving the batches.
+     */
+    private final FileChangeListener listener;
+
+    private final WatchService watchService;
+
+    /**
+     * Registered directories, by their watch key.
+     */
+    private final Map<WatchKey, Path> directories = new HashMap<>();
+
+    /**
+     * Pending changes, keyed by path, in detection order.
+     */
+    private final Map<Path, FileChangeEvent.Kind> pending = new LinkedHashMap<>();
+
+    private final Thread thread;
+
+    /**
+     * Time the first pending event was received.
+     */
+    private long firstEventTime;
+
+    /**
+     * Time the last pending event was received.
+     */
+    private long lastEventTime;
+
+    private volatile boolean running;
+
+    private DirectoryWatcher(Path root, Duration debounce, FileChangeListener listener, ThreadFactory threadFactory) throws IOException {
+        super();
+        Objects.requireNonNull(root);
+        Objects.requireNonNull(debounce);
+        Objects.requireNonNull(listener);
+        Objects.requireNonNull(threadFactory);
+        if (!Files.isDirectory(root)) {
+            throw new IllegalArgumentException(root + " is not a directory.");
+        }
+        this.root = root.toAbsolutePath();
+        this.debounce = Math.max(1, debounce.toMillis());
+        this.listener = listener;
+        this.watchService = this.root.getFileSystem().newWatchService();
+        this.thread = threadFactory.newThread(this::run);
+    }
+
+    /**
+     * Create a watcher on a directory, the watcher must be started to receive events.
+     *
+     * @param directory Directory to watch.
+     * @param debounce Quiet period before delivering a batch.
+     * @param listener Listener receiving the batches.
+     * @return The created watcher.
+     */
+    public static DirectoryWatcher create(final Path directory, final Duration debounce, final FileChangeListener listener) {
+        return create(directory, debounce, listener, r -> {
+            Thread thread = new Thread(r, "directory-watcher-" + directory.getFileName());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Create a watcher on a directory, watching and delivering on a thread built by the given factory.
+     * The watcher must be started to receive events.
+     *
+     * @param directory Directory to watch.
+     * @param debounce Quiet period before delivering a batch.
+     * @param listener Listener receiving the batches.
+     * @param threadFactory Factory building the watching thread, for example Thread.ofVirtual().factory().
+     * @return The created watcher.
+     */
+    public static DirectoryWatcher create(final Path directory, final Duration debounce, final FileChangeListener listener, final ThreadFactory threadFactory) {
+        try {
+            return new DirectoryWatcher(directory, debounce, listener, threadFactory);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot create a watcher for " + directory, e);
+        }
+    }
+
+    /**
+     * Create a watcher on a directory resource, the watcher must be started to receive events.
+     *
+     * @param directory Directory to watch.
+     * @param debounce Quiet period before delivering a batch.
+     * @param listener Listener receiving the batches.
+     * @return The created watcher.
+     */
+    public static DirectoryWatcher create(final FileResource directory, final Duration debounce, final FileChangeListener listener) {
+        Objects.requireNonNull(directory);
+        return create(Paths.get(directory.getAbsolutePath()), debounce, listener);
+    }
+
+    /**
+     * Register the directory tree and start the watching thread.
+     *
+     * @return This watcher.
+     */
+    public DirectoryWatcher start() {
+        if (this.running) {
+            return this;
+        }
+        this.registerAll(this.root, false);
+        this.running = true;
+        this.thread.start();
+        return this;
+    }
+
+    /**
+     * @return True if the watcher is started and not closed.
+     */
+    public boolean isRunning() {
+        return this.running;
+    }
+
+    /**
+     * Stop watching, pending events are not delivered.
+     */
+    @Override
+    public void close() {
+        this.running = false;
+        try {
+            this.watchService.close();
+        } catch (IOException e) {
+            LOGGER.log(System.Logger.Level.WARNING, "Error closing watch service", e);
+        }
+    }
+
+    private void run() {
+        try {
+            while (this.running) {
+                WatchKey key = this.pending.isEmpty() ? this.watchService.take() : this.watchService.poll(this.timeToFlush(), TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    this.process(key);
+                }
+                if (!this.pending.isEmpty() && this.timeToFlush() <= 0) {
+                    this.flush();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            //Closed, nothing to do.
+        } finally {
+            this.running = false;
+        }
+    }
+
+    private long timeToFlush() {
+        long now = System.currentTimeMillis();
+        long quiet = this.lastEventTime + this.debounce - now;
+        long max = this.firstEventTime + this.debounce * MAX_DELAY_FACTOR - now;
+        return Math.max(0, Math.min(quiet, max));
+    }
+
+    private void process(WatchKey key) {
+        Path directory = this.directories.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            WatchEvent.Kind<?> kind = event.kind();
+            if (kind == StandardWatchEventKinds.OVERFLOW) {
+                this.add(this.root, FileChangeEvent.Kind.OVERFLOW);
+                this.registerAll(this.root, false);
+                continue;
+            }
+            if (directory == null) {
+                continue;
+            }
+            Path child = directory.resolve((Path) event.context());
+            if (kind == StandardWatchEventKinds.ENTRY_CREATE) {
+                this.add(child, FileChangeEvent.Kind.CREATE);
+                if (Files.isDirectory(child)) {
+                    this.registerAll(child, true);
+                }
+            } else if (kind == StandardWatchEventKinds.ENTRY_MODIFY) {
+                if (!Files.isDirectory(child)) {
+                    this.add(child, FileChangeEvent.Kind.MODIFY);
+                }
+            } else if (kind == StandardWatchEventKinds.ENTRY_DELETE) {
+                this.add(child, FileChangeEvent.Kind.DELETE);
+            }
+        }
+        if (!key.reset()) {
+            this.directories.remove(key);
+        }
+    }
+
+    /**
+     * Merge a new event with the pending one for the same path.
+     *
+     * @param path Changed path.
+     * @param kind Kind of the new event.
+     */
+    private void add(Path path, FileChangeEvent.Kind kind) {
+        long now = System.currentTimeMillis();
+        if (this.pending.isEmpty()) {
+            this.firstEventTime = now;
+        }
+        this.lastEventTime = now;
+        FileChangeEvent.Kind previous = this.pending.get(path);
+        if (previous == null || previous == FileChangeEvent.Kind.OVERFLOW || kind == FileChangeEvent.Kind.OVERFLOW) {
+            this.pending.put(path, kind);
+        } else if (previous == FileChangeEvent.Kind.CREATE) {
+            if (kind == FileChangeEvent.Kind.DELETE) {
+                this.pending.remove(path);
+            }
+        } else if (previous == FileChangeEvent.Kind.DELETE) {
+            if (kind == FileChangeEvent.Kind.CREATE) {
+                this.pending.put(path, FileChangeEvent.Kind.MODIFY);
+            }
+        } else {
+            this.pending.put(path, kind == FileChangeEvent.Kind.DELETE ? kind : FileChangeEvent.Kind.MODIFY);
+        }
+    }
+
+    private void flush() {
+        List<FileChangeEvent> events = new ArrayList<>(this.pending.size());
+        for (Map.Entry<Path, FileChangeEvent.Kind> e : this.pending.entrySet()) {
+            events.add(FileChangeEvent.of(e.getValue(), e.getKey()));
+        }
+        this.pending.clear();
+        if (events.isEmpty()) {
+            return;
+        }
+        try {
+            this.listener.onChanges(events);
+        } catch (RuntimeException e) {
+            LOGGER.log(System.Logger.Level.ERROR, "Error in file change listener", e);
+        }
+    }
+
+    /**
+     * Register a directory and all its sub directories.
+     *
+     * @param start Directory to register.
+     * @param notify If true, a creation event is emitted for the content found, as it may have been created before
+     *               the registration completed.
+     */
+    private void registerAll(Path start, boolean notify) {
+        try {
+            Files.walkFileTree(start, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                    WatchKey key = dir.register(DirectoryWatcher.this.watchService,
+                            StandardWatchEventKinds.ENTRY_CREATE,
+                            StandardWatchEventKinds.ENTRY_MODIFY,
+                            StandardWatchEventKinds.ENTRY_DELETE);
+                    DirectoryWatcher.this.directories.put(key, dir);
+                    if (notify && !dir.equals(start)) {
+                        DirectoryWatcher.this.add(dir, FileChangeEvent.Kind.CREATE);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (notify) {
+                        DirectoryWatcher.this.add(file, FileChangeEvent.Kind.CREATE);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                    LOGGER.log(System.Logger.Level.WARNING, "Cannot watch " + file, exc);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            LOGGER.log(System.Logger.Level.ERROR, "Cannot register " + start, e);
+        } catch (ClosedWatchServiceException e) {
+            //Closed while registering, nothing to do.
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file.watch;
+
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * Change detected on a file or directory by a {@link DirectoryWatcher}.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class FileChangeEvent {
+
+    /**
+     * Kind of change.
+     */
+    private final Kind kind;
+
+    /**
+     * Changed file or directory.
+     */
+    private final Path path;
+
+    private FileChangeEvent(Kind kind, Path path) {
+        super();
+        Objects.requireNonNull(kind);
+        Objects.requireNonNull(path);
+        this.kind = kind;
+        this.path = path;
+    }
+
+    /**
+     * Create a new event.
+     *
+     * @param kind Kind of change.
+     * @param path Changed file or directory.
+     * @return The created event.
+     */
+    public static FileChangeEvent of(final Kind kind, final Path path) {
+        return new FileChangeEvent(kind, path);
+    }
+
+    /**
+     * @return The kind of change.
+     */
+    public Kind getKind() {
+        return this.kind;
+    }
+
+    /**
+     * @return The changed file or directory, for an overflow, the watched root.
+     */
+    public Path getPath() {
+        return this.path;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof FileChangeEvent)) {
+            return false;
+        }
+        FileChangeEvent other = (FileChangeEvent) o;
+        return this.kind == other.kind && this.path.equals(other.path);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * this.kind.hashCode() + this.path.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return this.kind + " " + this.path;
+    }
+
+    public enum Kind {
+
+        /**
+         * A file or directory was created.
+         */
+        CREATE,
+
+        /**
+         * A file content was modified.
+         */
+        MODIFY,
+
+        /**
+         * A file or directory was deleted.
+         */
+        DELETE,
+
+        /**
+         * Some events were lost, the watched tree must be scanned again to know its state.
+         */
+        OVERFLOW
+    }
+}
@@ -0,0 +1,277 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+package be.yildizgames.common.file.watch;
+
+import be.yildizgames.common.file.buffer.BufferPool;
+import be.yildizgames.common.file.buffer.PooledBuffer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read the lines appended to files, remembering for each file the offset after the last complete line read.
+ * Each read only reads the bytes appended since the previous one, an incomplete last line is returned once its line
+ * feed is written.
+ * A file whose size became smaller than the offset is considered truncated, and a file whose identity (inode when
+ * supported by the file system) changed is considered rotated, in both cases it is read again from its start.
+ * Lines are decoded as UTF-8, without their line terminator.
+ * This class is not thread safe.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class FileTailer implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Read state, by absolute file path.
+     */
+    private final Map<Path, TailState> states = new HashMap<>();
+
+    /**
+     * Directories registered in the watch service, by absolute path.
+     */
+    private final Map<Path, WatchKey> watched = new HashMap<>();
+
+    private WatchService watchService;
+
+    private FileTailer() {
+        super();
+    }
+
+    /**
+     * Create a new tailer.
+     *
+     * @return The created tailer.
+     */
+    public static FileTailer create() {
+        return new FileTailer();
+    }
+
+    /**
+     * Read the complete lines appended to a file since the previous call, a file read for the first time is read from
+     * its start.
+     *
+     * @param file File to read.
+     * @return The new lines, empty if none or if the file does not exist.
+     */
+    public List<String> poll(final Path file) {
+        Objects.requireNonNull(file);
+        Path key = file.toAbsolutePath();
+        TailState state = this.states.computeIfAbsent(key, k -> new TailState());
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(key, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return List.of();
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read " + key, e);
+        }
+        Object identity = attributes.fileKey();
+        if (state.identity != null && identity != null && !state.identity.equals(identity) || attributes.size() < state.offset) {
+            state.offset = 0;
+        }
+        state.identity = identity;
+        if (attributes.size() == state.offset) {
+            return List.of();
+        }
+        try {
+            return read(key, state);
+        } catch (NoSuchFileException e) {
+            return List.of();
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read " + key, e);
+        }
+    }
+
+    /**
+     * Wait for complete lines to be appended to a file, blocking on a watch service on the file directory rather than
+     * polling the file.
+     *
+     * @param file File to read.
+     * @param timeout Maximum time to wait.
+     * @return The new lines, empty if none were appended before the timeout.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    public List<String> await(final Path file, final Duration timeout) throws InterruptedException {
+        Objects.requireNonNull(timeout);
+        List<String> lines = this.poll(file);
+        if (!lines.isEmpty()) {
+            return lines;
+        }
+        Path key = file.toAbsolutePath();
+        this.register(key.getParent());
+        long deadline = System.nanoTime() + timeout.toNanos();
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            WatchKey watchKey = this.watchService.poll(remaining, TimeUnit.NANOSECONDS);
+            if (watchKey == null) {
+                break;
+            }
+            boolean changed = false;
+            for (WatchEvent<?> event : watchKey.pollEvents()) {
+                changed |= event.kind() == StandardWatchEventKinds.OVERFLOW
+                        || key.getFileName().equals(event.context());
+            }
+            if (!watchKey.reset()) {
+                this.watched.values().remove(watchKey);
+            }
+            if (changed) {
+                lines = this.poll(key);
+                if (!lines.isEmpty()) {
+                    return lines;
+                }
+            }
+        }
+        return this.poll(key);
+    }
+
+    /**
+     * Move the offset of a file to its end, so only the lines appended after this call will be read.
+     *
+     * @param file File to skip.
+     */
+    public void skipToEnd(final Path file) {
+        Path key = file.toAbsolutePath();
+        TailState state = this.states.computeIfAbsent(key, k -> new TailState());
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(key, BasicFileAttributes.class);
+            state.offset = attributes.size();
+            state.identity = attributes.fileKey();
+        } catch (NoSuchFileException e) {
+            state.offset = 0;
+            state.identity = null;
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read " + key, e);
+        }
+    }
+
+    /**
+     * @param file Read file.
+     * @return The offset after the last complete line read, 0 if the file was never read.
+     */
+    public long getOffset(final Path file) {
+        TailState state = this.states.get(file.toAbsolutePath());
+        return state == null ? 0 : state.offset;
+    }
+
+    /**
+     * Forget the state of a file, it will be read again from its start.
+     *
+     * @param file File to forget.
+     */
+    public void reset(final Path file) {
+        this.states.remove(file.toAbsolutePath());
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.watched.clear();
+        if (this.watchService != null) {
+            this.watchService.close();
+        }
+    }
+
+    private void register(Path directory) {
+        if (this.watched.containsKey(directory)) {
+            return;
+        }
+        try {
+            if (this.watchService == null) {
+                this.watchService = directory.getFileSystem().newWatchService();
+            }
+            this.watched.put(directory, directory.register(this.watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY));
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot watch " + directory, e);
+        }
+    }
+
+    private static List<String> read(Path file, TailState state) throws IOException {
+        List<String> lines = new ArrayList<>();
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             PooledBuffer pooled = BufferPool.getDefault().lease(BUFFER_SIZE)) {
+            ByteBuffer buffer = pooled.buffer();
+            long position = state.offset;
+            while (channel.read(buffer, position) > 0) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    byte b = buffer.get();
+                    position++;
+                    if (b == '\n') {
+                        lines.add(toLine(line));
+                        line.reset();
+                        state.offset = position;
+                    } else {
+                        line.write(b);
+                    }
+                }
+                buffer.clear();
+            }
+        }
+        return lines;
+    }
+
+    private static String toLine(ByteArrayOutputStream line) {
+        String value = new String(line.toByteArray(), StandardCharsets.UTF_8);
+        return value.endsWith("\r") ? value.substring(0, value.length() - 1) : value;
+    }
+
+    /**
+     * Read state of a file.
+     */
+    private static final class TailState {
+
+        /**
+         * Offset after the last complete line read.
+         */
+        private long offset;
+
+        /**
+         * File identity when last read, null if unknown.
+         */
+        private Object identity;
+    }
+}
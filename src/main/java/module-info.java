@@ -26,5 +26,20 @@
  */
 open module be.yildizgames.common.file {
 
+    requires jdk.jfr;
+
     exports be.yildizgames.common.file;
+    exports be.yildizgames.common.file.sync;
+    exports be.yildizgames.common.file.watch;
+    exports be.yildizgames.common.file.metrics;
+    exports be.yildizgames.common.file.buffer;
+    exports be.yildizgames.common.file.transfer;
+    exports be.yildizgames.common.file.index;
+    exports be.yildizgames.common.file.lock;
+    exports be.yildizgames.common.file.store;
+    exports be.yildizgames.common.file.schedule;
+    exports be.yildizgames.common.file.usage;
+    exports be.yildizgames.common.file.sort;
+    exports be.yildizgames.common.file.properties;
+    exports be.yildizgames.common.file.search;
 }
@@ -0,0 +1,167 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.common.file;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Grégory Van den Borre
+ */
+public class CachingSerializerTest {
+
+    @Nested
+    class Read {
+
+        @Test
+        void cached() {
+            CountingSerializer delegate = new CountingSerializer("initial");
+            try (CachingSerializer<String> serializer = CachingSerializer.of(delegate, Duration.ofSeconds(10))) {
+                assertEquals("initial", serializer.readFromFile());
+                assertEquals("initial", serializer.readFromFile());
+                assertEquals(1, delegate.reads.get());
+            }
+        }
+
+        @Test
+        void afterWrite() {
+            CountingSerializer delegate = new CountingSerializer("initial");
+            try (CachingSerializer<String> serializer = CachingSerializer.of(delegate, Duration.ofSeconds(10))) {
+                serializer.writeToFile("new");
+                assertEquals("new", serializer.readFromFile());
+                assertEquals(0, delegate.reads.get());
+            }
+        }
+
+        @Test
+        void invalidate() {
+            CountingSerializer delegate = new CountingSerializer("initial");
+            try (CachingSerializer<String> serializer = CachingSerializer.of(delegate, Duration.ofSeconds(10))) {
+                serializer.readFromFile();
+                serializer.invalidate();
+                serializer.readFromFile();
+                assertEquals(2, delegate.reads.get());
+            }
+        }
+    }
+
+    @Nested
+    class Write {
+
+        @Test
+        void coalesced() throws InterruptedException {
+            CountingSerializer delegate = new CountingSerializer("initial");
+            try (CachingSerializer<String> serializer = CachingSerializer.of(delegate, Duration.ofMillis(50))) {
+                for (int i = 0; i < 100; i++) {
+                    serializer.writeToFile("value" + i);
+                }
+                assertTrue(serializer.isDirty());
+                long deadline = System.currentTimeMillis() + 5000;
+                while (serializer.isDirty() && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(10);
+                }
+                assertFalse(serializer.isDirty());
+                assertEquals(1, delegate.writes.get());
+                assertEquals("value99", delegate.content);
+            }
+        }
+
+        @Test
+        void explicitFlush() {
+            CountingSerializer delegate = new CountingSerializer("initial");
+            try (CachingSerializer<String> serializer = CachingSerializer.of(delegate, Duration.ofSeconds(10))) {
+                serializer.writeToFile("new");
+                serializer.flush();
+                assertEquals("new", delegate.content);
+                serializer.flush();
+                assertEquals(1, delegate.writes.get());
+            }
+        }
+
+        @Test
+        void flushOnClose() {
+            CountingSerializer delegate = new CountingSerializer("initial");
+            CachingSerializer<String> serializer = CachingSerializer.of(delegate, Duration.ofSeconds(10));
+            serializer.writeToFile("new");
+            serializer.close();
+            assertEquals("new", delegate.content);
+            assertThrows(IllegalStateException.class, () -> serializer.writeToFile("other"));
+        }
+
+        @Test
+        void failedFlush() {
+            CountingSerializer delegate = new CountingSerializer("initial");
+            delegate.fail = true;
+            try (CachingSerializer<String> serializer = CachingSerializer.of(delegate, Duration.ofSeconds(10))) {
+                serializer.writeToFile("new");
+                assertThrows(IllegalStateException.class, serializer::flush);
+                assertTrue(serializer.isDirty());
+                delegate.fail = false;
+            }
+            assertEquals("new", delegate.content);
+        }
+    }
+
+    /**
+     * Serializer keeping its content in memory and counting the calls.
+     */
+    private static final class CountingSerializer implements Serializer<String> {
+
+        private final AtomicInteger reads = new AtomicInteger();
+
+        private final AtomicInteger writes = new AtomicInteger();
+
+        private volatile String content;
+
+        private volatile boolean fail;
+
+        private CountingSerializer(String content) {
+            this.content = content;
+        }
+
+        @Override
+        public String readFromFile() {
+            this.reads.incrementAndGet();
+            return this.content;
+        }
+
+        @Override
+        public void writeToFile(String o) {
+            if (this.fail) {
+                throw new IllegalStateException("expected");
+            }
+            this.writes.incrementAndGet();
+            this.content = o;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.common.file;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Grégory Van den Borre
+ */
+public class ClasspathResourceLoaderTest {
+
+    @Nested
+    class GetPath {
+
+        @Test
+        void inDirectory() throws IOException {
+            ClasspathResourceLoader loader = ClasspathResourceLoader.create(this.getClass().getClassLoader());
+            Path path = loader.getPath("test-resource.txt");
+            assertTrue(Files.exists(path));
+            assertSame(path, loader.getPath("test-resource.txt"));
+        }
+
+        @Test
+        void inJar() throws IOException {
+            try (URLClassLoader classLoader = jarClassLoader()) {
+                ClasspathResourceLoader loader = ClasspathResourceLoader.create(classLoader);
+                Path path = loader.getPath("templates/with space.txt");
+                assertEquals("jar", path.getFileSystem().provider().getScheme());
+                assertEquals("template", Files.readString(path));
+                Path other = ClasspathResourceLoader.create(classLoader).getPath("templates/other.txt");
+                assertSame(path.getFileSystem(), other.getFileSystem());
+            }
+        }
+
+        @Test
+        void fromResourceUtil() throws Exception {
+            Path path = ResourceUtil.getFileFromClassPath(this.getClass(), "test-resource.txt");
+            assertTrue(Files.exists(path));
+            assertEquals(path, ResourceUtil.getFileFromClassPath(this.getClass(), "test-resource.txt"));
+        }
+
+        @Test
+        void sharedDoesNotRetainClassLoader() throws Exception {
+            WeakReference<URLClassLoader> reference = sharedJarLoader();
+            for (int i = 0; i < 100 && reference.get() != null; i++) {
+                System.gc();
+                Thread.sleep(10);
+            }
+            assertNull(reference.get());
+        }
+
+        @Test
+        void notExisting() {
+            ClasspathResourceLoader loader = ClasspathResourceLoader.create(this.getClass().getClassLoader());
+            assertFalse(loader.find("not-existing.txt").isPresent());
+            assertThrows(IllegalStateException.class, () -> loader.getPath("not-existing.txt"));
+        }
+    }
+
+    @Nested
+    class Content {
+
+        @Test
+        void bytesAndChannel() throws IOException {
+            try (URLClassLoader classLoader = jarClassLoader()) {
+                ClasspathResourceLoader loader = ClasspathResourceLoader.create(classLoader, 1024);
+                assertArrayEquals("template".getBytes(StandardCharsets.UTF_8), loader.getBytes("templates/with space.txt"));
+                assertEquals(8, loader.getCachedBytes());
+                ByteBuffer buffer = loader.getBuffer("templates/with space.txt");
+                assertTrue(buffer.isReadOnly());
+                try (SeekableByteChannel channel = loader.newChannel("templates/other.txt")) {
+                    assertEquals(5, channel.size());
+                }
+            }
+        }
+
+        @Test
+        void eviction() throws IOException {
+            try (URLClassLoader classLoader = jarClassLoader()) {
+                ClasspathResourceLoader loader = ClasspathResourceLoader.create(classLoader, 10);
+                loader.getBytes("templates/with space.txt");
+                loader.getBytes("templates/other.txt");
+                assertEquals(5, loader.getCachedBytes());
+                loader.clear();
+                assertEquals(0, loader.getCachedBytes());
+            }
+        }
+
+        @Test
+        void noCache() throws IOException {
+            try (URLClassLoader classLoader = jarClassLoader()) {
+                ClasspathResourceLoader loader = ClasspathResourceLoader.create(classLoader);
+                loader.getBytes("templates/other.txt");
+                assertEquals(0, loader.getCachedBytes());
+            }
+        }
+
+        @Test
+        void negativeCache() {
+            assertThrows(IllegalArgumentException.class, () -> ClasspathResourceLoader.create(this.getClass().getClassLoader(), -1));
+        }
+    }
+
+    /**
+     * Use a shared loader for a new class loader, and only keep a weak reference to that class loader.
+     */
+    private static WeakReference<URLClassLoader> sharedJarLoader() throws IOException {
+        URLClassLoader classLoader = jarClassLoader();
+        assertTrue(ClasspathResourceLoader.shared(classLoader).find("templates/other.txt").isPresent());
+        classLoader.close();
+        return new WeakReference<>(classLoader);
+    }
+
+    private static URLClassLoader jarClassLoader() throws IOException {
+        Path jar = Files.createTempDirectory("loader").resolve("resources.jar");
+        try (OutputStream os = Files.newOutputStream(jar); ZipOutputStream zip = new ZipOutputStream(os)) {
+            zip.putNextEntry(new ZipEntry("templates/with space.txt"));
+            zip.write("template".getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+            zip.putNextEntry(new ZipEntry("templates/other.txt"));
+            zip.write("other".getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+        return new URLClassLoader(new URL[]{jar.toUri().toURL()}, null);
+    }
+}
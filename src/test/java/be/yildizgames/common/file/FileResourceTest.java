@@ -24,6 +24,9 @@
 
 package be.yildizgames.common.file;
 
+import be.yildizgames.common.file.search.ContentSearch;
+import be.yildizgames.common.file.search.SearchMatch;
+import be.yildizgames.common.file.usage.DirectoryUsage;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -33,8 +36,11 @@ import java.net.URISyntaxException;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -65,6 +71,29 @@ public final class  FileResourceTest {
         void fromNull() {
             assertThrows(NullPointerException.class, () -> FileResource.findResource(null));
         }
+
+        @Test
+        void withPlusInName() throws IOException {
+            Path file = Files.createTempDirectory("test").resolve("a+b%20c.txt");
+            Files.writeString(file, "content");
+            assertThrows(IllegalStateException.class, () -> FileResource.findResource(file.toString()));
+            assertEquals(file.toString(), FileResource.findResource(file.toString(), DecodeMode.NONE).getName());
+        }
+
+        @Test
+        void fromPath() throws IOException {
+            Path file = Files.createTempDirectory("test").resolve("a+b%20c.txt");
+            Files.writeString(file, "content");
+            FileResource f = FileResource.fromPath(file);
+            assertEquals(file.toString(), f.getName());
+            assertEquals(7, f.getSize());
+        }
+
+        @Test
+        void fromPathNotExisting() throws IOException {
+            Path file = Files.createTempDirectory("test").resolve("missing.txt");
+            assertThrows(IllegalStateException.class, () -> FileResource.fromPath(file));
+        }
     }
 
     @Nested
@@ -80,6 +109,16 @@ public final class  FileResourceTest {
             assertTrue(Files.isRegularFile(file));
         }
 
+        @Test
+        void notDecoded() throws IOException {
+            Path folder = Files.createTempDirectory("test");
+            Path file = folder.resolve("a+b");
+            FileResource f = FileResource.createFile(file);
+            assertTrue(Files.isRegularFile(file));
+            assertFalse(Files.exists(folder.resolve("a b")));
+            assertEquals(file.toAbsolutePath().toString(), f.getName());
+        }
+
         @Test
         void fromNull() {
             assertThrows(NullPointerException.class, () -> FileResource.createFile((Path) null));
@@ -160,6 +199,44 @@ public final class  FileResourceTest {
         }
     }
 
+    @Nested
+    class CreateResources {
+
+        @Test
+        void files() throws IOException {
+            Path folder = Files.createTempDirectory("test");
+            Path existing = folder.resolve("a").resolve("existing.txt");
+            Files.createDirectories(existing.getParent());
+            Files.writeString(existing, "content");
+            List<Path> paths = new ArrayList<>();
+            paths.add(existing);
+            for (int i = 0; i < 40; i++) {
+                paths.add(folder.resolve("dir" + (i % 4)).resolve("sub").resolve("file" + i + ".txt"));
+            }
+            List<FileResource> result = FileResource.createFileResources(paths, FileResource.FileType.FILE);
+            assertEquals(paths.size(), result.size());
+            for (int i = 0; i < paths.size(); i++) {
+                assertTrue(Files.isRegularFile(paths.get(i)));
+                assertEquals(paths.get(i).toString(), result.get(i).getName());
+            }
+            assertEquals("content", Files.readString(existing));
+        }
+
+        @Test
+        void directories() throws IOException {
+            Path folder = Files.createTempDirectory("test");
+            List<Path> paths = List.of(folder.resolve("a"), folder.resolve("a").resolve("b"), folder.resolve("c"));
+            FileResource.createFileResources(paths, FileResource.FileType.DIRECTORY);
+            assertTrue(paths.stream().allMatch(Files::isDirectory));
+        }
+
+        @Test
+        void existingDirectoryAsFile() throws IOException {
+            Path folder = Files.createTempDirectory("test");
+            assertThrows(IllegalStateException.class, () -> FileResource.createFileResources(List.of(folder), FileResource.FileType.FILE));
+        }
+    }
+
     @Nested
     class ListFile {
 
@@ -186,6 +263,142 @@ public final class  FileResourceTest {
         }
     }
 
+    @Nested
+    class Check {
+
+        @Test
+        void withUnderscoreInName() throws IOException {
+            Path folder = Files.createTempDirectory("test_check");
+            Path file = folder.resolve("file_with_underscore.txt");
+            Files.writeString(file, "content");
+            FileResource f = FileResource.findResource(file.toString());
+            f.check(f.getName() + "_" + f.getCrc32() + "_" + f.getSize());
+        }
+
+        @Test
+        void sizeMismatch() throws IOException {
+            Path folder = Files.createTempDirectory("test_check");
+            Path file = folder.resolve("file_with_underscore.txt");
+            Files.writeString(file, "content");
+            FileResource f = FileResource.findResource(file.toString());
+            assertThrows(IllegalStateException.class, () -> f.check(f.getName() + "_" + f.getCrc32() + "_1"));
+        }
+
+        @Test
+        void invalidValue() throws IOException {
+            Path file = Files.createTempFile("test", ".txt");
+            FileResource f = FileResource.findResource(file.toString());
+            assertThrows(IllegalArgumentException.class, () -> f.check("invalid"));
+        }
+    }
+
+    @Nested
+    class Snapshot {
+
+        @Test
+        void keepValueUntilRefresh() throws IOException {
+            Path file = Files.createTempFile("test", ".txt");
+            Files.writeString(file, "abc");
+            FileResource f = FileResource.findResource(file.toString()).snapshot(Duration.ZERO);
+            assertTrue(f.isSnapshot());
+            Files.writeString(file, "abcdef");
+            assertEquals(3, f.getSize());
+            f.refresh();
+            assertEquals(6, f.getSize());
+        }
+
+        @Test
+        void expired() throws IOException, InterruptedException {
+            Path file = Files.createTempFile("test", ".txt");
+            Files.writeString(file, "abc");
+            FileResource f = FileResource.findResource(file.toString()).snapshot(Duration.ofMillis(1));
+            Files.writeString(file, "abcdef");
+            Thread.sleep(5);
+            assertEquals(6, f.getSize());
+        }
+
+        @Test
+        void deleted() throws IOException {
+            Path file = Files.createTempFile("test", ".txt");
+            FileResource f = FileResource.findResource(file.toString()).snapshot(Duration.ZERO);
+            assertTrue(f.exists());
+            f.deleteFile();
+            assertFalse(f.exists());
+        }
+
+        @Test
+        void listFile() throws IOException, URISyntaxException {
+            Path file = ResourceUtil.getFileFromClassPath(this.getClass(), "fileresource-listfiles");
+            FileResource f = FileResource.findResource(file.toString());
+            List<FileResource> result = f.listFileSnapshot(Duration.ZERO);
+            assertEquals(2, result.size());
+            assertTrue(result.stream().allMatch(FileResource::isSnapshot));
+            assertTrue(result.containsAll(f.listFile()));
+        }
+    }
+
+    @Nested
+    class DiskUsage {
+
+        @Test
+        void happyFlow() throws IOException {
+            Path dir = Files.createTempDirectory("test");
+            Files.createDirectories(dir.resolve("sub"));
+            Files.writeString(dir.resolve("a.txt"), "abc");
+            Files.writeString(dir.resolve("sub").resolve("b.txt"), "abcdef");
+            DirectoryUsage usage = FileResource.createDirectory(dir).getDiskUsage();
+            assertEquals(9, usage.getBytes());
+            assertEquals(2, usage.getFileCount());
+            assertEquals(1, usage.getDirectoryCount());
+        }
+    }
+
+    @Nested
+    class Search {
+
+        @Test
+        void happyFlow() throws IOException {
+            Path dir = Files.createTempDirectory("test");
+            Files.writeString(dir.resolve("a.txt"), "abc\nneedle");
+            Files.writeString(dir.resolve("b.txt"), "abc");
+            try (Stream<SearchMatch> matches = FileResource.createDirectory(dir).search(ContentSearch.literal("needle"))) {
+                List<SearchMatch> result = matches.collect(Collectors.toList());
+                assertEquals(1, result.size());
+                assertEquals(2, result.get(0).getLineNumber());
+            }
+        }
+    }
+
+    @Nested
+    class Equality {
+
+        @Test
+        void sameFile() throws IOException {
+            Path file = Files.createTempFile("test", ".txt");
+            FileResource f1 = FileResource.findResource(file.toString());
+            FileResource f2 = FileResource.findResource(file.toString());
+            assertEquals(f1, f2);
+            assertEquals(f1.hashCode(), f2.hashCode());
+        }
+
+        @Test
+        void differentFile() throws IOException {
+            FileResource f1 = FileResource.findResource(Files.createTempFile("test", ".txt").toString());
+            FileResource f2 = FileResource.findResource(Files.createTempFile("test", ".txt").toString());
+            assertFalse(f1.equals(f2));
+        }
+
+        @Test
+        void afterDelete() throws IOException {
+            Path file = Files.createTempFile("test", ".txt");
+            FileResource f1 = FileResource.findResource(file.toString());
+            FileResource f2 = FileResource.findResource(file.toString());
+            f1.deleteFile();
+            assertFalse(f1.equals(f2));
+            assertEquals("", f1.getName());
+        }
+    }
+
     @Nested
     class FileTypeEnum {
 
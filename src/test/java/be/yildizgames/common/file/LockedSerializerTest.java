@@ -0,0 +1,91 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.common.file;
+
+import be.yildizgames.common.file.lock.FileLocks;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Grégory Van den Borre
+ */
+public class LockedSerializerTest {
+
+    @Nested
+    class ReadWrite {
+
+        @Test
+        void happyFlow() throws IOException {
+            Path file = Files.createTempFile("serializer", ".txt");
+            FileLocks locks = FileLocks.create(4, false);
+            Serializer<String> serializer = LockedSerializer.of(new StringSerializer(file, locks), file, locks);
+            serializer.writeToFile("value");
+            assertEquals("value", serializer.readFromFile());
+        }
+
+        @Test
+        void fromNull() {
+            assertThrows(NullPointerException.class, () -> LockedSerializer.of(null, Path.of("a")));
+        }
+    }
+
+    /**
+     * Serializer checking it is called while the lock is held.
+     */
+    private static final class StringSerializer implements Serializer<String> {
+
+        private final Path file;
+
+        private final FileLocks locks;
+
+        private StringSerializer(Path file, FileLocks locks) {
+            this.file = file;
+            this.locks = locks;
+        }
+
+        @Override
+        public String readFromFile() {
+            assertFalse(this.locks.getLock(this.file).writeLock().tryLock());
+            return String.join("", ResourceUtil.readAllLines(this.file));
+        }
+
+        @Override
+        public void writeToFile(String o) {
+            assertTrue(((ReentrantReadWriteLock) this.locks.getLock(this.file)).isWriteLockedByCurrentThread());
+            ResourceUtil.writeAllLines(this.file, List.of(o));
+        }
+    }
+}
@@ -31,7 +31,16 @@ import org.junit.jupiter.api.Test;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.CRC32;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -124,5 +133,158 @@ public class ResourceUtilTest {
         }
     }
 
-}
+    @Nested
+    class ReadAllBytes {
+
+        @Test
+        void happyFlow() throws IOException {
+            Path file = Files.createTempFile("test", ".bin");
+            byte[] content = new byte[200_000];
+            new Random(42).nextBytes(content);
+            Files.write(file, content);
+            assertArrayEquals(content, ResourceUtil.readAllBytes(file));
+        }
+
+        @Test
+        void empty() throws IOException {
+            Path file = Files.createTempFile("test", ".bin");
+            assertEquals(0, ResourceUtil.readAllBytes(file).length);
+        }
+    }
+
+    @Nested
+    class ComputeCrc32 {
+
+        @Test
+        void happyFlow() throws IOException {
+            Path file = Files.createTempFile("test", ".bin");
+            byte[] content = new byte[200_000];
+            new Random(42).nextBytes(content);
+            Files.write(file, content);
+            CRC32 expected = new CRC32();
+            expected.update(content);
+            assertEquals(expected.getValue(), ResourceUtil.computeCrc32(file));
+        }
+    }
+
+    @Nested
+    class ReadAll {
+
+        @Test
+        void happyFlow() throws IOException {
+            Path folder = Files.createTempDirectory("test");
+            List<Path> files = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                Path file = folder.resolve("file" + i + ".txt");
+                Files.writeString(file, "content" + i);
+                files.add(file);
+            }
+            Map<Path, FileContent> result = ResourceUtil.readAll(files, 4);
+            assertEquals(files, new ArrayList<>(result.keySet()));
+            for (int i = 0; i < 50; i++) {
+                assertEquals("content" + i, result.get(files.get(i)).getString());
+            }
+        }
+
+        @Test
+        void withError() throws IOException {
+            Path folder = Files.createTempDirectory("test");
+            Path existing = folder.resolve("existing.txt");
+            Files.writeString(existing, "ok");
+            Path missing = folder.resolve("missing.txt");
+            Map<Path, FileContent> result = ResourceUtil.readAll(List.of(existing, missing));
+            assertTrue(result.get(existing).isSuccess());
+            assertFalse(result.get(missing).isSuccess());
+            assertTrue(result.get(missing).getError().isPresent());
+            assertThrows(IllegalStateException.class, () -> result.get(missing).getContent());
+        }
+
+        @Test
+        void invalidParallelism() {
+            assertThrows(IllegalArgumentException.class, () -> ResourceUtil.readAll(List.of(), 0));
+        }
+    }
+
+    @Nested
+    class Decode {
+
+        @Test
+        void nothingToDecode() {
+            String value = "/some/plain/path.txt";
+            assertSame(value, ResourceUtil.decode(value));
+            assertSame(value, ResourceUtil.decode(value, DecodeMode.PERCENT));
+        }
 
+        @Test
+        void url() {
+            assertEquals("a b c", ResourceUtil.decode("a%20b+c"));
+        }
+
+        @Test
+        void percent() {
+            assertEquals("a b+c", ResourceUtil.decode("a%20b+c", DecodeMode.PERCENT));
+            String value = "a+b";
+            assertSame(value, ResourceUtil.decode(value, DecodeMode.PERCENT));
+        }
+
+        @Test
+        void none() {
+            String value = "a%20b+c";
+            assertSame(value, ResourceUtil.decode(value, DecodeMode.NONE));
+        }
+    }
+
+    @Nested
+    class CreateDirectoryTrees {
+
+        @Test
+        void happyFlow() throws IOException {
+            Path folder = Files.createTempDirectory("test");
+            List<Path> directories = new ArrayList<>();
+            for (int i = 0; i < 30; i++) {
+                directories.add(folder.resolve("a" + (i % 3)).resolve("b" + i));
+                directories.add(folder.resolve("a" + (i % 3)));
+            }
+            ResourceUtil.createDirectoryTrees(directories, 4);
+            for (Path directory : directories) {
+                assertTrue(Files.isDirectory(directory));
+            }
+        }
+
+        @Test
+        void plan() {
+            Path root = Path.of("root").toAbsolutePath();
+            List<Path> plan = BatchCreator.plan(List.of(root.resolve("a"), root.resolve("a").resolve("b"),
+                    root.resolve("a-b"), root.resolve("a").resolve("b"), root.resolve("c")));
+            assertEquals(3, plan.size());
+            assertTrue(plan.containsAll(List.of(root.resolve("a").resolve("b"), root.resolve("a-b"), root.resolve("c"))));
+        }
+
+        @Test
+        void existingFile() throws IOException {
+            Path file = Files.createTempFile("test", ".txt");
+            assertThrows(IllegalStateException.class, () -> ResourceUtil.createDirectoryTrees(List.of(file)));
+        }
+    }
+
+    @Nested
+    class DeleteDirectoryTree {
+
+        @Test
+        void happyFlow() throws IOException {
+            Path folder = Files.createTempDirectory("test");
+            Files.createDirectories(folder.resolve("a").resolve("b"));
+            Files.writeString(folder.resolve("a").resolve("b").resolve("file.txt"), "content");
+            Files.writeString(folder.resolve("root.txt"), "content");
+            ResourceUtil.deleteDirectoryTree(folder);
+            assertTrue(Files.notExists(folder));
+        }
+
+        @Test
+        void notExisting() {
+            Path folder = Path.of("notexisting").toAbsolutePath();
+            assertThrows(IllegalStateException.class, () -> ResourceUtil.deleteDirectoryTree(folder));
+        }
+    }
+
+}
@@ -0,0 +1,103 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.common.file.buffer;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Grégory Van den Borre
+ */
+public class BufferPoolTest {
+
+    @Nested
+    class Acquire {
+
+        @Test
+        void sizeClass() {
+            BufferPool pool = BufferPool.create(2);
+            ByteBuffer buffer = pool.acquire(1000);
+            assertTrue(buffer.isDirect());
+            assertEquals(4 * 1024, buffer.capacity());
+            assertEquals(4 * 1024, buffer.remaining());
+            assertEquals(64 * 1024, pool.acquire(5000).capacity());
+        }
+
+        @Test
+        void reused() {
+            BufferPool pool = BufferPool.create(2);
+            ByteBuffer buffer = pool.acquire(1000);
+            buffer.put((byte) 1);
+            pool.release(buffer);
+            ByteBuffer reused = pool.acquire(10);
+            assertSame(buffer, reused);
+            assertEquals(0, reused.position());
+            assertNotSame(reused, pool.acquire(10));
+        }
+
+        @Test
+        void tooLarge() {
+            BufferPool pool = BufferPool.create(2);
+            ByteBuffer buffer = pool.acquire(3 * 1024 * 1024);
+            assertEquals(3 * 1024 * 1024, buffer.capacity());
+            pool.release(buffer);
+            assertNotSame(buffer, pool.acquire(3 * 1024 * 1024));
+        }
+
+        @Test
+        void invalidSlots() {
+            assertThrows(IllegalArgumentException.class, () -> BufferPool.create(0));
+        }
+    }
+
+    @Nested
+    class Lease {
+
+        @Test
+        void releasedOnClose() {
+            BufferPool pool = BufferPool.create(2);
+            ByteBuffer buffer;
+            try (PooledBuffer pooled = pool.lease(100)) {
+                buffer = pooled.buffer();
+            }
+            assertSame(buffer, pool.acquire(100));
+        }
+
+        @Test
+        void closed() {
+            PooledBuffer pooled = BufferPool.create(2).lease(100);
+            pooled.close();
+            assertThrows(IllegalStateException.class, pooled::buffer);
+        }
+    }
+}
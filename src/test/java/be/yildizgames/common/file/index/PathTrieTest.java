@@ -0,0 +1,124 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.common.file.index;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Grégory Van den Borre
+ */
+public class PathTrieTest {
+
+    @Nested
+    class Intern {
+
+        @Test
+        void sharedPrefix() {
+            PathTrie trie = PathTrie.create();
+            int wall = trie.intern("assets/textures/wall.png");
+            int floor = trie.intern("assets/textures/floor.png");
+            assertEquals(5, trie.size());
+            assertEquals(trie.getParent(wall), trie.getParent(floor));
+            assertEquals("assets/textures/wall.png", trie.getPath(wall));
+            assertEquals("floor.png", trie.getName(floor));
+        }
+
+        @Test
+        void same() {
+            PathTrie trie = PathTrie.create();
+            assertEquals(trie.intern("a/b"), trie.intern("a\\b"));
+        }
+
+        @Test
+        void root() {
+            PathTrie trie = PathTrie.create();
+            assertEquals(PathTrie.ROOT, trie.intern(""));
+            assertEquals("", trie.getPath(PathTrie.ROOT));
+            assertEquals(-1, trie.getParent(PathTrie.ROOT));
+        }
+
+        @Test
+        void invalid() {
+            PathTrie trie = PathTrie.create();
+            assertThrows(IllegalArgumentException.class, () -> trie.intern("/a"));
+            assertThrows(IllegalArgumentException.class, () -> trie.intern("a//b"));
+            assertThrows(NullPointerException.class, () -> trie.intern(null));
+        }
+
+        @Test
+        void many() {
+            PathTrie trie = PathTrie.create();
+            for (int i = 0; i < 5000; i++) {
+                trie.intern("dir" + (i % 7) + "/file" + i);
+            }
+            assertEquals(1 + 7 + 5000, trie.size());
+            assertEquals("dir3/file10", trie.getPath(trie.find("dir3/file10")));
+        }
+    }
+
+    @Nested
+    class Find {
+
+        @Test
+        void notExisting() {
+            PathTrie trie = PathTrie.create();
+            trie.intern("a/b");
+            assertEquals(-1, trie.find("a/c"));
+            assertEquals(-1, trie.find("b"));
+            assertTrue(trie.find("a") > 0);
+        }
+
+        @Test
+        void invalidNode() {
+            assertThrows(IndexOutOfBoundsException.class, () -> PathTrie.create().getPath(1));
+        }
+    }
+
+    @Nested
+    class Subtree {
+
+        @Test
+        void happyFlow() {
+            PathTrie trie = PathTrie.create();
+            trie.intern("a/b/c");
+            trie.intern("a/d");
+            trie.intern("e");
+            List<String> paths = new ArrayList<>();
+            trie.forEachInSubtree(trie.find("a"), n -> paths.add(trie.getPath(n)));
+            assertEquals(4, paths.size());
+            assertEquals("a", paths.get(0));
+            assertTrue(paths.indexOf("a/b") < paths.indexOf("a/b/c"));
+            assertTrue(paths.contains("a/d"));
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.common.file.index;
+
+import be.yildizgames.common.file.sync.ChecksumCache;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Grégory Van den Borre
+ */
+public class ResourceIndexTest {
+
+    @Nested
+    class Add {
+
+        @Test
+        void happyFlow() {
+            ResourceIndex index = ResourceIndex.create();
+            int id = index.add("assets/textures/wall.png", 12, 34, 0xFFFFFFF0L);
+            assertEquals(1, index.size());
+            assertEquals("assets/textures/wall.png", index.getPath(id));
+            assertEquals(12, index.getSize(id));
+            assertEquals(34, index.getLastModified(id));
+            assertEquals(0xFFFFFFF0L, index.getCrc(id));
+        }
+
+        @Test
+        void update() {
+            ResourceIndex index = ResourceIndex.create();
+            int id = index.add("a/b.txt", 1, 1, 1);
+            assertEquals(id, index.add("a/b.txt", 2, 2, 2));
+            assertEquals(1, index.size());
+            assertEquals(2, index.getSize(id));
+        }
+
+        @Test
+        void many() {
+            ResourceIndex index = ResourceIndex.create();
+            for (int i = 0; i < 10_000; i++) {
+                index.add("dir" + (i % 10) + "/file" + i, i, 0, 0);
+            }
+            assertEquals(10_000, index.size());
+            for (int i = 0; i < 10_000; i += 97) {
+                assertEquals(i, index.getSize(index.find("dir" + (i % 10) + "/file" + i)));
+            }
+        }
+
+        @Test
+        void invalidPath() {
+            ResourceIndex index = ResourceIndex.create();
+            assertThrows(IllegalArgumentException.class, () -> index.add("/absolute", 0, 0, 0));
+            assertThrows(IllegalArgumentException.class, () -> index.add("", 0, 0, 0));
+        }
+    }
+
+    @Nested
+    class Find {
+
+        @Test
+        void notExisting() {
+            ResourceIndex index = ResourceIndex.create();
+            index.add("a/b.txt", 1, 1, 1);
+            assertEquals(-1, index.find("a/c.txt"));
+            assertEquals(-1, index.find("a"));
+            assertEquals(-1, index.find("b.txt/a"));
+        }
+
+        @Test
+        void invalidId() {
+            assertThrows(IndexOutOfBoundsException.class, () -> ResourceIndex.create().getSize(0));
+        }
+    }
+
+    @Nested
+    class Build {
+
+        @Test
+        void happyFlow() throws IOException {
+            Path root = Files.createTempDirectory("index");
+            Files.createDirectories(root.resolve("sub"));
+            Files.writeString(root.resolve("sub").resolve("file.txt"), "content");
+            Files.writeString(root.resolve("root.txt"), "abc");
+            ResourceIndex index = ResourceIndex.build(root, ChecksumCache.create());
+            assertEquals(2, index.size());
+            int id = index.find("sub/file.txt");
+            assertEquals(7, index.getSize(id));
+            assertEquals(ChecksumCache.create().getCrc(root.resolve("sub").resolve("file.txt")), index.getCrc(id));
+            assertEquals(root.resolve("sub").resolve("file.txt").toAbsolutePath().toString(), index.toFileResource(id, root).getName());
+            List<String> paths = new ArrayList<>();
+            index.forEach((entry, size, lastModified, crc) -> paths.add(index.getPath(entry)));
+            assertTrue(paths.contains("root.txt") && paths.contains("sub/file.txt"));
+        }
+    }
+
+    @Nested
+    class ForEachUnder {
+
+        @Test
+        void happyFlow() {
+            ResourceIndex index = ResourceIndex.create();
+            index.add("assets/textures/wall.png", 1, 0, 0);
+            index.add("assets/textures/sub/floor.png", 2, 0, 0);
+            index.add("assets/textures2/other.png", 3, 0, 0);
+            index.add("assets/sounds/step.ogg", 4, 0, 0);
+            List<String> paths = new ArrayList<>();
+            index.forEachUnder("assets/textures", (entry, size, lastModified, crc) -> paths.add(index.getPath(entry)));
+            assertEquals(2, paths.size());
+            assertTrue(paths.contains("assets/textures/wall.png") && paths.contains("assets/textures/sub/floor.png"));
+        }
+
+        @Test
+        void all() {
+            ResourceIndex index = ResourceIndex.create();
+            index.add("a/b", 1, 0, 0);
+            index.add("c", 2, 0, 0);
+            List<Integer> ids = new ArrayList<>();
+            index.forEachUnder("", (entry, size, lastModified, crc) -> ids.add(entry));
+            assertEquals(2, ids.size());
+        }
+
+        @Test
+        void notExisting() {
+            ResourceIndex index = ResourceIndex.create();
+            index.add("a/b", 1, 0, 0);
+            index.forEachUnder("x", (entry, size, lastModified, crc) -> {
+                throw new AssertionError();
+            });
+        }
+
+        @Test
+        void sharedTrie() {
+            PathTrie trie = PathTrie.create();
+            ResourceIndex first = ResourceIndex.create(trie);
+            ResourceIndex second = ResourceIndex.create(trie);
+            first.add("a/b", 1, 0, 0);
+            second.add("a/c", 2, 0, 0);
+            assertEquals(-1, first.find("a/c"));
+            assertEquals(2, second.getSize(second.find("a/c")));
+            assertEquals(4, trie.size());
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.common.file.lock;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Grégory Van den Borre
+ */
+public class FileLocksTest {
+
+    @Nested
+    class Read {
+
+        @Test
+        void parallelReaders() throws Exception {
+            Path file = Files.createTempFile("lock", ".txt");
+            FileLocks locks = FileLocks.create(4, true);
+            CountDownLatch bothInside = new CountDownLatch(2);
+            AtomicBoolean parallel = new AtomicBoolean();
+            Runnable reader = () -> {
+                try {
+                    locks.read(file, () -> {
+                        bothInside.countDown();
+                        try {
+                            parallel.set(bothInside.await(5, TimeUnit.SECONDS));
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return null;
+                    });
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            };
+            Thread first = new Thread(reader);
+            Thread second = new Thread(reader);
+            first.start();
+            second.start();
+            first.join();
+            second.join();
+            assertTrue(parallel.get());
+            assertTrue(Files.exists(file.resolveSibling(file.getFileName() + ".lock")));
+        }
+
+        @Test
+        void result() throws IOException {
+            Path file = Files.createTempFile("lock", ".txt");
+            assertEquals("ok", FileLocks.getDefault().read(file, () -> "ok"));
+        }
+    }
+
+    @Nested
+    class Write {
+
+        @Test
+        void exclusive() throws Exception {
+            Path file = Files.createTempFile("lock", ".txt");
+            FileLocks locks = FileLocks.create(4, true);
+            AtomicInteger inside = new AtomicInteger();
+            AtomicBoolean overlap = new AtomicBoolean();
+            Runnable writer = () -> {
+                for (int i = 0; i < 50; i++) {
+                    try {
+                        locks.write(file, () -> {
+                            if (inside.incrementAndGet() > 1) {
+                                overlap.set(true);
+                            }
+                            Files.writeString(file, "value");
+                            inside.decrementAndGet();
+                            return null;
+                        });
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            };
+            Thread first = new Thread(writer);
+            Thread second = new Thread(writer);
+            first.start();
+            second.start();
+            first.join();
+            second.join();
+            assertFalse(overlap.get());
+        }
+
+        @Test
+        void error() throws IOException {
+            Path file = Files.createTempFile("lock", ".txt");
+            FileLocks locks = FileLocks.create(4, true);
+            assertThrows(IOException.class, () -> locks.write(file, () -> {
+                throw new IOException("expected");
+            }));
+            assertEquals("ok", locks.write(file, () -> "ok"));
+        }
+    }
+
+    @Nested
+    class GetLock {
+
+        @Test
+        void samePath() throws IOException {
+            Path file = Files.createTempFile("lock", ".txt");
+            FileLocks locks = FileLocks.create(16, false);
+            assertSame(locks.getLock(file), locks.getLock(file.getParent().resolve(".").resolve(file.getFileName())));
+            assertFalse(locks.isProcessLocking());
+        }
+
+        @Test
+        void invalidStripes() {
+            assertThrows(IllegalArgumentException.class, () -> FileLocks.create(0, false));
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.common.file.metrics;
+
+import be.yildizgames.common.file.ResourceUtil;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Grégory Van den Borre
+ */
+public class FileMetricsTest {
+
+    @Nested
+    class Counter {
+
+        @Test
+        void happyFlow() throws IOException {
+            FileOperationCounter counter = FileOperationCounter.create();
+            FileMetrics.register(counter);
+            try {
+                Path file = Files.createTempDirectory("metrics").resolve("file.txt");
+                ResourceUtil.writeAllLines(file, List.of("abc", "def"));
+                ResourceUtil.addLine(file, "\nghi");
+                ResourceUtil.readAllLines(file);
+                assertEquals(1, counter.getCount(FileOperation.WRITE_LINES));
+                assertEquals(7, counter.getBytes(FileOperation.WRITE_LINES));
+                assertEquals(4, counter.getBytes(FileOperation.ADD_LINE));
+                assertEquals(11, counter.getBytes(FileOperation.READ_LINES));
+                assertEquals(0, counter.getErrorCount(FileOperation.READ_LINES));
+                assertEquals(1, counter.getLatency(FileOperation.READ_LINES).getTotalCount());
+            } finally {
+                FileMetrics.unregister(counter);
+            }
+        }
+
+        @Test
+        void swallowedError() throws IOException {
+            FileOperationCounter counter = FileOperationCounter.create();
+            FileMetrics.register(counter);
+            try {
+                ResourceUtil.readAllLines(Files.createTempDirectory("metrics"));
+                assertEquals(1, counter.getErrorCount(FileOperation.READ_LINES));
+            } finally {
+                FileMetrics.unregister(counter);
+            }
+        }
+
+        @Test
+        void unregistered() throws IOException {
+            FileOperationCounter counter = FileOperationCounter.create();
+            FileMetrics.register(counter);
+            FileMetrics.unregister(counter);
+            ResourceUtil.readAllLines(Files.createTempFile("metrics", ".txt"));
+            assertEquals(0, counter.getCount(FileOperation.READ_LINES));
+            assertFalse(FileMetrics.isEnabled());
+        }
+    }
+
+    @Nested
+    class Histogram {
+
+        @Test
+        void percentile() {
+            LatencyHistogram histogram = new LatencyHistogram();
+            for (int i = 0; i < 99; i++) {
+                histogram.record(1000);
+            }
+            histogram.record(1_000_000);
+            assertEquals(1023, histogram.getPercentile(50));
+            assertEquals(1023, histogram.getPercentile(99));
+            assertTrue(histogram.getPercentile(100) >= 1_000_000);
+        }
+
+        @Test
+        void empty() {
+            assertEquals(0, new LatencyHistogram().getPercentile(99));
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.common.file.properties;
+
+import be.yildizgames.common.file.FileProperties;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Grégory Van den Borre
+ */
+public class CompiledPropertiesTest {
+
+    @Nested
+    class Load {
+
+        @Test
+        void happyFlow() throws IOException {
+            Path file = write("b=2\na=1\nunicode.é=日本\n");
+            CompiledProperties properties = CompiledProperties.load(file);
+            assertEquals("1", properties.getProperty("a"));
+            assertEquals("2", properties.getProperty("b"));
+            assertEquals("日本", properties.getProperty("unicode.é"));
+            assertEquals(List.of("a", "b", "unicode.é"), properties.keys());
+            assertTrue(Files.exists(file.resolveSibling(file.getFileName() + CompiledProperties.SUFFIX)));
+        }
+
+        @Test
+        void manyKeys() throws IOException {
+            Properties source = new Properties();
+            for (int i = 0; i < 5000; i++) {
+                source.setProperty("key." + i, "value" + i);
+            }
+            Path file = Files.createTempDirectory("compiled").resolve("many.properties");
+            FileProperties.save(source, file);
+            CompiledProperties properties = CompiledProperties.load(file);
+            assertEquals(5000, properties.size());
+            for (int i = 0; i < 5000; i++) {
+                assertEquals("value" + i, properties.getProperty("key." + i));
+            }
+            assertEquals(source, properties.toProperties());
+        }
+
+        @Test
+        void missingKey() throws IOException {
+            CompiledProperties properties = CompiledProperties.load(write("a=1\n"));
+            assertNull(properties.getProperty("b"));
+            assertFalse(properties.containsKey("b"));
+            assertEquals("default", properties.getProperty("b", "default"));
+        }
+
+        @Test
+        void empty() throws IOException {
+            CompiledProperties properties = CompiledProperties.load(write(""));
+            assertEquals(0, properties.size());
+            assertNull(properties.getProperty("a"));
+        }
+
+        @Test
+        void notExisting() {
+            assertThrows(IllegalStateException.class, () -> CompiledProperties.load(Path.of("notexisting.properties")));
+        }
+
+        @Test
+        void fromFileProperties() throws IOException {
+            CompiledProperties properties = FileProperties.getCompiledPropertiesFromFile(write("a=1\n"));
+            assertEquals("1", properties.getProperty("a"));
+        }
+    }
+
+    @Nested
+    class Recompile {
+
+        @Test
+        void sourceChanged() throws IOException {
+            Path file = write("a=1\n");
+            Files.setLastModifiedTime(file, FileTime.fromMillis(1_000_000));
+            assertEquals("1", CompiledProperties.load(file).getProperty("a"));
+            Files.writeString(file, "a=2\n");
+            Files.setLastModifiedTime(file, FileTime.fromMillis(2_000_000));
+            assertEquals("2", CompiledProperties.load(file).getProperty("a"));
+        }
+
+        @Test
+        void corruptedCompiledFile() throws IOException {
+            Path file = write("a=1\n");
+            Path compiled = file.resolveSibling("custom.bin");
+            Files.write(compiled, new byte[]{1, 2, 3});
+            assertEquals("1", CompiledProperties.load(file, compiled).getProperty("a"));
+        }
+
+        @Test
+        void explicitCompile() throws IOException {
+            Path file = write("a=1\n");
+            Path compiled = file.resolveSibling("custom.bin");
+            CompiledProperties.compile(file, compiled);
+            long size = Files.size(compiled);
+            assertEquals("1", CompiledProperties.load(file, compiled).getProperty("a"));
+            assertEquals(size, Files.size(compiled));
+        }
+    }
+
+    private static Path write(String content) throws IOException {
+        Path file = Files.createTempDirectory("compiled").resolve("test.properties");
+        Files.writeString(file, content);
+        return file;
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.common.file.schedule;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Grégory Van den Borre
+ */
+public class IoSchedulerTest {
+
+    @Nested
+    class Submit {
+
+        @Test
+        void priorityOrder() throws Exception {
+            try (IoScheduler scheduler = IoScheduler.create(1)) {
+                CountDownLatch release = new CountDownLatch(1);
+                CompletableFuture<Object> blocking = scheduler.submit(IoPriority.NORMAL, () -> await(release));
+                List<IoPriority> order = new ArrayList<>();
+                CompletableFuture<Boolean> background = scheduler.submit(IoPriority.BACKGROUND, () -> order.add(IoPriority.BACKGROUND));
+                CompletableFuture<Boolean> foreground = scheduler.submit(IoPriority.FOREGROUND, () -> order.add(IoPriority.FOREGROUND));
+                release.countDown();
+                CompletableFuture.allOf(blocking, background, foreground).get(5, TimeUnit.SECONDS);
+                assertEquals(List.of(IoPriority.FOREGROUND, IoPriority.BACKGROUND), order);
+            }
+        }
+
+        @Test
+        void concurrencyLimit() throws Exception {
+            try (IoScheduler scheduler = IoScheduler.create(4).setConcurrency(IoPriority.BACKGROUND, 1)) {
+                AtomicInteger current = new AtomicInteger();
+                AtomicInteger max = new AtomicInteger();
+                List<CompletableFuture<Object>> futures = new ArrayList<>();
+                for (int i = 0; i < 8; i++) {
+                    futures.add(scheduler.submit(IoPriority.BACKGROUND, () -> {
+                        max.accumulateAndGet(current.incrementAndGet(), Math::max);
+                        sleep(10);
+                        current.decrementAndGet();
+                        return null;
+                    }));
+                }
+                CompletableFuture<String> foreground = scheduler.submit(IoPriority.FOREGROUND, () -> "done");
+                assertEquals("done", foreground.get(5, TimeUnit.SECONDS));
+                CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+                assertEquals(1, max.get());
+            }
+        }
+
+        @Test
+        void failure() {
+            try (IoScheduler scheduler = IoScheduler.create(1)) {
+                CompletableFuture<Object> future = scheduler.submit(IoPriority.NORMAL, () -> {
+                    throw new IOException("expected");
+                });
+                ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+                assertTrue(e.getCause() instanceof IOException);
+            }
+        }
+
+        @Test
+        void error() throws Exception {
+            try (IoScheduler scheduler = IoScheduler.create(1)) {
+                CompletableFuture<Object> future = scheduler.submit(IoPriority.NORMAL, () -> {
+                    throw new OutOfMemoryError("expected");
+                });
+                ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+                assertTrue(e.getCause() instanceof OutOfMemoryError);
+                assertEquals("next", scheduler.submit(IoPriority.NORMAL, () -> "next").get(5, TimeUnit.SECONDS));
+            }
+        }
+
+        @Test
+        void closed() {
+            IoScheduler scheduler = IoScheduler.create(1);
+            scheduler.close();
+            assertThrows(IllegalStateException.class, () -> scheduler.submit(IoPriority.NORMAL, () -> null));
+        }
+
+        @Test
+        void cancelledOnClose() throws Exception {
+            IoScheduler scheduler = IoScheduler.create(1);
+            CountDownLatch release = new CountDownLatch(1);
+            CompletableFuture<Object> blocking = scheduler.submit(IoPriority.NORMAL, () -> await(release));
+            while (scheduler.getRunning(IoPriority.NORMAL) == 0) {
+                Thread.sleep(1);
+            }
+            CompletableFuture<Object> waiting = scheduler.submit(IoPriority.NORMAL, () -> null);
+            scheduler.close();
+            release.countDown();
+            blocking.get(5, TimeUnit.SECONDS);
+            assertTrue(waiting.isCancelled());
+        }
+    }
+
+    @Nested
+    class Throttle {
+
+        @Test
+        void acquire() throws IOException {
+            try (IoScheduler scheduler = IoScheduler.create(1).setThrottle(IoPriority.BACKGROUND, 1_000_000)) {
+                long start = System.nanoTime();
+                scheduler.acquire(IoPriority.BACKGROUND, 1_000_000);
+                scheduler.acquire(IoPriority.BACKGROUND, 200_000);
+                assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(150));
+            }
+        }
+
+        @Test
+        void notThrottled() throws IOException {
+            try (IoScheduler scheduler = IoScheduler.create(1).setThrottle(IoPriority.BACKGROUND, 1_000)) {
+                long start = System.nanoTime();
+                scheduler.acquire(IoPriority.FOREGROUND, 1_000_000);
+                assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(150));
+            }
+        }
+    }
+
+    @Nested
+    class Operations {
+
+        @Test
+        void copyAndChecksum() throws Exception {
+            Path dir = Files.createTempDirectory("io");
+            byte[] content = new byte[300_000];
+            new Random(1).nextBytes(content);
+            Path source = dir.resolve("source.bin");
+            Files.write(source, content);
+            Path target = dir.resolve("sub").resolve("target.bin");
+            CRC32 crc = new CRC32();
+            crc.update(content);
+            try (IoScheduler scheduler = IoScheduler.create(2).setThrottle(IoPriority.BACKGROUND, 10_000_000)) {
+                assertEquals(Long.valueOf(content.length), scheduler.copy(IoPriority.BACKGROUND, source, target).get(5, TimeUnit.SECONDS));
+                assertArrayEquals(content, scheduler.readAllBytes(IoPriority.FOREGROUND, target).get(5, TimeUnit.SECONDS));
+                assertEquals(Long.valueOf(crc.getValue()), scheduler.computeCrc32(IoPriority.BACKGROUND, target).get(5, TimeUnit.SECONDS));
+                scheduler.deleteDirectoryTree(IoPriority.BACKGROUND, dir).get(5, TimeUnit.SECONDS);
+            }
+            assertTrue(Files.notExists(dir));
+        }
+    }
+
+    private static Object await(CountDownLatch latch) throws IOException {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+        return null;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
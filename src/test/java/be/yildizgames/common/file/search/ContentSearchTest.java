@@ -0,0 +1,153 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.common.file.search;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Grégory Van den Borre
+ */
+public class ContentSearchTest {
+
+    @Nested
+    class Literal {
+
+        @Test
+        void happyFlow() throws IOException {
+            Path root = Files.createTempDirectory("search");
+            Files.createDirectories(root.resolve("sub"));
+            Files.writeString(root.resolve("a.txt"), "first line\nsecond needle line\r\nthird");
+            Files.writeString(root.resolve("sub").resolve("b.txt"), "needle needle\n");
+            Files.writeString(root.resolve("c.txt"), "nothing");
+            List<SearchMatch> matches = search(ContentSearch.literal("needle").withParallelism(2), root);
+            assertEquals(3, matches.size());
+            assertEquals(root.resolve("a.txt"), matches.get(0).getFile());
+            assertEquals(18, matches.get(0).getOffset());
+            assertEquals(2, matches.get(0).getLineNumber());
+            assertEquals("second needle line", matches.get(0).getLine());
+            assertEquals(root.resolve("sub").resolve("b.txt"), matches.get(1).getFile());
+            assertEquals(0, matches.get(1).getOffset());
+            assertEquals(7, matches.get(2).getOffset());
+            assertEquals("needle needle", matches.get(2).getLine());
+        }
+
+        @Test
+        void multiByte() throws IOException {
+            Path file = Files.createTempFile("search", ".txt");
+            Files.writeString(file, "é日本\nxx日本", StandardCharsets.UTF_8);
+            List<SearchMatch> matches = search(ContentSearch.literal("日本"), file);
+            assertEquals(2, matches.size());
+            assertEquals(2, matches.get(0).getOffset());
+            assertEquals(11, matches.get(1).getOffset());
+            assertEquals("xx日本", matches.get(1).getLine());
+        }
+
+        @Test
+        void mappedFile() throws IOException {
+            Path file = Files.createTempFile("search", ".txt");
+            StringBuilder builder = new StringBuilder();
+            while (builder.length() <= ContentSearch.MAP_THRESHOLD) {
+                builder.append("some filler text\n");
+            }
+            int offset = builder.length();
+            builder.append("the end");
+            Files.writeString(file, builder);
+            List<SearchMatch> matches = search(ContentSearch.literal("end"), file);
+            assertEquals(1, matches.size());
+            assertEquals(offset + 4, matches.get(0).getOffset());
+            assertEquals("the end", matches.get(0).getLine());
+        }
+
+        @Test
+        void invalid() {
+            assertThrows(IllegalArgumentException.class, () -> ContentSearch.literal(""));
+        }
+    }
+
+    @Nested
+    class Regex {
+
+        @Test
+        void happyFlow() throws IOException {
+            Path file = Files.createTempFile("search", ".txt");
+            Files.writeString(file, "id=12\nname=abc\nid=345");
+            List<SearchMatch> matches = search(ContentSearch.regex("id=\\d+"), file);
+            assertEquals(2, matches.size());
+            assertEquals(1, matches.get(0).getLineNumber());
+            assertEquals(15, matches.get(1).getOffset());
+            assertEquals("id=345", matches.get(1).getLine());
+        }
+    }
+
+    @Nested
+    class Options {
+
+        @Test
+        void binarySkipped() throws IOException {
+            Path file = Files.createTempFile("search", ".bin");
+            Files.write(file, new byte[]{'a', 0, 'n', 'e', 'e', 'd', 'l', 'e'});
+            assertTrue(search(ContentSearch.literal("needle"), file).isEmpty());
+            assertEquals(1, search(ContentSearch.literal("needle").withBinaryFilesSkipped(false), file).size());
+        }
+
+        @Test
+        void sizeLimit() throws IOException {
+            Path file = Files.createTempFile("search", ".txt");
+            Files.writeString(file, "needle");
+            assertTrue(search(ContentSearch.literal("needle").withMaxFileSize(5), file).isEmpty());
+            assertEquals(1, search(ContentSearch.literal("needle").withMaxFileSize(6), file).size());
+        }
+
+        @Test
+        void partialConsumption() throws IOException {
+            Path root = Files.createTempDirectory("search");
+            for (int i = 0; i < 50; i++) {
+                Files.writeString(root.resolve("file" + i + ".txt"), "needle");
+            }
+            try (Stream<SearchMatch> matches = ContentSearch.literal("needle").withParallelism(2).search(root)) {
+                assertEquals(3, matches.limit(3).count());
+            }
+        }
+    }
+
+    private static List<SearchMatch> search(ContentSearch search, Path root) {
+        try (Stream<SearchMatch> matches = search.search(root)) {
+            return matches.collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.common.file.sort;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Grégory Van den Borre
+ */
+public class LineSorterTest {
+
+    @Nested
+    class Sort {
+
+        @Test
+        void inMemory() throws IOException {
+            Path source = write(List.of("c", "a", "b"));
+            Path target = source.resolveSibling("sorted.txt");
+            assertEquals(3, LineSorter.create().sort(source, target));
+            assertEquals(List.of("a", "b", "c"), Files.readAllLines(target));
+        }
+
+        @Test
+        void manyRuns() throws IOException {
+            List<String> lines = randomLines(10_000);
+            Path source = write(lines);
+            Path target = source.resolveSibling("sorted.txt");
+            assertEquals(lines.size(), LineSorter.create(Comparator.naturalOrder(), 20_000, 4, false).sort(source, target));
+            List<String> expected = new ArrayList<>(lines);
+            expected.sort(Comparator.naturalOrder());
+            assertEquals(expected, Files.readAllLines(target));
+            assertEquals(1, countFiles(target.getParent()) - 1);
+        }
+
+        @Test
+        void emptyLinesLast() throws IOException {
+            List<String> lines = new ArrayList<>();
+            for (int i = 0; i < 400; i++) {
+                lines.add(i % 2 == 0 ? "" : "line" + i);
+            }
+            Path source = write(lines);
+            Path target = source.resolveSibling("sorted.txt");
+            assertEquals(400, LineSorter.create(Comparator.<String>naturalOrder().reversed(), 20_000, 4, false).sort(source, target));
+            List<String> expected = new ArrayList<>(lines);
+            expected.sort(Comparator.<String>naturalOrder().reversed());
+            assertEquals(expected, List.of(Files.readString(target).split("\n", -1)));
+        }
+
+        @Test
+        void budgetSmallerThanLine() throws IOException {
+            Path source = write(List.of("single line"));
+            Path target = source.resolveSibling("sorted.txt");
+            assertEquals(1, LineSorter.create(Comparator.naturalOrder(), 1, 1, false).sort(source, target));
+            assertEquals("single line", Files.readString(target));
+            Path many = write(List.of("c", "a", "b"));
+            LineSorter.create(Comparator.naturalOrder(), 1, 1, false).sort(many, target);
+            assertEquals("a\nb\nc", Files.readString(target));
+        }
+
+        @Test
+        void inPlace() throws IOException {
+            Path source = write(List.of("b", "a"));
+            LineSorter.create(Comparator.naturalOrder(), 100, 2, false).sort(source, source);
+            assertEquals(List.of("a", "b"), Files.readAllLines(source));
+        }
+
+        @Test
+        void empty() throws IOException {
+            Path source = write(List.of());
+            Path target = source.resolveSibling("sorted.txt");
+            assertEquals(0, LineSorter.create().sort(source, target));
+            assertEquals(0, Files.size(target));
+        }
+
+        @Test
+        void notExisting() throws IOException {
+            Path dir = Files.createTempDirectory("sort");
+            assertThrows(IllegalStateException.class, () -> LineSorter.create().sort(dir.resolve("none.txt"), dir.resolve("sorted.txt")));
+        }
+    }
+
+    @Nested
+    class Options {
+
+        @Test
+        void comparator() throws IOException {
+            Path source = write(List.of("bb", "a", "ccc", "B"));
+            Path target = source.resolveSibling("sorted.txt");
+            LineSorter.create(Comparator.comparing(String::length).reversed(), 100, 2, false).sort(source, target);
+            assertEquals(List.of("ccc", "bb", "a", "B"), Files.readAllLines(target));
+        }
+
+        @Test
+        void distinct() throws IOException {
+            List<String> lines = new ArrayList<>();
+            for (int i = 0; i < 5000; i++) {
+                lines.add("line" + (i % 100));
+            }
+            Path source = write(lines);
+            Path target = source.resolveSibling("sorted.txt");
+            assertEquals(100, LineSorter.create(Comparator.naturalOrder(), 10_000, 3, true).sort(source, target));
+            List<String> result = Files.readAllLines(target);
+            assertEquals(lines.stream().distinct().sorted().collect(Collectors.toList()), result);
+        }
+
+        @Test
+        void distinctWithComparator() throws IOException {
+            Path source = write(List.of("b", "A", "a", "B"));
+            Path target = source.resolveSibling("sorted.txt");
+            LineSorter.create(String.CASE_INSENSITIVE_ORDER, 100, 2, true).sort(source, target);
+            assertEquals(List.of("A", "b"), Files.readAllLines(target));
+        }
+    }
+
+    private static Path write(List<String> lines) throws IOException {
+        Path source = Files.createTempDirectory("sort").resolve("source.txt");
+        Files.write(source, lines);
+        return source;
+    }
+
+    private static List<String> randomLines(int count) {
+        Random random = new Random(42);
+        List<String> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(Long.toHexString(random.nextLong()) + "-" + i % 7);
+        }
+        return result;
+    }
+
+    private static long countFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+}
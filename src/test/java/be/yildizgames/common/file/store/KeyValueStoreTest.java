@@ -0,0 +1,198 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.common.file.store;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Grégory Van den Borre
+ */
+public class KeyValueStoreTest {
+
+    @Nested
+    class PutGet {
+
+        @Test
+        void happyFlow() throws IOException {
+            try (KeyValueStore<String> store = KeyValueStore.open(Files.createTempDirectory("kv"), ValueCodec.utf8())) {
+                store.put("a", "value-a");
+                store.put("b", "value-b");
+                assertEquals(Optional.of("value-a"), store.get("a"));
+                assertEquals(Optional.of("value-b"), store.get("b"));
+                assertEquals(Set.of("a", "b"), store.keys());
+            }
+        }
+
+        @Test
+        void overwrite() throws IOException {
+            try (KeyValueStore<String> store = KeyValueStore.open(Files.createTempDirectory("kv"), ValueCodec.utf8())) {
+                store.put("a", "first");
+                store.put("a", "second");
+                assertEquals(Optional.of("second"), store.get("a"));
+                assertEquals(1, store.size());
+                assertTrue(store.getDeadBytes() > 0);
+            }
+        }
+
+        @Test
+        void notFound() throws IOException {
+            try (KeyValueStore<String> store = KeyValueStore.open(Files.createTempDirectory("kv"), ValueCodec.utf8())) {
+                assertEquals(Optional.empty(), store.get("a"));
+            }
+        }
+
+        @Test
+        void closed() throws IOException {
+            KeyValueStore<String> store = KeyValueStore.open(Files.createTempDirectory("kv"), ValueCodec.utf8());
+            store.close();
+            assertThrows(IllegalStateException.class, () -> store.put("a", "b"));
+        }
+    }
+
+    @Nested
+    class Remove {
+
+        @Test
+        void happyFlow() throws IOException {
+            try (KeyValueStore<String> store = KeyValueStore.open(Files.createTempDirectory("kv"), ValueCodec.utf8())) {
+                store.put("a", "value");
+                assertTrue(store.remove("a"));
+                assertFalse(store.contains("a"));
+                assertFalse(store.remove("a"));
+            }
+        }
+    }
+
+    @Nested
+    class Reopen {
+
+        @Test
+        void singleSegment() throws IOException {
+            Path dir = Files.createTempDirectory("kv");
+            try (KeyValueStore<String> store = KeyValueStore.open(dir, ValueCodec.utf8())) {
+                store.put("a", "first");
+                store.put("a", "second");
+                store.put("b", "removed");
+                store.remove("b");
+            }
+            try (KeyValueStore<String> store = KeyValueStore.open(dir, ValueCodec.utf8())) {
+                assertEquals(Optional.of("second"), store.get("a"));
+                assertFalse(store.contains("b"));
+            }
+        }
+
+        @Test
+        void fromHints() throws IOException {
+            Path dir = Files.createTempDirectory("kv");
+            try (KeyValueStore<String> store = KeyValueStore.open(dir, ValueCodec.utf8(), 64)) {
+                for (int i = 0; i < 50; i++) {
+                    store.put("key" + i, "value" + i);
+                }
+                store.remove("key10");
+                assertTrue(store.getSegmentCount() > 1);
+            }
+            assertTrue(Files.exists(dir.resolve("segment-0000000000.hint")));
+            try (KeyValueStore<String> store = KeyValueStore.open(dir, ValueCodec.utf8(), 64)) {
+                assertEquals(49, store.size());
+                assertEquals(Optional.of("value42"), store.get("key42"));
+                assertFalse(store.contains("key10"));
+            }
+        }
+
+        @Test
+        void incompleteRecord() throws IOException {
+            Path dir = Files.createTempDirectory("kv");
+            try (KeyValueStore<String> store = KeyValueStore.open(dir, ValueCodec.utf8())) {
+                store.put("a", "value");
+            }
+            Path segment = dir.resolve("segment-0000000000.data");
+            long size = Files.size(segment);
+            Files.write(segment, new byte[]{1, 2, 3, 4, 0, 0}, StandardOpenOption.APPEND);
+            try (KeyValueStore<String> store = KeyValueStore.open(dir, ValueCodec.utf8())) {
+                assertEquals(size, Files.size(segment));
+                assertEquals(Optional.of("value"), store.get("a"));
+                store.put("b", "other");
+            }
+            try (KeyValueStore<String> store = KeyValueStore.open(dir, ValueCodec.utf8())) {
+                assertEquals(Optional.of("other"), store.get("b"));
+            }
+        }
+    }
+
+    @Nested
+    class Compact {
+
+        @Test
+        void happyFlow() throws IOException {
+            Path dir = Files.createTempDirectory("kv");
+            try (KeyValueStore<String> store = KeyValueStore.open(dir, ValueCodec.utf8(), 1024 * 1024)) {
+                for (int i = 0; i < 100; i++) {
+                    store.put("key" + (i % 10), "value" + i);
+                }
+                store.remove("key0");
+                store.compact();
+                assertEquals(0, store.getDeadBytes());
+                assertEquals(9, store.size());
+                assertEquals(Optional.of("value99"), store.get("key9"));
+                store.put("key1", "updated");
+            }
+            try (KeyValueStore<String> store = KeyValueStore.open(dir, ValueCodec.utf8())) {
+                assertEquals(9, store.size());
+                assertEquals(Optional.of("updated"), store.get("key1"));
+                assertEquals(Optional.of("value98"), store.get("key8"));
+                assertFalse(store.contains("key0"));
+            }
+        }
+
+        @Test
+        void background() throws IOException, InterruptedException {
+            Path dir = Files.createTempDirectory("kv");
+            try (KeyValueStore<String> store = KeyValueStore.open(dir, ValueCodec.utf8(), 256)) {
+                for (int i = 0; i < 1000; i++) {
+                    store.put("key" + (i % 5), "value" + i);
+                }
+                long deadline = System.currentTimeMillis() + 5000;
+                while (store.getSegmentCount() > 10 && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(10);
+                }
+                assertTrue(store.getSegmentCount() <= 10);
+                assertEquals(Optional.of("value999"), store.get("key4"));
+            }
+        }
+    }
+}
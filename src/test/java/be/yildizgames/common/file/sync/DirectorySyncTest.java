@@ -0,0 +1,174 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.common.file.sync;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Grégory Van den Borre
+ */
+public class DirectorySyncTest {
+
+    @Nested
+    class Diff {
+
+        @Test
+        void happyFlow() throws IOException {
+            Path source = Files.createTempDirectory("source");
+            Path target = Files.createTempDirectory("target");
+            Files.writeString(source.resolve("same.txt"), "same");
+            Files.writeString(target.resolve("same.txt"), "same");
+            Files.writeString(source.resolve("added.txt"), "added");
+            Files.writeString(target.resolve("removed.txt"), "removed");
+            Files.writeString(source.resolve("changed.txt"), "abcd");
+            Files.writeString(target.resolve("changed.txt"), "abce");
+            Files.setLastModifiedTime(target.resolve("changed.txt"), FileTime.fromMillis(0));
+            DirectoryDiff diff = DirectoryDiff.compare(target, source, ChecksumCache.create());
+            assertEquals(List.of("added.txt"), diff.getAdded());
+            assertEquals(List.of("removed.txt"), diff.getRemoved());
+            assertEquals(List.of("changed.txt"), diff.getChanged());
+        }
+
+        @Test
+        void fromManifest() throws IOException {
+            Path source = Files.createTempDirectory("source");
+            Path target = Files.createTempDirectory("target");
+            Files.writeString(target.resolve("with_underscore.txt"), "abcd");
+            long crc = ChecksumCache.create().getCrc(target.resolve("with_underscore.txt"));
+            List<String> manifest = List.of(
+                    source.resolve("with_underscore.txt").toAbsolutePath() + "_" + crc + "_4",
+                    source.resolve("other.txt").toAbsolutePath() + "_0_2");
+            DirectoryDiff diff = DirectoryDiff.compare(target, manifest, source, ChecksumCache.create());
+            assertEquals(List.of("other.txt"), diff.getAdded());
+            assertTrue(diff.getRemoved().isEmpty());
+            assertTrue(diff.getChanged().isEmpty());
+        }
+
+        @Test
+        void invalidManifest() throws IOException {
+            Path target = Files.createTempDirectory("target");
+            assertThrows(IllegalArgumentException.class, () -> DirectoryDiff.compare(target, List.of("invalid"), target, ChecksumCache.create()));
+        }
+    }
+
+    @Nested
+    class Synchronize {
+
+        @Test
+        void happyFlow() throws IOException {
+            Path source = Files.createTempDirectory("source");
+            Path target = Files.createTempDirectory("target");
+            Files.createDirectories(source.resolve("sub"));
+            Files.writeString(source.resolve("sub").resolve("added.txt"), "added");
+            Files.writeString(target.resolve("removed.txt"), "removed");
+            DirectorySync sync = DirectorySync.create(ChecksumCache.create());
+            sync.synchronize(source, target);
+            assertEquals("added", Files.readString(target.resolve("sub").resolve("added.txt")));
+            assertTrue(Files.notExists(target.resolve("removed.txt")));
+            assertTrue(sync.diff(source, target).isEmpty());
+        }
+
+        @Test
+        void withDelta() throws IOException {
+            Path source = Files.createTempDirectory("source");
+            Path target = Files.createTempDirectory("target");
+            byte[] content = randomBytes(100_000);
+            Files.write(target.resolve("big.bin"), content);
+            Files.setLastModifiedTime(target.resolve("big.bin"), FileTime.fromMillis(0));
+            content[50_000] = (byte) (content[50_000] + 1);
+            Files.write(source.resolve("big.bin"), content);
+            DirectorySync.create(ChecksumCache.create(), 1024, 0).synchronize(source, target);
+            assertArrayEquals(content, Files.readAllBytes(target.resolve("big.bin")));
+        }
+    }
+
+    @Nested
+    class Delta {
+
+        @Test
+        void insertedData() throws IOException {
+            Path basis = Files.createTempFile("basis", ".bin");
+            byte[] old = randomBytes(10_000);
+            Files.write(basis, old);
+            byte[] updated = new byte[old.length + 3];
+            System.arraycopy(old, 0, updated, 0, 5000);
+            updated[5000] = 1;
+            updated[5001] = 2;
+            updated[5002] = 3;
+            System.arraycopy(old, 5000, updated, 5003, 5000);
+            ByteArrayOutputStream delta = new ByteArrayOutputStream();
+            BlockDelta.write(BlockSignature.compute(basis, 512), new ByteArrayInputStream(updated), delta);
+            assertTrue(delta.size() < 2048);
+            ByteArrayOutputStream result = new ByteArrayOutputStream();
+            BlockDelta.apply(basis, new ByteArrayInputStream(delta.toByteArray()), result);
+            assertArrayEquals(updated, result.toByteArray());
+        }
+
+        @Test
+        void emptySource() throws IOException {
+            Path basis = Files.createTempFile("basis", ".bin");
+            Files.write(basis, randomBytes(1000));
+            ByteArrayOutputStream delta = new ByteArrayOutputStream();
+            BlockDelta.write(BlockSignature.compute(basis, 128), new ByteArrayInputStream(new byte[0]), delta);
+            ByteArrayOutputStream result = new ByteArrayOutputStream();
+            BlockDelta.apply(basis, new ByteArrayInputStream(delta.toByteArray()), result);
+            assertEquals(0, result.size());
+        }
+
+        @Test
+        void signatureSerialization() throws IOException {
+            Path basis = Files.createTempFile("basis", ".bin");
+            Files.write(basis, randomBytes(1000));
+            BlockSignature signature = BlockSignature.compute(basis, 128);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            signature.write(out);
+            BlockSignature read = BlockSignature.read(new ByteArrayInputStream(out.toByteArray()));
+            assertEquals(signature.getBlockCount(), read.getBlockCount());
+            assertEquals(signature.getLength(), read.getLength());
+            assertEquals(signature.getBlockSize(), read.getBlockSize());
+        }
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] result = new byte[size];
+        new Random(42).nextBytes(result);
+        return result;
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.common.file.sync;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author Grégory Van den Borre
+ */
+public class ManifestTest {
+
+    private static final List<FileEntry> ENTRIES = List.of(
+            FileEntry.of("assets/textures/a_b.png", 12, 1000, 4294967295L),
+            FileEntry.of("assets/textures/c.png", 0, FileEntry.UNKNOWN_TIME, FileEntry.UNKNOWN_CRC),
+            FileEntry.of("assets/é\\with\ttab\nand line", 1L << 40, 5, 42));
+
+    @Nested
+    class Binary {
+
+        @Test
+        void happyFlow() throws IOException {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try (ManifestWriter writer = ManifestWriter.binary(out)) {
+                for (FileEntry e : ENTRIES) {
+                    writer.write(e);
+                }
+            }
+            try (ManifestReader reader = ManifestReader.open(new ByteArrayInputStream(out.toByteArray()))) {
+                assertEquals(ENTRIES, reader.readAll());
+                assertNull(reader.read());
+            }
+        }
+
+        @Test
+        void truncated() throws IOException {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try (ManifestWriter writer = ManifestWriter.binary(out)) {
+                writer.write(ENTRIES.get(0));
+            }
+            byte[] data = out.toByteArray();
+            ManifestReader reader = ManifestReader.open(new ByteArrayInputStream(data, 0, data.length - 3));
+            assertThrows(IOException.class, reader::read);
+        }
+    }
+
+    @Nested
+    class Text {
+
+        @Test
+        void happyFlow() throws IOException {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try (ManifestWriter writer = ManifestWriter.text(out)) {
+                for (FileEntry e : ENTRIES) {
+                    writer.write(e);
+                }
+            }
+            try (ManifestReader reader = ManifestReader.open(new ByteArrayInputStream(out.toByteArray()))) {
+                assertEquals(ENTRIES, reader.readAll());
+            }
+        }
+
+        @Test
+        void invalidHeader() {
+            byte[] data = "not a manifest\n".getBytes(StandardCharsets.UTF_8);
+            assertThrows(IOException.class, () -> ManifestReader.open(new ByteArrayInputStream(data)));
+        }
+    }
+
+    @Nested
+    class WriteTree {
+
+        @Test
+        void happyFlow() throws IOException {
+            Path root = Files.createTempDirectory("manifest");
+            Files.createDirectories(root.resolve("b"));
+            Files.writeString(root.resolve("b").resolve("file.txt"), "abc");
+            Files.writeString(root.resolve("a.txt"), "a");
+            ChecksumCache cache = ChecksumCache.create();
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try (ManifestWriter writer = ManifestWriter.binary(out)) {
+                writer.writeTree(root, cache);
+            }
+            try (ManifestReader reader = ManifestReader.open(new ByteArrayInputStream(out.toByteArray()))) {
+                List<FileEntry> entries = reader.readAll();
+                assertEquals(2, entries.size());
+                assertEquals("a.txt", entries.get(0).getPath());
+                assertEquals("b/file.txt", entries.get(1).getPath());
+                assertEquals(cache.getCrc(root.resolve("a.txt")), entries.get(0).getCrc());
+                assertEquals(3, entries.get(1).getSize());
+                assertEquals(0, DirectoryDiff.compare(root, entries, cache).getChanged().size());
+            }
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.common.file.transfer;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Grégory Van den Borre
+ */
+public class ChunkedTransferTest {
+
+    @Nested
+    class Copy {
+
+        @Test
+        void happyFlow() throws IOException {
+            Path source = Files.createTempFile("source", ".bin");
+            byte[] content = randomBytes(10_500);
+            Files.write(source, content);
+            Path target = Files.createTempDirectory("target").resolve("copy.bin");
+            assertEquals(content.length, ChunkedTransfer.create(1024, 4).copy(source, target));
+            assertArrayEquals(content, Files.readAllBytes(target));
+            assertTrue(Files.notExists(target.resolveSibling("copy.bin.part")));
+            assertTrue(Files.notExists(target.resolveSibling("copy.bin.journal")));
+        }
+
+        @Test
+        void empty() throws IOException {
+            Path source = Files.createTempFile("source", ".bin");
+            Path target = Files.createTempDirectory("target").resolve("copy.bin");
+            ChunkedTransfer.create(1024, 4).copy(source, target);
+            assertEquals(0, Files.size(target));
+        }
+
+        @Test
+        void resume() throws IOException {
+            Path source = Files.createTempFile("source", ".bin");
+            byte[] content = randomBytes(10_500);
+            Files.write(source, content);
+            Path target = Files.createTempDirectory("target").resolve("copy.bin");
+            ChunkedTransfer transfer = ChunkedTransfer.create(1024, 4);
+            interrupt(transfer, source, target, 5000);
+            assertEquals(4, transfer.getResumeChunk(source, target));
+            assertEquals(content.length - 4 * 1024, transfer.copy(source, target));
+            assertArrayEquals(content, Files.readAllBytes(target));
+        }
+
+        @Test
+        void resumeAfterCorruption() throws IOException {
+            Path source = Files.createTempFile("source", ".bin");
+            byte[] content = randomBytes(10_500);
+            Files.write(source, content);
+            Path target = Files.createTempDirectory("target").resolve("copy.bin");
+            ChunkedTransfer transfer = ChunkedTransfer.create(1024, 4);
+            interrupt(transfer, source, target, 5000);
+            try (RandomAccessFile part = new RandomAccessFile(target.resolveSibling("copy.bin.part").toFile(), "rw")) {
+                part.seek(1500);
+                part.write(part.read() + 1);
+            }
+            assertEquals(1, transfer.getResumeChunk(source, target));
+            transfer.copy(source, target);
+            assertArrayEquals(content, Files.readAllBytes(target));
+        }
+    }
+
+    @Nested
+    class Stream {
+
+        @Test
+        void resume() throws IOException {
+            Path source = Files.createTempFile("source", ".bin");
+            byte[] content = randomBytes(10_500);
+            Files.write(source, content);
+            Path target = Files.createTempDirectory("target").resolve("copy.bin");
+            ChunkedTransfer transfer = ChunkedTransfer.create(1024, 4);
+            interrupt(transfer, source, target, 3000);
+            int resume = transfer.getResumeChunk(source, target);
+            assertEquals(2, resume);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            transfer.send(source, resume, out);
+            transfer.receive(new ByteArrayInputStream(out.toByteArray()), target);
+            assertArrayEquals(content, Files.readAllBytes(target));
+        }
+
+        @Test
+        void corrupted() throws IOException {
+            Path source = Files.createTempFile("source", ".bin");
+            Files.write(source, randomBytes(3000));
+            Path target = Files.createTempDirectory("target").resolve("copy.bin");
+            ChunkedTransfer transfer = ChunkedTransfer.create(1024, 4);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            transfer.send(source, 0, out);
+            byte[] data = out.toByteArray();
+            data[data.length - 10]++;
+            assertThrows(IllegalStateException.class, () -> transfer.receive(new ByteArrayInputStream(data), target));
+            assertEquals(2, transfer.getResumeChunk(source, target));
+        }
+
+        @Test
+        void startAfterResumePoint() throws IOException {
+            Path source = Files.createTempFile("source", ".bin");
+            Files.write(source, randomBytes(3000));
+            Path target = Files.createTempDirectory("target").resolve("copy.bin");
+            ChunkedTransfer transfer = ChunkedTransfer.create(1024, 4);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            transfer.send(source, 1, out);
+            assertThrows(IllegalStateException.class, () -> transfer.receive(new ByteArrayInputStream(out.toByteArray()), target));
+        }
+    }
+
+    /**
+     * Simulate a transfer interrupted after a given number of bytes of stream.
+     */
+    private static void interrupt(ChunkedTransfer transfer, Path source, Path target, int streamBytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        transfer.send(source, 0, out);
+        byte[] truncated = Arrays.copyOf(out.toByteArray(), streamBytes);
+        assertThrows(IllegalStateException.class, () -> transfer.receive(new ByteArrayInputStream(truncated), target));
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] result = new byte[size];
+        new Random(42).nextBytes(result);
+        return result;
+    }
+}
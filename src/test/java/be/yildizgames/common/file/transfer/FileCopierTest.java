@@ -0,0 +1,143 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.common.file.transfer;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Grégory Van den Borre
+ */
+public class FileCopierTest {
+
+    @Nested
+    class Copy {
+
+        @Test
+        void file() throws IOException {
+            Path source = Files.createTempFile("source", ".bin");
+            byte[] content = randomBytes(300_000);
+            Files.write(source, content);
+            Path target = Files.createTempDirectory("target").resolve("sub").resolve("copy.bin");
+            assertEquals(content.length, FileCopier.create().copy(source, target));
+            assertArrayEquals(content, Files.readAllBytes(target));
+            assertTrue(Files.exists(source));
+        }
+
+        @Test
+        void tree() throws IOException {
+            Path source = Files.createTempDirectory("source");
+            Files.createDirectories(source.resolve("a").resolve("b"));
+            Files.createDirectories(source.resolve("empty"));
+            for (int i = 0; i < 20; i++) {
+                Files.writeString(source.resolve("a").resolve("b").resolve("file" + i), "content" + i);
+            }
+            Files.writeString(source.resolve("root.txt"), "root");
+            Path target = Files.createTempDirectory("target").resolve("copy");
+            FileCopier.create(4).copy(source, target);
+            assertEquals("root", Files.readString(target.resolve("root.txt")));
+            assertEquals("content7", Files.readString(target.resolve("a").resolve("b").resolve("file7")));
+            assertTrue(Files.isDirectory(target.resolve("empty")));
+        }
+
+        @Test
+        void existing() throws IOException {
+            Path source = Files.createTempFile("source", ".txt");
+            Path target = Files.createTempFile("target", ".txt");
+            Files.writeString(source, "new");
+            assertThrows(IllegalStateException.class, () -> FileCopier.create().copy(source, target));
+            FileCopier.create(1, StandardCopyOption.REPLACE_EXISTING).copy(source, target);
+            assertEquals("new", Files.readString(target));
+        }
+
+        @Test
+        void existingTree() throws IOException {
+            Path source = Files.createTempDirectory("source");
+            Files.writeString(source.resolve("new.txt"), "new");
+            Path target = Files.createTempDirectory("target");
+            Files.writeString(target.resolve("old.txt"), "old");
+            assertThrows(IllegalStateException.class, () -> FileCopier.create().copy(source, target));
+            assertTrue(Files.notExists(target.resolve("new.txt")));
+            FileCopier.create(1, StandardCopyOption.REPLACE_EXISTING).copy(source, target);
+            assertEquals("new", Files.readString(target.resolve("new.txt")));
+            assertEquals("old", Files.readString(target.resolve("old.txt")));
+        }
+
+        @Test
+        void withAttributes() throws IOException {
+            Path source = Files.createTempFile("source", ".txt");
+            Files.writeString(source, "content");
+            Files.setLastModifiedTime(source, FileTime.fromMillis(1_000_000_000_000L));
+            Path target = Files.createTempDirectory("target").resolve("copy.txt");
+            FileCopier.create(1, StandardCopyOption.COPY_ATTRIBUTES).copy(source, target);
+            assertEquals(Files.getLastModifiedTime(source), Files.getLastModifiedTime(target));
+        }
+
+        @Test
+        void unsupportedOption() {
+            assertThrows(UnsupportedOperationException.class, () -> FileCopier.create(1, StandardCopyOption.ATOMIC_MOVE));
+        }
+    }
+
+    @Nested
+    class Move {
+
+        @Test
+        void tree() throws IOException {
+            Path source = Files.createTempDirectory("source");
+            Files.createDirectories(source.resolve("sub"));
+            Files.writeString(source.resolve("sub").resolve("file.txt"), "content");
+            Path target = Files.createTempDirectory("target").resolve("moved");
+            FileCopier.create().move(source, target);
+            assertTrue(Files.notExists(source));
+            assertEquals("content", Files.readString(target.resolve("sub").resolve("file.txt")));
+        }
+
+        @Test
+        void notExisting() throws IOException {
+            Path source = Files.createTempDirectory("source").resolve("missing");
+            Path target = Files.createTempDirectory("target").resolve("moved");
+            assertThrows(IllegalStateException.class, () -> FileCopier.create().move(source, target));
+        }
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] result = new byte[size];
+        new Random(42).nextBytes(result);
+        return result;
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.common.file.usage;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Grégory Van den Borre
+ */
+public class DiskUsageTest {
+
+    @Nested
+    class Compute {
+
+        @Test
+        void happyFlow() throws IOException {
+            Path root = createTree();
+            DirectoryUsage usage = DiskUsage.create(2).compute(root);
+            assertEquals(root.toAbsolutePath().normalize(), usage.getPath());
+            assertEquals(15, usage.getBytes());
+            assertEquals(3, usage.getFileCount());
+            assertEquals(2, usage.getDirectoryCount());
+        }
+
+        @Test
+        void perDirectory() throws IOException {
+            Path root = createTree();
+            DiskUsage diskUsage = DiskUsage.create(2);
+            diskUsage.compute(root);
+            DirectoryUsage sub = diskUsage.getCached(root.resolve("a")).orElseThrow();
+            assertEquals(10, sub.getBytes());
+            assertEquals(2, sub.getFileCount());
+            assertEquals(1, sub.getDirectoryCount());
+        }
+
+        @Test
+        void notExisting() {
+            assertThrows(IllegalStateException.class, () -> DiskUsage.create(1).compute(Path.of("notexisting")));
+        }
+    }
+
+    @Nested
+    class Cache {
+
+        @Test
+        void unchangedDirectoryNotListed() throws IOException {
+            Path root = createTree();
+            setOld(root);
+            DiskUsage diskUsage = DiskUsage.create(2);
+            assertEquals(15, diskUsage.compute(root).getBytes());
+            Files.writeString(root.resolve("a").resolve("b").resolve("file.txt"), "longer content");
+            setOld(root);
+            assertEquals(15, diskUsage.compute(root).getBytes());
+            diskUsage.invalidate(root.resolve("a").resolve("b"));
+            assertEquals(24, diskUsage.compute(root).getBytes());
+        }
+
+        @Test
+        void addedFile() throws IOException {
+            Path root = createTree();
+            setOld(root);
+            DiskUsage diskUsage = DiskUsage.create(2);
+            diskUsage.compute(root);
+            Files.writeString(root.resolve("a").resolve("b").resolve("added.txt"), "added");
+            DirectoryUsage usage = diskUsage.compute(root);
+            assertEquals(20, usage.getBytes());
+            assertEquals(4, usage.getFileCount());
+        }
+
+        @Test
+        void removedDirectory() throws IOException {
+            Path root = createTree();
+            setOld(root);
+            DiskUsage diskUsage = DiskUsage.create(2);
+            diskUsage.compute(root);
+            Path b = root.resolve("a").resolve("b");
+            Files.delete(b.resolve("file.txt"));
+            Files.delete(b);
+            DirectoryUsage usage = diskUsage.compute(root);
+            assertEquals(10, usage.getBytes());
+            assertEquals(1, usage.getDirectoryCount());
+            assertFalse(diskUsage.getCached(b).isPresent());
+        }
+    }
+
+    /**
+     * Create root/root.txt, root/a/a.txt and root/a/b/file.txt, 5 bytes each.
+     */
+    private static Path createTree() throws IOException {
+        Path root = Files.createTempDirectory("usage");
+        Path b = Files.createDirectories(root.resolve("a").resolve("b"));
+        Files.writeString(root.resolve("root.txt"), "12345");
+        Files.writeString(root.resolve("a").resolve("a.txt"), "12345");
+        Files.writeString(b.resolve("file.txt"), "12345");
+        return root;
+    }
+
+    /**
+     * Set the directories modification time in the past, so they are not listed again while unchanged.
+     */
+    private static void setOld(Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path p : (Iterable<Path>) paths.filter(Files::isDirectory)::iterator) {
+                Files.setLastModifiedTime(p, FileTime.fromMillis(1_000_000));
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.common.file.watch;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Grégory Van den Borre
+ */
+public class DirectoryWatcherTest {
+
+    @Nested
+    class Watch {
+
+        @Test
+        void createdFile() throws IOException, InterruptedException {
+            Path folder = Files.createTempDirectory("watch");
+            BlockingQueue<List<FileChangeEvent>> batches = new LinkedBlockingQueue<>();
+            try (DirectoryWatcher watcher = DirectoryWatcher.create(folder, Duration.ofMillis(50), batches::add).start()) {
+                Files.writeString(folder.resolve("file.txt"), "content");
+                Set<FileChangeEvent> events = collect(batches, 1);
+                assertTrue(events.contains(FileChangeEvent.of(FileChangeEvent.Kind.CREATE, folder.resolve("file.txt"))));
+            }
+        }
+
+        @Test
+        void createdThenDeleted() throws IOException, InterruptedException {
+            Path folder = Files.createTempDirectory("watch");
+            BlockingQueue<List<FileChangeEvent>> batches = new LinkedBlockingQueue<>();
+            try (DirectoryWatcher watcher = DirectoryWatcher.create(folder, Duration.ofMillis(500), batches::add).start()) {
+                Files.writeString(folder.resolve("temp.txt"), "content");
+                Files.delete(folder.resolve("temp.txt"));
+                Files.writeString(folder.resolve("kept.txt"), "content");
+                Set<FileChangeEvent> events = collect(batches, 1);
+                assertTrue(events.contains(FileChangeEvent.of(FileChangeEvent.Kind.CREATE, folder.resolve("kept.txt"))));
+                assertTrue(events.stream().noneMatch(e -> e.getPath().endsWith("temp.txt")));
+            }
+        }
+
+        @Test
+        void newSubDirectory() throws IOException, InterruptedException {
+            Path folder = Files.createTempDirectory("watch");
+            BlockingQueue<List<FileChangeEvent>> batches = new LinkedBlockingQueue<>();
+            try (DirectoryWatcher watcher = DirectoryWatcher.create(folder, Duration.ofMillis(50), batches::add).start()) {
+                Path sub = Files.createDirectory(folder.resolve("sub"));
+                collect(batches, 1);
+                Files.writeString(sub.resolve("file.txt"), "content");
+                Set<FileChangeEvent> events = collect(batches, 1);
+                assertTrue(events.contains(FileChangeEvent.of(FileChangeEvent.Kind.CREATE, sub.resolve("file.txt"))));
+            }
+        }
+
+        @Test
+        void threadFactory() throws IOException, InterruptedException {
+            Path folder = Files.createTempDirectory("watch");
+            BlockingQueue<String> threads = new LinkedBlockingQueue<>();
+            ThreadFactory factory = r -> {
+                Thread thread = new Thread(r, "custom-watcher");
+                thread.setDaemon(true);
+                return thread;
+            };
+            try (DirectoryWatcher watcher = DirectoryWatcher.create(folder, Duration.ofMillis(50), e -> threads.add(Thread.currentThread().getName()), factory).start()) {
+                Files.writeString(folder.resolve("file.txt"), "content");
+                assertEquals("custom-watcher", threads.poll(5, TimeUnit.SECONDS));
+            }
+        }
+
+        @Test
+        void closed() throws IOException {
+            Path folder = Files.createTempDirectory("watch");
+            DirectoryWatcher watcher = DirectoryWatcher.create(folder, Duration.ofMillis(50), e -> {}).start();
+            assertTrue(watcher.isRunning());
+            watcher.close();
+            assertFalse(watcher.isRunning());
+        }
+
+        @Test
+        void notADirectory() throws IOException {
+            Path file = Files.createTempFile("watch", ".txt");
+            assertThrows(IllegalArgumentException.class, () -> DirectoryWatcher.create(file, Duration.ofMillis(50), e -> {}));
+        }
+    }
+
+    private static Set<FileChangeEvent> collect(BlockingQueue<List<FileChangeEvent>> batches, int expected) throws InterruptedException {
+        Set<FileChangeEvent> result = new HashSet<>();
+        for (int i = 0; i < expected; i++) {
+            List<FileChangeEvent> batch = batches.poll(10, TimeUnit.SECONDS);
+            assertNotNull(batch);
+            result.addAll(batch);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.common.file.watch;
+
+import be.yildizgames.common.file.ResourceUtil;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Grégory Van den Borre
+ */
+public class FileTailerTest {
+
+    @Nested
+    class Poll {
+
+        @Test
+        void onlyNewLines() throws IOException {
+            Path file = Files.createTempFile("tail", ".log");
+            try (FileTailer tailer = FileTailer.create()) {
+                ResourceUtil.addLine(file, "first\nsecond\n");
+                assertEquals(List.of("first", "second"), tailer.poll(file));
+                assertTrue(tailer.poll(file).isEmpty());
+                ResourceUtil.addLine(file, "third\r\n");
+                assertEquals(List.of("third"), tailer.poll(file));
+            }
+        }
+
+        @Test
+        void incompleteLine() throws IOException {
+            Path file = Files.createTempFile("tail", ".log");
+            try (FileTailer tailer = FileTailer.create()) {
+                ResourceUtil.addLine(file, "first\nsec");
+                assertEquals(List.of("first"), tailer.poll(file));
+                assertEquals(6, tailer.getOffset(file));
+                ResourceUtil.addLine(file, "ond\n");
+                assertEquals(List.of("second"), tailer.poll(file));
+            }
+        }
+
+        @Test
+        void truncated() throws IOException {
+            Path file = Files.createTempFile("tail", ".log");
+            try (FileTailer tailer = FileTailer.create()) {
+                Files.writeString(file, "a long first line\n");
+                tailer.poll(file);
+                Files.writeString(file, "new\n");
+                assertEquals(List.of("new"), tailer.poll(file));
+            }
+        }
+
+        @Test
+        void rotated() throws IOException {
+            Path file = Files.createTempFile("tail", ".log");
+            try (FileTailer tailer = FileTailer.create()) {
+                Files.writeString(file, "old\n");
+                tailer.poll(file);
+                Path rotated = Files.createTempFile("rotated", ".log");
+                Files.writeString(rotated, "new\nline\n");
+                Files.move(rotated, file, StandardCopyOption.REPLACE_EXISTING);
+                assertEquals(List.of("new", "line"), tailer.poll(file));
+            }
+        }
+
+        @Test
+        void skipToEnd() throws IOException {
+            Path file = Files.createTempFile("tail", ".log");
+            try (FileTailer tailer = FileTailer.create()) {
+                Files.writeString(file, "old\n");
+                tailer.skipToEnd(file);
+                ResourceUtil.addLine(file, "new\n");
+                assertEquals(List.of("new"), tailer.poll(file));
+            }
+        }
+
+        @Test
+        void notExisting() throws IOException {
+            Path file = Files.createTempDirectory("tail").resolve("missing.log");
+            try (FileTailer tailer = FileTailer.create()) {
+                assertTrue(tailer.poll(file).isEmpty());
+            }
+        }
+    }
+
+    @Nested
+    class Await {
+
+        @Test
+        void appended() throws Exception {
+            Path file = Files.createTempFile("tail", ".log");
+            try (FileTailer tailer = FileTailer.create()) {
+                Thread writer = new Thread(() -> {
+                    try {
+                        Thread.sleep(100);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    ResourceUtil.addLine(file, "line\n");
+                });
+                writer.start();
+                assertEquals(List.of("line"), tailer.await(file, Duration.ofSeconds(10)));
+                writer.join();
+            }
+        }
+
+        @Test
+        void timeout() throws Exception {
+            Path file = Files.createTempFile("tail", ".log");
+            try (FileTailer tailer = FileTailer.create()) {
+                assertTrue(tailer.await(file, Duration.ofMillis(50)).isEmpty());
+            }
+        }
+    }
+}